@@ -0,0 +1,60 @@
+package gilu;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import gilu.task.Deadline;
+import gilu.task.Event;
+import gilu.task.Task;
+import gilu.task.Todo;
+
+/**
+ * Generates deterministic task lists for the benchmarks.
+ */
+public final class BenchmarkTasks {
+    /**
+     * A date that the generated deadlines and events fall on regularly.
+     */
+    public static final String QUERY_DATE = "2025-03-14";
+
+    private static final String[] WORDS = {
+        "read", "book", "submit", "report", "team", "meeting", "buy", "bread", "call", "mom",
+        "review", "code", "water", "plants", "gym", "session", "pay", "rent", "plan", "trip"
+    };
+    private static final LocalDateTime BASE_DATE = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+    private BenchmarkTasks() {
+    }
+
+    /**
+     * Generates a mix of todos, deadlines and events spread over a year.
+     *
+     * @param count The number of tasks to generate.
+     * @param seed  The random seed, so that runs are comparable.
+     * @return The generated tasks.
+     */
+    public static List<Task> generate(int count, long seed) {
+        Random random = new Random(seed);
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + i;
+            boolean isDone = random.nextInt(4) == 0;
+            LocalDateTime date = BASE_DATE.plusDays(random.nextInt(365)).plusHours(random.nextInt(10));
+            switch (i % 3) {
+            case 0:
+                tasks.add(new Todo(description, isDone));
+                break;
+            case 1:
+                tasks.add(new Deadline(description, date, isDone));
+                break;
+            default:
+                tasks.add(new Event(description, date, date.plusDays(random.nextInt(3)).plusHours(2), isDone));
+                break;
+            }
+        }
+        return tasks;
+    }
+}
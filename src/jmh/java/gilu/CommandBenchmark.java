@@ -0,0 +1,101 @@
+package gilu;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import gilu.command.Command;
+import gilu.exception.GiluException;
+import gilu.storage.Storage;
+import gilu.ui.Ui;
+
+/**
+ * Measures command parsing and full command round trips through the Parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandBenchmark {
+    private static final String[] INPUTS = {
+        "list", "list 2025-03-14", "todo read book", "deadline submit report /by 2025-03-14 1800",
+        "event team meeting /from 2025-03-14 1400 /to 2025-03-14 1600", "mark 3", "find book", "bye"
+    };
+
+    @Param({"1000"})
+    private int taskCount;
+
+    private Path file;
+    private Storage storage;
+    private TaskList taskList;
+    private Parser parser;
+    private Ui ui;
+
+    /**
+     * Builds a saved task list of the requested size.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("gilu-bench", ".txt");
+        storage = new Storage(file.toString());
+        taskList = new TaskList(BenchmarkTasks.generate(taskCount, 42));
+        storage.saveTasks(taskList.getTasks());
+        parser = new Parser(false); // Measure every run in full, not answered from the result cache
+        ui = new Ui();
+    }
+
+    /**
+     * Deletes the task file and the files kept next to it.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        for (Path path : storage.getFiles()) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Classifies a mix of command inputs.
+     */
+    @Benchmark
+    public void fromInput(Blackhole blackhole) {
+        for (String input : INPUTS) {
+            blackhole.consume(Command.fromInput(input));
+        }
+    }
+
+    /**
+     * Runs a read-only command end to end.
+     */
+    @Benchmark
+    public String findRoundTrip() throws GiluException {
+        return parser.executeCommand("find book", taskList, ui, storage);
+    }
+
+    /**
+     * Adds and then deletes a todo end to end, so that the list size stays constant.
+     */
+    @Benchmark
+    public String addDeleteRoundTrip() throws GiluException {
+        parser.executeCommand("todo benchmark task", taskList, ui, storage);
+        return parser.executeCommand("delete " + taskList.getTaskCount(), taskList, ui, storage);
+    }
+}
@@ -0,0 +1,102 @@
+package gilu;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gilu.exception.GiluException;
+import gilu.ui.Ui;
+
+/**
+ * Measures the read-only queries of TaskList. The larger lists are above the parallel threshold, so the
+ * sequential variants run in a JVM where no list is, for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskListBenchmark {
+    /**
+     * Raises the parallel threshold above any list size, so that every scan is sequential.
+     */
+    private static final String SEQUENTIAL = "-Dgilu.parallel.threshold=2147483647";
+
+    @Param({"1000", "100000", "1000000"})
+    private int taskCount;
+
+    private TaskList taskList;
+    private Ui ui;
+
+    /**
+     * Builds a task list of the requested size.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        taskList = new TaskList(BenchmarkTasks.generate(taskCount, 42));
+        ui = new Ui();
+    }
+
+    /**
+     * Finds tasks by a keyword that matches about a tenth of them.
+     */
+    @Benchmark
+    public String findTasks() {
+        return taskList.findTasks("find book", ui);
+    }
+
+    /**
+     * Lists the deadlines and events on one date.
+     */
+    @Benchmark
+    public String listTasksOnDate() throws GiluException {
+        return taskList.listTasksOnDate("list " + BenchmarkTasks.QUERY_DATE, ui);
+    }
+
+    /**
+     * Renders the list sorted by type and date.
+     */
+    @Benchmark
+    public String getSortedTaskListString() {
+        return taskList.getSortedTaskListString(ui);
+    }
+
+    /**
+     * Finds tasks by a keyword, scanning the list on one core.
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = SEQUENTIAL)
+    public String findTasksSequential() {
+        return taskList.findTasks("find book", ui);
+    }
+
+    /**
+     * Lists the deadlines and events on one date, scanning the list on one core.
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = SEQUENTIAL)
+    public String listTasksOnDateSequential() throws GiluException {
+        return taskList.listTasksOnDate("list " + BenchmarkTasks.QUERY_DATE, ui);
+    }
+
+    /**
+     * Renders the list sorted by type and date, scanning the list on one core.
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = SEQUENTIAL)
+    public String getSortedTaskListStringSequential() {
+        return taskList.getSortedTaskListString(ui);
+    }
+}
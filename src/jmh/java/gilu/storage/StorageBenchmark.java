@@ -0,0 +1,93 @@
+package gilu.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gilu.BenchmarkTasks;
+import gilu.task.Task;
+
+/**
+ * Measures loading and saving task files of different sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int taskCount;
+
+    private Path file;
+    private Storage storage;
+    private List<Task> tasks;
+
+    /**
+     * Writes a task file of the requested size.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("gilu-bench", ".txt");
+        storage = new Storage(file.toString());
+        tasks = BenchmarkTasks.generate(taskCount, 42);
+        storage.saveTasks(tasks);
+    }
+
+    /**
+     * Marks or unmarks the first task, so that the next save has to rewrite the whole file. Saves of an
+     * unchanged list write nothing.
+     */
+    @Setup(Level.Invocation)
+    public void changeFirstTask() {
+        Task first = tasks.get(0);
+        if (first.isDone()) {
+            first.markAsNotDone();
+        } else {
+            first.markAsDone();
+        }
+    }
+
+    /**
+     * Deletes the task file and the files kept next to it.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        for (Path path : storage.getFiles()) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Parses the whole task file.
+     */
+    @Benchmark
+    public List<Task> loadTasks() throws IOException {
+        return storage.loadTasks();
+    }
+
+    /**
+     * Rewrites the whole task file, after the first task was marked or unmarked.
+     */
+    @Benchmark
+    public void saveTasks() throws IOException {
+        storage.saveTasks(tasks);
+    }
+}
@@ -0,0 +1,105 @@
+package gilu.ui;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+
+/**
+ * Measures the cost of producing one chat bubble per message.
+ * <p>
+ * {@code fxmlPerMessage} reproduces the previous approach of parsing the dialog FXML for
+ * every message, {@code programmaticPerMessage} builds a new {@link DialogBox} in code and
+ * {@code reusedPerMessage} refills an existing box, as the transcript cells do.
+ * Requires a display, since the JavaFX toolkit is started during setup.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DialogBoxBenchmark {
+    private static final String MESSAGE = "Got it. I've added this task:\n   [T][ ] read book\nNow you have 3 tasks.";
+
+    private URL legacyFxml;
+    private Image image;
+    private DialogBox reusedBox;
+    private boolean isFlipped;
+
+    /**
+     * Starts the JavaFX toolkit and loads the shared resources.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        try {
+            Platform.startup(() -> { });
+        } catch (IllegalStateException e) {
+            // Toolkit already running in this fork
+        }
+        legacyFxml = getClass().getResource("/view/LegacyDialogBox.fxml");
+        image = new Image(getClass().getResourceAsStream("/images/DaGilu.png"));
+        reusedBox = new DialogBox();
+    }
+
+    /**
+     * Parses the dialog FXML for a message and flips it, as the FXML-based constructor did.
+     */
+    @Benchmark
+    public HBox fxmlPerMessage() throws IOException {
+        FXMLLoader fxmlLoader = new FXMLLoader(legacyFxml);
+        HBox box = new HBox();
+        fxmlLoader.setRoot(box);
+        fxmlLoader.load();
+        Label dialog = (Label) fxmlLoader.getNamespace().get("dialog");
+        ImageView displayPicture = (ImageView) fxmlLoader.getNamespace().get("displayPicture");
+        dialog.setText(MESSAGE);
+        displayPicture.setImage(image);
+
+        ObservableList<Node> tmp = FXCollections.observableArrayList(box.getChildren());
+        Collections.reverse(tmp);
+        box.getChildren().setAll(tmp);
+        return box;
+    }
+
+    /**
+     * Builds a new dialog box in code for a message.
+     */
+    @Benchmark
+    public DialogBox programmaticPerMessage() {
+        return DialogBox.getGiluDialog(MESSAGE, image);
+    }
+
+    /**
+     * Refills an existing dialog box with a message, alternating the speaker.
+     */
+    @Benchmark
+    public DialogBox reusedPerMessage() {
+        isFlipped = !isFlipped;
+        reusedBox.setMessage(MESSAGE, image, isFlipped);
+        return reusedBox;
+    }
+}
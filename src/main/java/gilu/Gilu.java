@@ -1,23 +1,89 @@
 package gilu;
 
 import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Logger;
 
+import gilu.command.Command;
 import gilu.exception.GiluException;
+import gilu.metrics.MetricsDumper;
+import gilu.replication.ReplicationPrimary;
+import gilu.replication.ReplicationStandby;
+import gilu.search.Autocomplete;
+import gilu.search.IncrementalSearch;
+import gilu.storage.ExternalChanges;
+import gilu.storage.PartitionedStorage;
 import gilu.storage.Storage;
+import gilu.task.Task;
+import gilu.tools.TraceRecorder;
 import gilu.ui.Ui;
 
 
 /**
  * Gilu is a chatbot that helps manage tasks.
  * Tasks are stored persistently using file-based storage.
+ * <p>
+ * All commands run on a single worker thread. Tasks can be loaded in the background:
+ * read-only commands issued while loading are answered from the tasks loaded so far,
+ * and all other commands are queued until loading has finished.
+ * </p>
  */
-public class Gilu {
+public class Gilu implements AutoCloseable {
     private static final String DEFAULT_STORAGE_PATH = "./data/gilu.txt";
+    private static final int LOAD_BATCH_SIZE = 10_000;
+
+    /**
+     * Seconds between two metrics dumps, configurable with {@code -Dgilu.metrics.interval}.
+     */
+    private static final long METRICS_INTERVAL_SECONDS = Math.max(1, Long.getLong("gilu.metrics.interval", 60));
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+    private static final Logger LOGGER = Logger.getLogger(Gilu.class.getName());
 
     private final Storage storage;
     private final TaskList tasks;
     private final Ui ui;
     private final Parser parser;
+    private final IncrementalSearch incrementalSearch = new IncrementalSearch();
+    private final Autocomplete autocomplete = new Autocomplete();
+    private final MetricsDumper metricsDumper;
+    private final boolean isAutoArchiving;
+
+    /**
+     * The primary to follow as a read-only standby, as {@code host:port}, from {@code -Dgilu.replication.primary}.
+     */
+    private final String primaryAddress = System.getProperty("gilu.replication.primary");
+
+    /**
+     * The local port to serve standbys on, from {@code -Dgilu.replication.port}, or -1 to not replicate.
+     */
+    private final int replicationPort = Integer.getInteger("gilu.replication.port", -1);
+    private ReplicationPrimary replicationPrimary;
+    private ReplicationStandby replicationStandby;
+    private final TraceRecorder traceRecorder;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "gilu-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean isLoadStarted = new AtomicBoolean(false);
+    private final AtomicBoolean isClosed = new AtomicBoolean(false);
+    private final CompletableFuture<Void> loading = new CompletableFuture<>();
+
+    // Only accessed on the worker thread
+    private final Queue<PendingCommand> pendingCommands = new ArrayDeque<>();
+    private boolean isLoaded;
 
     /**
      * Constructs a Gilu chatbot instance with the default storage path.
@@ -28,41 +94,417 @@ public class Gilu {
 
     /**
      * Constructs a Gilu chatbot instance with the given storage path.
+     * Tasks are not loaded until {@link #startLoading()} is called or the first command arrives.
      *
      * @param filePath The file path to store tasks.
      */
     public Gilu(final String filePath) {
+        this(filePath, true);
+    }
+
+    /**
+     * Constructs a Gilu chatbot instance with the given storage path.
+     * Tasks are not loaded until {@link #startLoading()} is called or the first command arrives.
+     *
+     * @param filePath        The file path to store tasks.
+     * @param isAutoArchiving Whether to archive old completed tasks once they are loaded.
+     */
+    public Gilu(final String filePath, boolean isAutoArchiving) {
+        this.isAutoArchiving = isAutoArchiving;
         this.ui = new Ui();
-        this.storage = new Storage(filePath);
+        this.storage = Storage.open(filePath);
         this.parser = new Parser();
-        this.tasks = loadTasks();
+        this.tasks = new TaskList();
+        tasks.deferFuzzyIndex(); // Restored once loading is done
+        tasks.addChangeListener(autocomplete);
+        if (storage instanceof PartitionedStorage) {
+            tasks.addChangeListener(((PartitionedStorage) storage).trackChanges());
+        }
+        this.metricsDumper = new MetricsDumper(storage.getMetricsPath().toString(), parser.getMetrics()::getReport);
+        this.traceRecorder = openTraceRecorder(System.getProperty("gilu.trace"));
+    }
+
+    /**
+     * Opens the command trace file, if recording was requested.
+     *
+     * @param tracePath The trace file path, or null if commands should not be recorded.
+     * @return The trace recorder, or null.
+     */
+    private static TraceRecorder openTraceRecorder(String tracePath) {
+        if (tracePath == null) {
+            return null;
+        }
+        try {
+            return new TraceRecorder(tracePath);
+        } catch (IOException e) {
+            LOGGER.warning("Error opening trace file: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Starts writing the command latency metrics to a local file at a fixed interval.
+     */
+    public void startMetricsDump() {
+        metricsDumper.start(METRICS_INTERVAL_SECONDS);
+    }
+
+    /**
+     * Stops the worker thread, watching for saves by other processes, the metrics dump and replication,
+     * and waits for the commands already issued to run. Commands issued afterwards are rejected.
+     * Further calls have no effect.
+     */
+    @Override
+    public void close() {
+        stop();
+        try {
+            if (!worker.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.warning("Gave up waiting for the commands issued before closing");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops the background work like {@link #close()}, without waiting, so that it can be called from the worker.
+     */
+    private void stop() {
+        if (!isClosed.compareAndSet(false, true)) {
+            return;
+        }
+        metricsDumper.stop();
+        worker.execute(() -> {
+            storage.stopWatchingExternalChanges();
+            closeReplication();
+            worker.shutdown();
+        });
+        if (traceRecorder != null) {
+            try {
+                traceRecorder.close();
+            } catch (IOException e) {
+                LOGGER.warning("Error closing trace file: " + e.getMessage());
+            }
+        }
+    }
+
+    private void closeReplication() {
+        try {
+            if (replicationPrimary != null) {
+                replicationPrimary.close();
+            }
+            if (replicationStandby != null) {
+                replicationStandby.close();
+            }
+        } catch (IOException e) {
+            LOGGER.warning("Error stopping replication: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs a task on the worker thread, unless Gilu has been closed meanwhile.
+     */
+    private void executeUnlessClosed(Runnable task) {
+        try {
+            worker.execute(task);
+        } catch (RejectedExecutionException e) {
+            LOGGER.fine("Skipped background work, as Gilu has been closed");
+        }
+    }
+
+    /**
+     * Starts loading tasks from storage on a background thread. Further calls have no effect.
+     */
+    public void startLoading() {
+        if (!isLoadStarted.compareAndSet(false, true)) {
+            return;
+        }
+        Thread loader = new Thread(this::loadTasks, "gilu-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Loads tasks from storage, handing each batch to the worker thread as soon as it is parsed.
+     * If loading fails, Gilu starts with an empty list.
+     */
+    private void loadTasks() {
+        long startNanos = System.nanoTime();
+        try {
+            int count = storage.loadTasks(LOAD_BATCH_SIZE, batch -> executeUnlessClosed(() -> {
+                if (tasks.getTaskCount() == 0) {
+                    StartupTimeline.mark("First " + batch.size() + " tasks available");
+                }
+                tasks.addLoadedTasks(batch);
+            }));
+            executeUnlessClosed(() -> finishLoading(count, startNanos));
+        } catch (IOException e) {
+            LOGGER.warning("Error loading tasks: " + e.getMessage());
+            executeUnlessClosed(() -> {
+                tasks.clear(); // Start with an empty list if loading fails
+                finishLoading(0, startNanos);
+            });
+        }
+    }
+
+    /**
+     * Moves old completed deadlines and events to the archive, so that later saves only rewrite active tasks.
+     * Completed todos stay until the user archives them. Runs on the worker thread.
+     */
+    private void archiveCompletedTasks() {
+        storage.runWithWriteLock(() -> {
+            try {
+                pickUpExternalChanges();
+                int count = tasks.archiveCompletedTasks(storage, false);
+                if (count > 0) {
+                    StartupTimeline.mark("Archived " + count + " completed tasks");
+                }
+            } catch (IOException e) {
+                LOGGER.warning("Error archiving tasks: " + e.getMessage());
+            }
+        });
     }
 
     /**
-     * Loads tasks from storage, handling potential I/O errors.
+     * Merges the tasks that other Gilu processes have saved into the list. Runs on the worker thread.
      *
-     * @return The initialized TaskList.
+     * @return True if another process had saved any changes.
      */
-    private TaskList loadTasks() {
+    private boolean pickUpExternalChanges() {
         try {
-            return new TaskList(storage.loadTasks());
+            ExternalChanges changes = storage.readExternalChanges();
+            if (changes == null) {
+                return false;
+            }
+            tasks.mergeExternalChanges(changes);
+            LOGGER.info("Picked up " + changes.getTasks().size() + " tasks from task " + (changes.getFromTask() + 1)
+                    + " saved by another Gilu");
+            return true;
         } catch (IOException e) {
-            ui.showMessage("Error loading tasks: " + e.getMessage());
-            return new TaskList(); // Return an empty list if loading fails
+            LOGGER.warning("Error reading tasks saved by another Gilu: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Starts serving standbys, if a replication port is configured. Runs on the worker thread,
+     * so that replication starts exactly at the current version of the list.
+     */
+    private void startPrimary() {
+        if (replicationPort < 0) {
+            return;
+        }
+        try {
+            replicationPrimary = new ReplicationPrimary(replicationPort, tasks, worker,
+                    Integer.getInteger("gilu.replication.journal", 100_000));
+            replicationPrimary.registerGauges(parser.getMetrics());
+            StartupTimeline.mark("Serving standbys on port " + replicationPrimary.getPort());
+        } catch (IOException e) {
+            LOGGER.warning("Error starting replication: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts following the configured primary. The local list is replaced by the primary's snapshot.
+     */
+    private void startStandby() {
+        int separator = primaryAddress.lastIndexOf(':');
+        try {
+            String host = separator > 0 ? primaryAddress.substring(0, separator) : "localhost";
+            int port = Integer.parseInt(primaryAddress.substring(separator + 1));
+            replicationStandby = new ReplicationStandby(host, port, tasks, storage, worker);
+            replicationStandby.registerGauges(parser.getMetrics());
+        } catch (NumberFormatException e) {
+            LOGGER.warning("Invalid replication primary address: " + primaryAddress);
+        }
+    }
+
+    /**
+     * Marks loading as finished and runs the commands that were queued meanwhile. Runs on the worker thread.
+     *
+     * @param count      The number of tasks loaded.
+     * @param startNanos The time at which loading started.
+     */
+    private void finishLoading(int count, long startNanos) {
+        isLoaded = true;
+        StartupTimeline.mark("Loaded " + count + " tasks in " + (System.nanoTime() - startNanos) / 1_000_000
+                + " ms, running " + pendingCommands.size() + " queued commands");
+        if (tasks.restoreFuzzyIndex(storage, this::executeUnlessClosed)) {
+            StartupTimeline.mark("Mapped the saved search index");
+        } else {
+            StartupTimeline.mark("Building the search index in the background");
         }
+        if (primaryAddress != null) {
+            startStandby();
+        } else {
+            storage.watchExternalChanges(() -> executeUnlessClosed(this::pickUpExternalChanges));
+            if (isAutoArchiving) {
+                archiveCompletedTasks();
+            }
+            startPrimary();
+        }
+        while (!pendingCommands.isEmpty()) {
+            PendingCommand pending = pendingCommands.remove();
+            respond(pending.response, pending.input, "");
+        }
+        loading.complete(null);
     }
 
     /**
-     * Generates a response for the user's chat message.
+     * Starts loading tasks if needed and waits until all of them have been loaded.
+     */
+    public void awaitLoading() {
+        startLoading();
+        loading.join();
+    }
+
+    /**
+     * Generates a response for the user's chat message, waiting until it has been processed.
      *
      * @param input The user input message.
      * @return The chatbot's response.
      */
     public String getResponse(final String input) {
+        return getResponseAsync(input).join();
+    }
+
+    /**
+     * Generates a response for the user's chat message without blocking the caller.
+     *
+     * @param input The user input message.
+     * @return A future completed with the chatbot's response.
+     */
+    public CompletableFuture<String> getResponseAsync(final String input) {
+        startLoading();
+        if (traceRecorder != null) {
+            traceRecorder.record(input);
+        }
+        CompletableFuture<String> response = new CompletableFuture<>();
+        worker.execute(() -> {
+            autocomplete.recordCommand(input);
+            if (isLoaded) {
+                respond(response, input, "");
+            } else if (pendingCommands.isEmpty() && Command.fromInput(input) == Command.LIST_DATE
+                    && storage instanceof PartitionedStorage) {
+                respondFromPartitions(response, input);
+            } else if (pendingCommands.isEmpty() && Command.fromInput(input).isReadOnly()) {
+                respond(response, input, ui.showMessage("(Still loading, showing the "
+                        + tasks.getTaskCount() + " tasks loaded so far.)"));
+            } else {
+                pendingCommands.add(new PendingCommand(input, response));
+            }
+        });
+        return response;
+    }
+
+    /**
+     * Searches the tasks for a keyword as it is being typed, off the caller's thread.
+     * Searches run in order on the worker thread and refine the previous result when possible.
+     *
+     * @param keyword      The keyword typed so far.
+     * @param isSuperseded Returns true once a newer search has been requested.
+     * @return A future completed with the rendered matches, or with null if the search was superseded.
+     */
+    public CompletableFuture<List<String>> searchAsync(final String keyword, final BooleanSupplier isSuperseded) {
+        startLoading();
+        return CompletableFuture.supplyAsync(() -> isSuperseded.getAsBoolean()
+                ? null
+                : incrementalSearch.search(keyword, tasks, isSuperseded), worker);
+    }
+
+    /**
+     * Suggests ways to finish the input being typed, off the caller's thread.
+     * Suggestions are looked up on the worker thread, so they never see a half-changed list.
+     *
+     * @param text         The text typed so far.
+     * @param isSuperseded Returns true once newer suggestions have been requested.
+     * @return A future completed with the suggested inputs, or with null if the request was superseded.
+     */
+    public CompletableFuture<List<String>> suggestAsync(final String text, final BooleanSupplier isSuperseded) {
+        startLoading();
+        return CompletableFuture.supplyAsync(() -> isSuperseded.getAsBoolean()
+                ? null
+                : autocomplete.suggest(text, tasks), worker);
+    }
+
+    /**
+     * Executes a command on the worker thread and completes the future with its response.
+     *
+     * @param response The future to complete.
+     * @param input    The user input message.
+     * @param prefix   Text to show before the response.
+     */
+    private void respond(CompletableFuture<String> response, final String input, String prefix) {
+        respond(response, input, tasks, prefix);
+    }
+
+    private void respond(CompletableFuture<String> response, final String input, TaskList taskList,
+            String prefix) {
+        Command command = Command.fromInput(input);
+        if (primaryAddress != null && !command.isReadOnly() && command != Command.EXPORT
+                && command != Command.EXIT) {
+            response.complete(ui.showMessage("This Gilu is a read-only standby of " + primaryAddress
+                    + ". Please make changes on the primary."));
+            return;
+        }
+        if (command.isReadOnly() || command == Command.EXIT || primaryAddress != null) {
+            execute(response, input, taskList, prefix);
+            if (command == Command.EXIT) {
+                stop();
+            }
+            return;
+        }
+        // Keep other processes from saving between picking up their changes and saving this one
+        storage.runWithWriteLock(() -> {
+            if (pickUpExternalChanges() && command.isNumbered()) {
+                response.complete(ui.showMessage("Another Gilu has just changed your tasks, so the task numbers "
+                        + "may have moved. Please check the list and try again."));
+                return;
+            }
+            execute(response, input, taskList, prefix);
+        });
+    }
+
+    private void execute(CompletableFuture<String> response, final String input, TaskList taskList,
+            String prefix) {
         try {
-            return parser.executeCommand(input, tasks, ui, storage);
+            response.complete(prefix + parser.executeCommand(input, taskList, ui, storage));
         } catch (GiluException e) {
-            return e.getMessage();
+            response.complete(e.getMessage());
+        } catch (RuntimeException e) {
+            response.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Answers a date query while loading by reading only the partitions that can hold tasks on that date.
+     * Falls back to the tasks loaded so far if the partitions cannot be chosen.
+     */
+    private void respondFromPartitions(CompletableFuture<String> response, final String input) {
+        try {
+            LocalDate date = LocalDate.parse(input.trim().split("\\s+")[1]);
+            List<Task> candidates = ((PartitionedStorage) storage).loadTasksAround(date);
+            if (candidates != null) {
+                respond(response, input, new TaskList(candidates), "");
+                return;
+            }
+        } catch (IOException | DateTimeParseException e) {
+            LOGGER.warning("Error reading partitions: " + e.getMessage());
+        }
+        respond(response, input, ui.showMessage("(Still loading, showing the "
+                + tasks.getTaskCount() + " tasks loaded so far.)"));
+    }
+
+    /**
+     * Represents a command waiting for loading to finish.
+     */
+    private static class PendingCommand {
+        private final String input;
+        private final CompletableFuture<String> response;
+
+        PendingCommand(String input, CompletableFuture<String> response) {
+            this.input = input;
+            this.response = response;
         }
     }
 }
@@ -0,0 +1,160 @@
+package gilu;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Filters and renders large lists on all cores, for scans that no index answers.
+ * <p>
+ * The list is cut into chunks, and ForkJoin tasks split the chunks between them until each has one.
+ * Every chunk is filtered or rendered on its own into its own buffer, and the buffers are joined
+ * in list order, so the result is the same as a sequential scan. Lists shorter than the threshold,
+ * configurable with {@code -Dgilu.parallel.threshold}, are not worth splitting.
+ * </p>
+ */
+final class ParallelScan {
+    private static final int THRESHOLD = Math.max(1, Integer.getInteger("gilu.parallel.threshold", 50_000));
+    private static final int MIN_CHUNK_SIZE = 4_096;
+
+    /**
+     * Number of chunks per core, so that cores that finish early can take over the remaining chunks.
+     */
+    private static final int CHUNKS_PER_CORE = 4;
+
+    private ParallelScan() {
+    }
+
+    /**
+     * Returns whether a list is long enough to be scanned in parallel.
+     *
+     * @param size The length of the list.
+     * @return true if the list should be scanned in parallel.
+     */
+    static boolean isWorthSplitting(int size) {
+        return size >= THRESHOLD;
+    }
+
+    /**
+     * Returns the items of a list that pass a filter, in list order.
+     *
+     * @param list      The list, which must not change during the scan.
+     * @param predicate The filter, which may be called from any thread.
+     * @return The matching items.
+     */
+    static <T> List<T> filter(List<T> list, Predicate<? super T> predicate) {
+        int chunkSize = chunkSize(list.size());
+        List<List<T>> parts = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += chunkSize) {
+            parts.add(null);
+        }
+        forEachChunk(parts.size(), chunk -> {
+            int from = chunk * chunkSize;
+            int to = Math.min(list.size(), from + chunkSize);
+            List<T> matches = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                T item = list.get(i);
+                if (predicate.test(item)) {
+                    matches.add(item);
+                }
+            }
+            parts.set(chunk, matches);
+        });
+
+        int count = 0;
+        for (List<T> part : parts) {
+            count += part.size();
+        }
+        List<T> matches = new ArrayList<>(count);
+        for (List<T> part : parts) {
+            matches.addAll(part);
+        }
+        return matches;
+    }
+
+    /**
+     * Appends one rendered line per item of a list, in list order.
+     *
+     * @param response The buffer to append to.
+     * @param list     The list, which must not change during the scan.
+     * @param renderer Renders an item, given its 0-based index; may be called from any thread.
+     */
+    static <T> void appendLines(StringBuilder response, List<T> list, LineRenderer<? super T> renderer) {
+        int chunkSize = chunkSize(list.size());
+        StringBuilder[] parts = new StringBuilder[(list.size() + chunkSize - 1) / chunkSize];
+        forEachChunk(parts.length, chunk -> {
+            int from = chunk * chunkSize;
+            int to = Math.min(list.size(), from + chunkSize);
+            StringBuilder part = new StringBuilder((to - from) * 64);
+            for (int i = from; i < to; i++) {
+                renderer.append(part, i, list.get(i));
+            }
+            parts[chunk] = part;
+        });
+
+        int length = response.length();
+        for (StringBuilder part : parts) {
+            length += part.length();
+        }
+        response.ensureCapacity(length);
+        for (StringBuilder part : parts) {
+            response.append(part);
+        }
+    }
+
+    private static int chunkSize(int size) {
+        int chunks = ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_CORE;
+        return Math.max(MIN_CHUNK_SIZE, (size + chunks - 1) / chunks);
+    }
+
+    private static void forEachChunk(int chunkCount, IntConsumer body) {
+        if (chunkCount > 0) {
+            ForkJoinPool.commonPool().invoke(new ChunkAction(0, chunkCount, body));
+        }
+    }
+
+    /**
+     * Renders one item of a list as a line.
+     */
+    @FunctionalInterface
+    interface LineRenderer<T> {
+        /**
+         * Appends the line of an item.
+         *
+         * @param line  The buffer of the chunk being rendered.
+         * @param index The 0-based index of the item in the list.
+         * @param item  The item.
+         */
+        void append(StringBuilder line, int index, T item);
+    }
+
+    /**
+     * Runs the body on a range of chunks, halving the range until it holds a single chunk.
+     */
+    private static class ChunkAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final IntConsumer body;
+
+        ChunkAction(int from, int to, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                body.accept(from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkAction(from, middle, body), new ChunkAction(middle, to, body));
+        }
+    }
+}
@@ -2,6 +2,9 @@ package gilu;
 
 import gilu.command.Command;
 import gilu.exception.GiluException;
+import gilu.metrics.CommandEvent;
+import gilu.metrics.CommandMetrics;
+import gilu.metrics.PhaseClock;
 import gilu.storage.Storage;
 import gilu.ui.Ui;
 
@@ -10,12 +13,41 @@ import gilu.ui.Ui;
  */
 public class Parser {
     private static final String ERROR_UNKNOWN_COMMAND = "Uh-oh! I didn’t get that. "
-            + "Try 'list', 'todo', 'deadline', 'event', 'mark', 'unmark', 'find', 'delete' or 'sort'.";
+            + "Try 'list', 'todo', 'deadline', 'event', 'mark', 'unmark', 'find', 'delete', 'sort', "
+            + "'import', 'export', 'archive', 'conflicts', 'dedupe', 'agenda', 'count' or 'metrics'.";
 
     private static final String ERROR_MISSING_KEYWORD = "Oops! Please specify a keyword to search.";
 
     private static final String GOODBYE_MESSAGE = "Bye for now! But I hope to see you again soon!";
 
+    /**
+     * Bounds of the result cache, configurable with {@code -Dgilu.cache.entries} and {@code -Dgilu.cache.chars}.
+     */
+    private static final int CACHE_ENTRIES = Integer.getInteger("gilu.cache.entries", 32);
+    private static final long CACHE_CHARS = Long.getLong("gilu.cache.chars", 8 * 1024 * 1024);
+
+    private final CommandMetrics metrics = new CommandMetrics();
+    private final ResultCache resultCache = new ResultCache(CACHE_ENTRIES, CACHE_CHARS);
+    private final boolean isCaching;
+
+    /**
+     * Constructs a Parser with its own metrics and result cache.
+     */
+    public Parser() {
+        this(CACHE_ENTRIES > 0);
+    }
+
+    /**
+     * Constructs a Parser with its own metrics, and a result cache if asked for. Without one, every command
+     * is run in full, as when measuring its cost.
+     *
+     * @param isCaching Whether to answer repeated read-only commands from the result cache.
+     */
+    Parser(boolean isCaching) {
+        this.isCaching = isCaching;
+        resultCache.registerGauges(metrics);
+    }
+
     /**
      * Executes a command based on user input and returns a response string.
      *
@@ -28,8 +60,50 @@ public class Parser {
      */
     public String executeCommand(final String input, final TaskList tasks, final Ui ui, final Storage storage)
             throws GiluException {
+        CommandEvent event = new CommandEvent();
+        event.begin();
+        long startNanos = System.nanoTime();
         Command command = Command.fromInput(input);
+        long parsedNanos = System.nanoTime();
+        PhaseClock.reset();
+        String response = null;
+        try {
+            // Read-only commands repeated before the list changes are answered from the cache
+            String key = isCaching && command.isCacheable() ? ResultCache.normalize(input) : null;
+            response = key == null ? null : resultCache.get(key, tasks);
+            if (response == null) {
+                response = dispatch(command, input, tasks, ui, storage);
+                if (key != null) {
+                    resultCache.put(key, tasks, response);
+                }
+            }
+            return response;
+        } finally {
+            metrics.record(command, parsedNanos - startNanos, System.nanoTime() - parsedNanos);
+            event.end();
+            if (event.shouldCommit()) {
+                event.setCommand(command.name());
+                event.setListSize(tasks.getTaskCount());
+                event.setResponseLength(response == null ? 0 : response.length());
+                event.commit();
+            }
+        }
+    }
 
+    /**
+     * Returns the latency metrics of the commands executed by this parser.
+     *
+     * @return The command metrics.
+     */
+    public CommandMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Runs an already parsed command.
+     */
+    private String dispatch(final Command command, final String input, final TaskList tasks, final Ui ui,
+            final Storage storage) throws GiluException {
         switch (command) {
         case LIST:
             return tasks.getTaskListString(ui);
@@ -64,7 +138,41 @@ public class Parser {
             }
             return tasks.findTasks(input, ui);
 
+        case FUZZY_FIND:
+            if (input.trim().split("\\s+").length < 2) {
+                throw new GiluException(ERROR_MISSING_KEYWORD);
+            }
+            return tasks.findTasksFuzzy(input, ui);
+
+        case METRICS:
+            return ui.showMessage(metrics.getReport());
+
+        case EXPORT:
+            return tasks.exportTasks(input, ui, storage);
+
+        case IMPORT:
+            return tasks.importTasks(input, ui, storage);
+
+        case ARCHIVE:
+            return tasks.archiveTasks(ui, storage);
+
+        case ARCHIVE_FIND:
+            return tasks.findArchivedTasks(input, ui, storage);
+
+        case CONFLICTS:
+            return tasks.findConflicts(ui);
+
+        case DEDUPE:
+            return tasks.dedupeTasks(ui, storage);
+
+        case AGENDA:
+            return tasks.showAgenda(input, ui);
+
+        case COUNT:
+            return tasks.countTasksBetween(input, ui);
+
         case EXIT:
+            tasks.saveFuzzyIndex(storage); // Lets the next start map the index in instead of building it
             String goodbyeMessage = ui.showMessage(GOODBYE_MESSAGE);
             new java.util.Timer().schedule(new java.util.TimerTask() {
                 @Override
@@ -0,0 +1,123 @@
+package gilu;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import gilu.metrics.CommandMetrics;
+
+/**
+ * Remembers the responses of read-only commands, so that repeating one before the task list changes
+ * returns the same response without recomputing it.
+ * <p>
+ * Responses are keyed by the normalized input and are only valid for the list and version they were
+ * computed from. Versions only grow, so as soon as the list changes, every cached response is dropped.
+ * The least recently used responses are evicted once there are too many or their total length is too
+ * large; a response larger than the whole budget is not cached at all.
+ * </p>
+ */
+final class ResultCache {
+    private final int maxEntries;
+    private final long maxChars;
+    private final Map<String, String> responses = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalChars;
+
+    /**
+     * The list and version of the cached responses.
+     */
+    private TaskList owner;
+    private long version = -1;
+
+    private volatile long hits;
+    private volatile long misses;
+    private volatile long evictions;
+
+    /**
+     * Constructs a cache with a bound on its size.
+     *
+     * @param maxEntries The maximum number of responses kept.
+     * @param maxChars   The maximum total length of the responses kept.
+     */
+    ResultCache(int maxEntries, long maxChars) {
+        this.maxEntries = maxEntries;
+        this.maxChars = maxChars;
+    }
+
+    /**
+     * Returns the key of a command: its input with surrounding and repeated whitespace removed and
+     * the command word in lower case. Arguments keep their case.
+     *
+     * @param input The command as entered.
+     * @return The key.
+     */
+    static String normalize(String input) {
+        String[] words = input.trim().split("\\s+");
+        words[0] = words[0].toLowerCase();
+        return String.join(" ", words);
+    }
+
+    /**
+     * Returns the cached response of a command, if the list has not changed since it was cached.
+     *
+     * @param key   The normalized command.
+     * @param tasks The task list the command reads.
+     * @return The response, or null on a miss.
+     */
+    synchronized String get(String key, TaskList tasks) {
+        invalidateIfChanged(tasks);
+        String response = responses.get(key);
+        if (response == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return response;
+    }
+
+    /**
+     * Caches the response of a command, evicting the least recently used responses if the cache is full.
+     *
+     * @param key      The normalized command.
+     * @param tasks    The task list the command read.
+     * @param response The response.
+     */
+    synchronized void put(String key, TaskList tasks, String response) {
+        invalidateIfChanged(tasks);
+        if (response.length() > maxChars) {
+            return;
+        }
+        String previous = responses.put(key, response);
+        totalChars += response.length() - (previous == null ? 0 : previous.length());
+        Iterator<String> eldest = responses.values().iterator();
+        while (responses.size() > maxEntries || totalChars > maxChars) {
+            totalChars -= eldest.next().length();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Adds the hit, miss and eviction counts and the number of cached responses to the metrics report.
+     *
+     * @param metrics The metrics to report to.
+     */
+    void registerGauges(CommandMetrics metrics) {
+        metrics.registerGauge("cache.hits", () -> hits);
+        metrics.registerGauge("cache.misses", () -> misses);
+        metrics.registerGauge("cache.evictions", () -> evictions);
+        metrics.registerGauge("cache.entries", this::size);
+    }
+
+    synchronized int size() {
+        return responses.size();
+    }
+
+    private void invalidateIfChanged(TaskList tasks) {
+        if (tasks != owner || tasks.getVersion() != version) {
+            responses.clear();
+            totalChars = 0;
+            owner = tasks;
+            version = tasks.getVersion();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package gilu;
+
+import java.lang.management.ManagementFactory;
+import java.util.logging.Logger;
+
+/**
+ * Logs the milestones of application startup, measured from the start of the JVM.
+ */
+public final class StartupTimeline {
+    private static final Logger LOGGER = Logger.getLogger(StartupTimeline.class.getName());
+
+    private StartupTimeline() {
+    }
+
+    /**
+     * Logs a startup milestone together with the time elapsed since the JVM started.
+     *
+     * @param milestone A short description of what just happened.
+     */
+    public static void mark(String milestone) {
+        long elapsedMillis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        LOGGER.info(() -> "Startup +" + elapsedMillis + " ms: " + milestone);
+    }
+}
@@ -1,18 +1,47 @@
 package gilu;
 
 import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import gilu.change.TaskChange;
+import gilu.change.TaskChangeListener;
 import gilu.exception.GiluException;
+import gilu.index.AgendaIndex;
+import gilu.index.DuplicateIndex;
+import gilu.index.EventIndex;
+import gilu.index.FuzzyIndex;
+import gilu.index.IndexSidecar;
+import gilu.metrics.IndexRebuildEvent;
+import gilu.metrics.Phase;
+import gilu.metrics.PhaseClock;
+import gilu.storage.ExternalChanges;
 import gilu.storage.Storage;
+import gilu.storage.TaskExporter;
+import gilu.storage.TaskImporter;
+import gilu.storage.TransferFormat;
 import gilu.task.Deadline;
+import gilu.task.DescriptionStore;
 import gilu.task.Event;
 import gilu.task.Task;
 import gilu.task.Todo;
@@ -22,24 +51,97 @@ import gilu.ui.Ui;
  * Manages the list of tasks.
  */
 public class TaskList {
+    private static final Logger LOGGER = Logger.getLogger(TaskList.class.getName());
+    private static final DateTimeFormatter HEADER_DATE_FORMATTER = DateTimeFormatter.ofPattern("MMM dd yyyy");
+    private static final DateTimeFormatter AGENDA_DAY_FORMATTER = DateTimeFormatter.ofPattern("EEE MMM dd");
+
+    /**
+     * Rough number of characters per rendered task line, used to presize response buffers.
+     */
+    private static final int ESTIMATED_LINE_LENGTH = 64;
+
+    /**
+     * Age in days after which completed deadlines and events are archived, configurable with
+     * {@code -Dgilu.archive.days}.
+     */
+    private static final int ARCHIVE_AGE_DAYS = Integer.getInteger("gilu.archive.days", 30);
+
+    /**
+     * Maximum number of archived tasks shown by one archive list or find.
+     */
+    private static final int MAX_ARCHIVE_LINES = 500;
+
+    /**
+     * Maximum number of clashing events listed when an event is added, and of pairs listed by conflicts.
+     */
+    private static final int MAX_CLASHES_SHOWN = 10;
+    private static final int MAX_CONFLICTS_SHOWN = 200;
+
+    /**
+     * Maximum number of ranked matches shown by a fuzzy search.
+     */
+    private static final int MAX_FUZZY_RESULTS = 100;
+
+    /**
+     * Longest bar drawn for one day of an agenda.
+     */
+    private static final int MAX_AGENDA_BAR = 20;
+
     private final List<Task> tasks;
+    private final EventIndex eventIndex = new EventIndex();
+    private final DuplicateIndex duplicateIndex = new DuplicateIndex();
+    private final AgendaIndex agendaIndex = new AgendaIndex();
+    private final List<TaskChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Where the descriptions of tasks in the list are kept, or null to keep them on the heap.
+     */
+    private final DescriptionStore descriptionStore;
+
+    /**
+     * The fuzzy search index, or null while it is deferred during loading or built in the background.
+     */
+    private FuzzyIndex fuzzyIndex = new FuzzyIndex();
+
+    /**
+     * Changes made while the fuzzy search index is built in the background, applied to it once it is built.
+     */
+    private List<TaskChange> pendingFuzzyChanges;
+
+    /**
+     * Incremented on every change to the list or to a task in it.
+     */
+    private long version;
+
+    /**
+     * The version that storage last matched, or -1 if unknown.
+     */
+    private long persistedVersion = -1;
 
     /**
      * Constructs an empty TaskList.
      */
     public TaskList() {
         this.tasks = new ArrayList<>();
+        this.descriptionStore = DescriptionStore.isEnabled() ? DescriptionStore.shared() : null;
         assert tasks != null : "Task list should not be null after initialization";
+        addChangeListener(this::updateIndexes);
     }
 
     /**
-     * Constructs a TaskList with preloaded tasks.
+     * Constructs a TaskList with preloaded tasks, such as the results of a query. Their descriptions stay
+     * on the heap, as nothing releases them from the shared store once such a list is discarded.
      *
      * @param tasks The list of tasks.
      */
     public TaskList(List<Task> tasks) {
         assert tasks != null : "Provided task list should not be null";
         this.tasks = tasks;
+        this.descriptionStore = null;
+        for (int i = 0; i < tasks.size(); i++) {
+            updateIndexes(new TaskChange(TaskChange.Kind.ADDED, tasks.get(i), i, 0));
+        }
+        addChangeListener(this::updateIndexes);
     }
 
     /**
@@ -49,50 +151,54 @@ public class TaskList {
      * @return A formatted string representation of the sorted task list.
      */
     public String getSortedTaskListString(Ui ui) {
-        List<Event> sortedEvents = tasks.stream()
-                .filter(task -> task instanceof Event)
-                .map(task -> (Event) task)
-                .sorted(Comparator.comparing(Event::getFrom))
-                .collect(Collectors.toList());
-
-        List<Deadline> sortedDeadlines = tasks.stream()
-                .filter(task -> task instanceof Deadline)
-                .map(task -> (Deadline) task)
-                .sorted(Comparator.comparing(Deadline::getBy))
-                .collect(Collectors.toList());
-
-        List<Todo> todos = tasks.stream()
-                .filter(task -> task instanceof Todo)
-                .map(task -> (Todo) task)
-                .collect(Collectors.toList());
-
-        StringBuilder response = new StringBuilder();
+        List<Event> sortedEvents = selectTasks(Event.class, Comparator.comparing(Event::getFrom));
+        List<Deadline> sortedDeadlines = selectTasks(Deadline.class, Comparator.comparing(Deadline::getBy));
+        List<Todo> todos = selectTasks(Todo.class, null);
+
+        StringBuilder response = new StringBuilder(estimateCapacity(tasks.size()));
         response.append(ui.showMessage("Here is your sorted task list:"));
 
         if (!sortedEvents.isEmpty()) {
             response.append("\nEvents:\n");
-            for (int i = 0; i < sortedEvents.size(); i++) {
-                response.append("  ").append(i + 1).append(". ").append(sortedEvents.get(i)).append("\n");
-            }
+            appendNumberedTasks(response, sortedEvents);
         }
 
         if (!sortedDeadlines.isEmpty()) {
             response.append("\nDeadlines:\n");
-            for (int i = 0; i < sortedDeadlines.size(); i++) {
-                response.append("  ").append(i + 1).append(". ").append(sortedDeadlines.get(i)).append("\n");
-            }
+            appendNumberedTasks(response, sortedDeadlines);
         }
 
         if (!todos.isEmpty()) {
             response.append("\nTodos:\n");
-            for (int i = 0; i < todos.size(); i++) {
-                response.append("  ").append(i + 1).append(". ").append(todos.get(i)).append("\n");
-            }
+            appendNumberedTasks(response, todos);
         }
 
         return response.toString();
     }
 
+    /**
+     * Returns the tasks of a type, in list order or sorted. The scan is split across cores for large lists.
+     *
+     * @param type  The type of task to select.
+     * @param order The order to sort them in, or null to keep list order.
+     * @return The selected tasks.
+     */
+    private <T extends Task> List<T> selectTasks(Class<T> type, Comparator<? super T> order) {
+        if (!ParallelScan.isWorthSplitting(tasks.size())) {
+            Stream<T> selected = tasks.stream()
+                    .filter(type::isInstance)
+                    .map(type::cast);
+            return (order == null ? selected : selected.sorted(order)).collect(Collectors.toList());
+        }
+        List<Task> matches = ParallelScan.filter(tasks, type::isInstance);
+        @SuppressWarnings("unchecked")
+        T[] selected = matches.toArray((T[]) Array.newInstance(type, matches.size()));
+        if (order != null) {
+            Arrays.parallelSort(selected, order); // Stable, like the sequential sort
+        }
+        return Arrays.asList(selected);
+    }
+
     /**
      * Returns a formatted string of the task list.
      *
@@ -104,10 +210,9 @@ public class TaskList {
         if (tasks.isEmpty()) {
             return ui.showMessage("Yay! There are no tasks as of now!");
         }
-        StringBuilder response = new StringBuilder(ui.showMessage("Here are the tasks in your list:\n"));
-        for (int i = 0; i < tasks.size(); i++) {
-            response.append("  ").append(i + 1).append(". ").append(tasks.get(i)).append("\n");
-        }
+        StringBuilder response = new StringBuilder(estimateCapacity(tasks.size()));
+        response.append(ui.showMessage("Here are the tasks in your list:\n"));
+        appendNumberedTasks(response, tasks);
         return response.toString();
     }
 
@@ -127,15 +232,16 @@ public class TaskList {
             LocalDate date = LocalDate.parse(parts[1]);
 
             StringBuilder response = new StringBuilder(ui.showMessage("Here are the tasks on "
-                    + date.format(DateTimeFormatter.ofPattern("MMM dd yyyy")) + ":\n"));
+                    + date.format(HEADER_DATE_FORMATTER) + ":\n"));
             boolean hasTasks = false;
-            for (Task task : tasks) {
-                if (task instanceof Deadline && ((Deadline) task).getBy().toLocalDate().equals(date)) {
-                    response.append("   ").append(task).append("\n");
-                    hasTasks = true;
-                } else if (task instanceof Event) {
-                    Event event = (Event) task;
-                    if (!date.isBefore(event.getFrom().toLocalDate()) && !date.isAfter(event.getTo().toLocalDate())) {
+            if (ParallelScan.isWorthSplitting(tasks.size())) {
+                List<Task> matches = ParallelScan.filter(tasks, task -> isOnDate(task, date));
+                ParallelScan.appendLines(response, matches, (line, i, task) ->
+                        line.append("   ").append(task).append("\n"));
+                hasTasks = !matches.isEmpty();
+            } else {
+                for (Task task : tasks) {
+                    if (isOnDate(task, date)) {
                         response.append("   ").append(task).append("\n");
                         hasTasks = true;
                     }
@@ -151,6 +257,114 @@ public class TaskList {
         }
     }
 
+    /**
+     * Returns whether a deadline is due on a day or an event takes place on it.
+     */
+    private static boolean isOnDate(Task task, LocalDate date) {
+        if (task instanceof Deadline) {
+            return ((Deadline) task).getBy().toLocalDate().equals(date);
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            return !date.isBefore(event.getFrom().toLocalDate()) && !date.isAfter(event.getTo().toLocalDate());
+        }
+        return false;
+    }
+
+    /**
+     * Shows how many pending deadlines and events fall on each day of the coming week or month,
+     * from today or from a given date.
+     *
+     * @param input The user input, as in {@code agenda week} or {@code agenda month 2025-03-01}.
+     * @param ui    The Ui object for formatting messages.
+     * @return A bar for each day with its counts, and the totals for the period.
+     * @throws GiluException If the period or date is invalid.
+     */
+    public String showAgenda(String input, Ui ui) throws GiluException {
+        assert input != null && !input.isEmpty() : "Input should not be null or empty";
+        assert ui != null : "UI object should not be null";
+
+        String usage = "Use 'agenda week' or 'agenda month', optionally followed by a yyyy-MM-dd date.";
+        String[] parts = input.trim().split("\\s+");
+        if (parts.length < 2 || parts.length > 3) {
+            throw new GiluException(usage);
+        }
+        LocalDate from = parts.length == 3 ? parseDate(parts[2]) : LocalDate.now();
+        LocalDate to;
+        switch (parts[1].toLowerCase()) {
+        case "week":
+            to = from.plusDays(6);
+            break;
+        case "month":
+            to = from.plusMonths(1).minusDays(1);
+            break;
+        default:
+            throw new GiluException(usage);
+        }
+
+        int days = (int) (to.toEpochDay() - from.toEpochDay()) + 1;
+        int[] deadlineCounts = agendaIndex.countDeadlinesPerDay(from, days);
+        int[] eventCounts = agendaIndex.countEventsPerDay(from, days);
+        StringBuilder response = new StringBuilder(64 * (days + 2));
+        response.append(ui.showMessage("Here is your agenda from " + from.format(HEADER_DATE_FORMATTER) + " to "
+                + to.format(HEADER_DATE_FORMATTER) + ":\n"));
+        for (int i = 0; i < days; i++) {
+            int count = deadlineCounts[i] + eventCounts[i];
+            response.append("  ").append(from.plusDays(i).format(AGENDA_DAY_FORMATTER)).append("  ");
+            for (int j = 0; j < MAX_AGENDA_BAR; j++) {
+                response.append(j < count ? '#' : ' ');
+            }
+            response.append(count > MAX_AGENDA_BAR ? "+ " : "  ");
+            if (count == 0) {
+                response.append("-\n");
+            } else {
+                response.append(deadlineCounts[i]).append(" due, ").append(eventCounts[i])
+                        .append(eventCounts[i] == 1 ? " event\n" : " events\n");
+            }
+        }
+        response.append(describeCounts(agendaIndex.countDeadlines(from, to), agendaIndex.countEvents(from, to)))
+                .append(" in this period.\n");
+        return response.toString();
+    }
+
+    /**
+     * Counts the pending deadlines due and events taking place between two dates.
+     *
+     * @param input The user input, as in {@code count 2025-03-01 2025-03-31}.
+     * @param ui    The Ui object for formatting messages.
+     * @return The number of deadlines and events in the range, both dates included.
+     * @throws GiluException If a date is missing or invalid, or the range ends before it starts.
+     */
+    public String countTasksBetween(String input, Ui ui) throws GiluException {
+        assert input != null && !input.isEmpty() : "Input should not be null or empty";
+        assert ui != null : "UI object should not be null";
+
+        String[] parts = input.trim().split("\\s+");
+        if (parts.length != 3) {
+            throw new GiluException("Use 'count FROM TO' with dates in yyyy-MM-dd format.");
+        }
+        LocalDate from = parseDate(parts[1]);
+        LocalDate to = parseDate(parts[2]);
+        if (to.isBefore(from)) {
+            throw new GiluException("The end date cannot be before the start date.");
+        }
+        return ui.showMessage("From " + from.format(HEADER_DATE_FORMATTER) + " to " + to.format(HEADER_DATE_FORMATTER)
+                + " you have " + describeCounts(agendaIndex.countDeadlines(from, to),
+                agendaIndex.countEvents(from, to)) + ".");
+    }
+
+    private static String describeCounts(int deadlineCount, int eventCount) {
+        return deadlineCount + (deadlineCount == 1 ? " pending deadline" : " pending deadlines") + " and "
+                + eventCount + (eventCount == 1 ? " pending event" : " pending events");
+    }
+
+    private static LocalDate parseDate(String text) throws GiluException {
+        try {
+            return LocalDate.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new GiluException("Invalid date format. Use yyyy-MM-dd.");
+        }
+    }
+
     /**
      * Adds a new todo task and returns the confirmation message.
      *
@@ -172,11 +386,12 @@ public class TaskList {
             throw new GiluException("Oops! I need some details for your ToDo.");
         }
 
+        Task task = new Todo(description);
+        String warning = describeDuplicate(task);
         try {
-            Task task = new Todo(description);
-            tasks.add(task);
-            storage.saveTasks(tasks);
-            return ui.printAddedTask(task, tasks.size());
+            append(task);
+            persist(storage);
+            return ui.printAddedTask(task, tasks.size()) + warning;
         } catch (IOException e) {
             throw new GiluException("Error saving task: " + e.getMessage());
         }
@@ -195,15 +410,21 @@ public class TaskList {
             throw new GiluException("Your deadline is missing something. Try: deadline <task> /by <yyyy-MM-dd HHmm>.");
         }
 
+        Task task;
         try {
             LocalDateTime by = LocalDateTime.parse(parts[1].trim(), DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm"));
-            Task task = new Deadline(parts[0].trim(), by);
-            tasks.add(task);
-            storage.saveTasks(tasks);
-            return ui.printAddedTask(task, tasks.size());
+            task = new Deadline(parts[0].trim(), by);
         } catch (Exception e) {
             throw new GiluException("Invalid date format! Use: yyyy-MM-dd HHmm.");
         }
+        String warning = describeDuplicate(task);
+        try {
+            append(task);
+            persist(storage);
+            return ui.printAddedTask(task, tasks.size()) + warning;
+        } catch (IOException e) {
+            throw new GiluException("Error saving task: " + e.getMessage());
+        }
     }
 
     /**
@@ -224,17 +445,36 @@ public class TaskList {
             throw new GiluException("Your event needs both a start and end time.");
         }
 
+        Event task;
         try {
             LocalDateTime from = LocalDateTime.parse(timeParts[0].trim(),
                     DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm"));
             LocalDateTime to = LocalDateTime.parse(timeParts[1].trim(), DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm"));
-            Task task = new Event(parts[0].trim(), from, to);
-            tasks.add(task);
-            storage.saveTasks(tasks);
-            return ui.printAddedTask(task, tasks.size());
+            task = new Event(parts[0].trim(), from, to);
         } catch (Exception e) {
             throw new GiluException("Invalid date format! Use: yyyy-MM-dd HHmm.");
         }
+        String warning = describeDuplicate(task);
+        try {
+            List<Event> clashes = eventIndex.findOverlapping(task.getFrom(), task.getTo());
+            append(task);
+            persist(storage);
+            return ui.printAddedTask(task, tasks.size()) + warning + describeClashes(clashes);
+        } catch (IOException e) {
+            throw new GiluException("Error saving task: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Warns about adding a task with the same type, description and dates as one already in the list.
+     *
+     * @return The warning, or an empty string if the task is new.
+     */
+    private String describeDuplicate(Task task) {
+        if (!duplicateIndex.contains(task)) {
+            return "";
+        }
+        return "Heads up: this task was already in your list. Use 'dedupe' to remove duplicates.\n";
     }
 
     /**
@@ -244,7 +484,7 @@ public class TaskList {
      * @param ui      The Ui object.
      * @param storage The Storage object.
      * @return The confirmation message.
-     * @throws GiluException If the task number is invalid.
+     * @throws GiluException If the task number is invalid or the tasks cannot be saved.
      */
     public String markTask(String input, Ui ui, Storage storage) throws GiluException {
         assert input != null && !input.isEmpty() : "Input should not be null or empty";
@@ -252,7 +492,7 @@ public class TaskList {
         assert storage != null : "Storage object should not be null";
 
         int taskIndex = getValidatedTaskIndex(input);
-        tasks.get(taskIndex).markAsDone();
+        setDone(taskIndex, true);
         saveTasks(storage);
         return ui.showMessage("Cool! I've marked this task as done:\n   " + tasks.get(taskIndex));
     }
@@ -264,7 +504,7 @@ public class TaskList {
      * @param ui      The Ui object.
      * @param storage The Storage object.
      * @return The confirmation message.
-     * @throws GiluException If the task number is invalid.
+     * @throws GiluException If the task number is invalid or the tasks cannot be saved.
      */
     public String unmarkTask(String input, Ui ui, Storage storage) throws GiluException {
         assert input != null && !input.isEmpty() : "Input should not be null or empty";
@@ -272,7 +512,7 @@ public class TaskList {
         assert storage != null : "Storage object should not be null";
 
         int taskIndex = getValidatedTaskIndex(input);
-        tasks.get(taskIndex).markAsNotDone();
+        setDone(taskIndex, false);
         saveTasks(storage);
         return ui.showMessage("No problem! I've marked this task as not done:\n   " + tasks.get(taskIndex));
     }
@@ -284,7 +524,7 @@ public class TaskList {
      * @param ui      The Ui object.
      * @param storage The Storage object.
      * @return The confirmation message.
-     * @throws GiluException If the task number is invalid.
+     * @throws GiluException If the task number is invalid or the tasks cannot be saved.
      */
     public String deleteTask(String input, Ui ui, Storage storage) throws GiluException {
         assert input != null && !input.isEmpty() : "Input should not be null or empty";
@@ -292,7 +532,7 @@ public class TaskList {
         assert storage != null : "Storage object should not be null";
 
         int taskIndex = getValidatedTaskIndex(input);
-        Task removedTask = tasks.remove(taskIndex);
+        Task removedTask = removeAt(taskIndex);
         saveTasks(storage);
         return ui.showMessage("Noted. I've removed this task:\n   " + removedTask
                 + "\nNow you have " + tasks.size() + " tasks in the list.");
@@ -317,10 +557,15 @@ public class TaskList {
 
         String keyword = parts[1].trim().toLowerCase(); // Convert to lowercase
 
-        List<Task> matchingTasks = new ArrayList<>();
-        for (Task task : tasks) {
-            if (task.getDescription().toLowerCase().contains(keyword)) { // Case-insensitive match
-                matchingTasks.add(task);
+        List<Task> matchingTasks;
+        if (ParallelScan.isWorthSplitting(tasks.size())) {
+            matchingTasks = ParallelScan.filter(tasks, task -> task.getDescription().toLowerCase().contains(keyword));
+        } else {
+            matchingTasks = new ArrayList<>();
+            for (Task task : tasks) {
+                if (task.getDescription().toLowerCase().contains(keyword)) { // Case-insensitive match
+                    matchingTasks.add(task);
+                }
             }
         }
 
@@ -328,30 +573,694 @@ public class TaskList {
             return ui.showMessage("No matching tasks found.");
         }
 
-        StringBuilder response = new StringBuilder(ui.showMessage("Here are the matching tasks:\n"));
-        for (int i = 0; i < matchingTasks.size(); i++) {
-            response.append("  ").append(i + 1).append(". ").append(matchingTasks.get(i)).append("\n");
+        StringBuilder response = new StringBuilder(estimateCapacity(matchingTasks.size()));
+        response.append(ui.showMessage("Here are the matching tasks:\n"));
+        appendNumberedTasks(response, matchingTasks);
+        return response.toString();
+    }
+
+    /**
+     * Finds tasks containing words close to the keywords, tolerating typos, and lists the closest first.
+     *
+     * @param input The full user input, in the form "find~ KEYWORDS".
+     * @param ui    The Ui object.
+     * @return The matching tasks, ranked by similarity.
+     */
+    public String findTasksFuzzy(String input, Ui ui) {
+        assert input != null && !input.isEmpty() : "Search input should not be null or empty";
+        assert ui != null : "UI object should not be null";
+
+        String[] parts = input.trim().split("\\s+", 2);
+        List<Task> matchingTasks = parts.length < 2 ? new ArrayList<>()
+                : fuzzyIndex != null ? fuzzyIndex.search(parts[1])
+                : FuzzyIndex.scan(parts[1], tasks);
+        if (matchingTasks.isEmpty()) {
+            return ui.showMessage("No similar tasks found.");
+        }
+
+        List<Task> shown = matchingTasks.subList(0, Math.min(matchingTasks.size(), MAX_FUZZY_RESULTS));
+        StringBuilder response = new StringBuilder(estimateCapacity(shown.size()));
+        response.append(ui.showMessage("Here are the closest matching tasks:\n"));
+        appendNumberedTasks(response, shown);
+        if (matchingTasks.size() > shown.size()) {
+            response.append("  ...and ").append(matchingTasks.size() - shown.size()).append(" more.\n");
         }
         return response.toString();
     }
 
+    /**
+     * Exports all tasks to a file in the requested format.
+     *
+     * @param input   The full user input, in the form "export FORMAT PATH".
+     * @param ui      The Ui object.
+     * @param storage The Storage object, whose file is copied as-is for the native format.
+     * @return The confirmation message.
+     * @throws GiluException If the input is malformed or the file cannot be written.
+     */
+    public String exportTasks(String input, Ui ui, Storage storage) throws GiluException {
+        assert input != null && !input.isEmpty() : "Input should not be null or empty";
+        assert ui != null : "UI object should not be null";
+        assert storage != null : "Storage object should not be null";
+
+        String[] parts = input.trim().split("\\s+", 3);
+        TransferFormat format = parts.length == 3 ? TransferFormat.fromName(parts[1]) : null;
+        if (format == null) {
+            throw new GiluException("Please use: export gilu|csv|jsonl|ics <file>");
+        }
+
+        try {
+            int count = new TaskExporter().export(tasks, format, Paths.get(parts[2]), storage);
+            return ui.showMessage("Exported " + count + " tasks to " + parts[2] + ".");
+        } catch (IOException | InvalidPathException e) {
+            throw new GiluException("Error exporting tasks: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Imports tasks from a file in the requested format and appends them to the list.
+     * The file is validated in full before any task is added, and the list is saved once.
+     *
+     * @param input   The full user input, in the form "import FORMAT PATH".
+     * @param ui      The Ui object.
+     * @param storage The Storage object.
+     * @return The confirmation message.
+     * @throws GiluException If the input is malformed or the file cannot be read or parsed.
+     */
+    public String importTasks(String input, Ui ui, Storage storage) throws GiluException {
+        assert input != null && !input.isEmpty() : "Input should not be null or empty";
+        assert ui != null : "UI object should not be null";
+        assert storage != null : "Storage object should not be null";
+
+        String[] parts = input.trim().split("\\s+", 3);
+        TransferFormat format = parts.length == 3 ? TransferFormat.fromName(parts[1]) : null;
+        if (format == null) {
+            throw new GiluException("Please use: import gilu|csv|jsonl|ics <file>");
+        }
+
+        List<Task> imported = new ArrayList<>();
+        try {
+            new TaskImporter().importTasks(format, Paths.get(parts[2]), imported::add);
+        } catch (IOException | InvalidPathException e) {
+            throw new GiluException("Error importing tasks: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new GiluException("Error importing tasks. " + e.getMessage());
+        }
+
+        // Skip tasks already in the list or earlier in the file, so that importing twice adds nothing
+        List<Task> added = new ArrayList<>(imported.size());
+        Set<String> importedKeys = new HashSet<>();
+        for (Task task : imported) {
+            if (!duplicateIndex.contains(task) && importedKeys.add(DuplicateIndex.keyOf(task))) {
+                added.add(task);
+            }
+        }
+        addAll(added, storage);
+        int skipped = imported.size() - added.size();
+        return ui.showMessage("Imported " + added.size() + " tasks"
+                + (skipped > 0 ? ", skipping " + skipped + " duplicates" : "") + ". Now you have "
+                + tasks.size() + " tasks in the list.");
+    }
+
+    /**
+     * Removes every task that duplicates an earlier one in the list, in one pass with one save.
+     * If a removed copy was done, the copy that is kept is marked as done.
+     *
+     * @param ui      The Ui object.
+     * @param storage The Storage object.
+     * @return The confirmation message.
+     * @throws GiluException If the tasks cannot be saved.
+     */
+    public String dedupeTasks(Ui ui, Storage storage) throws GiluException {
+        assert ui != null : "UI object should not be null";
+        assert storage != null : "Storage object should not be null";
+
+        if (duplicateIndex.getDuplicateCount() == 0) {
+            return ui.showMessage("There are no duplicate tasks.");
+        }
+        Map<String, Integer> firstPositions = new HashMap<>();
+        List<Integer> markPositions = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        List<Task> removedTasks = new ArrayList<>();
+        Set<Task> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            Integer first = firstPositions.putIfAbsent(DuplicateIndex.keyOf(task), i);
+            if (first == null) {
+                continue;
+            }
+            removed.add(task);
+            removedTasks.add(task);
+            positions.add(i);
+            if (task.isDone() && !tasks.get(first).isDone()) {
+                markPositions.add(first);
+            }
+        }
+        if (positions.isEmpty()) {
+            return ui.showMessage("There are no duplicate tasks."); // Only the hashes of two tasks matched
+        }
+
+        for (int position : markPositions) {
+            setDone(position, true);
+        }
+        tasks.removeIf(removed::contains);
+        for (int i = positions.size() - 1; i >= 0; i--) {
+            publish(TaskChange.Kind.REMOVED, removedTasks.get(i), positions.get(i)); // Last first keeps positions valid
+        }
+        try {
+            persist(storage);
+        } catch (IOException e) {
+            throw new GiluException("Error saving tasks: " + e.getMessage());
+        }
+        return ui.showMessage("Removed " + positions.size() + " duplicate tasks. Now you have "
+                + tasks.size() + " tasks in the list.");
+    }
+
+    /**
+     * Moves all completed tasks that are old enough to the archive, including completed todos.
+     *
+     * @param ui      The Ui object.
+     * @param storage The Storage object.
+     * @return The confirmation message.
+     * @throws GiluException If the tasks cannot be archived.
+     */
+    public String archiveTasks(Ui ui, Storage storage) throws GiluException {
+        assert ui != null : "UI object should not be null";
+        assert storage != null : "Storage object should not be null";
+
+        try {
+            int count = archiveCompletedTasks(storage, true);
+            if (count == 0) {
+                return ui.showMessage("There are no completed tasks to archive yet.");
+            }
+            return ui.showMessage("Archived " + count + " completed tasks. Now you have "
+                    + tasks.size() + " tasks in the list.");
+        } catch (IOException e) {
+            throw new GiluException("Error archiving tasks: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Moves completed deadlines and events that ended more than {@link #ARCHIVE_AGE_DAYS} days ago
+     * to the archive, and saves the remaining tasks once.
+     *
+     * @param storage        The Storage object, whose archive receives the tasks.
+     * @param isTodoIncluded Whether completed todos, which have no date, are archived too.
+     * @return The number of tasks archived.
+     * @throws IOException If an I/O error occurs.
+     */
+    public int archiveCompletedTasks(Storage storage, boolean isTodoIncluded) throws IOException {
+        assert storage != null : "Storage object should not be null";
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(ARCHIVE_AGE_DAYS);
+
+        List<Task> archived = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            if (isArchivable(tasks.get(i), cutoff, isTodoIncluded)) {
+                archived.add(tasks.get(i));
+                positions.add(i);
+            }
+        }
+        if (archived.isEmpty()) {
+            return 0;
+        }
+
+        // Archive first, so that a failure never loses tasks, at worst leaving them in both files
+        storage.getArchive().append(archived);
+        tasks.removeIf(task -> isArchivable(task, cutoff, isTodoIncluded));
+        for (int i = archived.size() - 1; i >= 0; i--) {
+            publish(TaskChange.Kind.REMOVED, archived.get(i), positions.get(i)); // Last first keeps positions valid
+        }
+        persist(storage);
+        return archived.size();
+    }
+
+    private static boolean isArchivable(Task task, LocalDateTime cutoff, boolean isTodoIncluded) {
+        if (!task.isDone()) {
+            return false;
+        } else if (task instanceof Deadline) {
+            return ((Deadline) task).getBy().isBefore(cutoff);
+        } else if (task instanceof Event) {
+            return ((Event) task).getTo().isBefore(cutoff);
+        }
+        return isTodoIncluded;
+    }
+
+    /**
+     * Lists the archived tasks, or those containing a keyword. The archive is only read here,
+     * never kept in memory.
+     *
+     * @param input   The full user input, in the form "archive list" or "archive find KEYWORD".
+     * @param ui      The Ui object.
+     * @param storage The Storage object.
+     * @return The archived tasks, numbered in archive order.
+     * @throws GiluException If the keyword is missing or the archive cannot be read.
+     */
+    public String findArchivedTasks(String input, Ui ui, Storage storage) throws GiluException {
+        assert input != null && !input.isEmpty() : "Input should not be null or empty";
+        assert ui != null : "UI object should not be null";
+        assert storage != null : "Storage object should not be null";
+
+        String[] parts = input.trim().split("\\s+", 3);
+        boolean isFind = parts.length > 1 && parts[1].equalsIgnoreCase("find");
+        if (isFind && parts.length < 3) {
+            throw new GiluException("Oops! Please specify a keyword to search the archive.");
+        }
+        String keyword = isFind ? parts[2].toLowerCase() : null;
+
+        List<Task> shown = new ArrayList<>();
+        int[] matchCount = new int[1];
+        try {
+            storage.getArchive().forEachTask(task -> {
+                if (keyword == null || task.getDescription().toLowerCase().contains(keyword)) {
+                    if (matchCount[0]++ < MAX_ARCHIVE_LINES) {
+                        shown.add(task);
+                    }
+                }
+            });
+        } catch (IOException e) {
+            throw new GiluException("Error reading the archive: " + e.getMessage());
+        }
+
+        if (shown.isEmpty()) {
+            return ui.showMessage(isFind ? "No matching archived tasks found." : "The archive is empty.");
+        }
+        StringBuilder response = new StringBuilder(estimateCapacity(shown.size()));
+        response.append(ui.showMessage(isFind ? "Here are the matching archived tasks:\n"
+                : "Here are your archived tasks:\n"));
+        appendNumberedTasks(response, shown);
+        if (matchCount[0] > shown.size()) {
+            response.append("  ...and ").append(matchCount[0] - shown.size()).append(" more.\n");
+        }
+        return response.toString();
+    }
+
+    /**
+     * Appends the given tasks and saves the list once, however many tasks there are.
+     *
+     * @param newTasks The tasks to append, in order.
+     * @param storage  The Storage object.
+     * @throws GiluException If the tasks cannot be saved.
+     */
+    public void addAll(List<Task> newTasks, Storage storage) throws GiluException {
+        assert newTasks != null : "New tasks should not be null";
+        if (newTasks.isEmpty()) {
+            return;
+        }
+        if (tasks instanceof ArrayList) {
+            ArrayList<Task> arrayList = (ArrayList<Task>) tasks;
+            arrayList.ensureCapacity(tasks.size() + newTasks.size());
+        }
+        appendAll(newTasks);
+        try {
+            persist(storage);
+        } catch (IOException e) {
+            throw new GiluException("Error saving tasks: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lists every pair of events whose times overlap, by task number.
+     *
+     * @param ui The Ui object.
+     * @return The overlapping pairs, ordered by the start of the later event.
+     */
+    public String findConflicts(Ui ui) {
+        assert ui != null : "UI object should not be null";
+
+        Map<Task, Integer> positions = new IdentityHashMap<>(eventIndex.size() * 2);
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i) instanceof Event) {
+                positions.put(tasks.get(i), i + 1);
+            }
+        }
+        StringBuilder pairs = new StringBuilder();
+        int[] shown = new int[1];
+        int count = eventIndex.forEachConflict((first, second) -> {
+            if (shown[0]++ < MAX_CONFLICTS_SHOWN) {
+                pairs.append("  ").append(positions.get(first)).append(". ").append(first).append('\n')
+                        .append("     clashes with ").append(positions.get(second)).append(". ").append(second)
+                        .append('\n');
+            }
+        });
+
+        if (count == 0) {
+            return ui.showMessage("No clashing events. Your calendar is clear!");
+        }
+        StringBuilder response = new StringBuilder(pairs.length() + 128);
+        response.append(ui.showMessage("Found " + count + (count == 1 ? " pair" : " pairs")
+                + " of clashing events:\n")).append(pairs);
+        if (count > MAX_CONFLICTS_SHOWN) {
+            response.append("  ...and ").append(count - MAX_CONFLICTS_SHOWN).append(" more.\n");
+        }
+        return response.toString();
+    }
+
+    /**
+     * Describes the events that a newly added event clashes with.
+     *
+     * @param clashes The clashing events, in order of start time.
+     * @return The warning to append to the confirmation, or an empty string if there are no clashes.
+     */
+    private static String describeClashes(List<Event> clashes) {
+        if (clashes.isEmpty()) {
+            return "";
+        }
+        StringBuilder warning = new StringBuilder("Heads up! This clashes with ").append(clashes.size())
+                .append(clashes.size() == 1 ? " event:\n" : " events:\n");
+        for (int i = 0; i < Math.min(clashes.size(), MAX_CLASHES_SHOWN); i++) {
+            warning.append("   ").append(clashes.get(i)).append('\n');
+        }
+        if (clashes.size() > MAX_CLASHES_SHOWN) {
+            warning.append("   ...and ").append(clashes.size() - MAX_CLASHES_SHOWN).append(" more.\n");
+        }
+        return warning.toString();
+    }
+
+    /**
+     * Applies changes made to another task list, such as a replication primary, and saves once.
+     * The versions of the changes are not kept; this list numbers its own changes.
+     *
+     * @param changes The changes, in the order they were made.
+     * @param storage The Storage object.
+     * @throws IOException If the tasks cannot be saved.
+     */
+    public void applyChanges(List<TaskChange> changes, Storage storage) throws IOException {
+        for (TaskChange change : changes) {
+            switch (change.getKind()) {
+            case ADDED:
+                insertAt(change.getPosition(), change.getTask());
+                break;
+            case REMOVED:
+                removeAt(change.getPosition());
+                break;
+            default:
+                setDone(change.getPosition(), change.getTask().isDone());
+            }
+        }
+        persist(storage);
+    }
+
+    /**
+     * Replaces every task with the given ones and saves once.
+     *
+     * @param newTasks The new tasks, in list order.
+     * @param storage  The Storage object.
+     * @throws IOException If the tasks cannot be saved.
+     */
+    public void replaceAll(List<Task> newTasks, Storage storage) throws IOException {
+        clear();
+        appendAll(newTasks);
+        persist(storage);
+    }
+
+    /**
+     * Registers a listener for every later change to the list. Listeners are called on the thread
+     * that changes the list, after the change, in the order they were added.
+     *
+     * @param listener The listener to add.
+     */
+    public void addChangeListener(TaskChangeListener listener) {
+        assert listener != null : "Listener should not be null";
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener added with {@link #addChangeListener(TaskChangeListener)}.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeChangeListener(TaskChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void append(Task task) {
+        tasks.add(task);
+        publish(TaskChange.Kind.ADDED, task, tasks.size() - 1);
+    }
+
+    private void insertAt(int position, Task task) {
+        tasks.add(position, task);
+        publish(TaskChange.Kind.ADDED, task, position);
+    }
+
+    private void appendAll(List<Task> newTasks) {
+        int start = tasks.size();
+        tasks.addAll(newTasks);
+        for (int i = 0; i < newTasks.size(); i++) {
+            publish(TaskChange.Kind.ADDED, newTasks.get(i), start + i);
+        }
+    }
+
+    private Task removeAt(int position) {
+        Task task = tasks.remove(position);
+        publish(TaskChange.Kind.REMOVED, task, position);
+        return task;
+    }
+
+    private void setDone(int position, boolean isDone) {
+        Task task = tasks.get(position);
+        if (task.isDone() == isDone) {
+            return;
+        }
+        if (isDone) {
+            task.markAsDone();
+        } else {
+            task.markAsNotDone();
+        }
+        publish(TaskChange.Kind.DONE_CHANGED, task, position);
+    }
+
+    /**
+     * Bumps the version and tells every listener about a change that has just been made.
+     */
+    private void publish(TaskChange.Kind kind, Task task, int position) {
+        version++;
+        if (listeners.isEmpty()) {
+            return;
+        }
+        TaskChange change = new TaskChange(kind, task, position, version);
+        for (TaskChangeListener listener : listeners) {
+            listener.onChange(change);
+        }
+    }
+
+    /**
+     * Keeps the duplicate, agenda, event and fuzzy search indexes in step with the list, and moves
+     * descriptions off the heap and back as tasks join and leave it.
+     */
+    private void updateIndexes(TaskChange change) {
+        Task task = change.getTask();
+        if (descriptionStore != null && change.getKind() == TaskChange.Kind.ADDED) {
+            descriptionStore.attach(task);
+        } else if (descriptionStore != null && change.getKind() == TaskChange.Kind.REMOVED) {
+            descriptionStore.release(task);
+        }
+        if (change.getKind() == TaskChange.Kind.ADDED) {
+            duplicateIndex.add(task);
+        } else if (change.getKind() == TaskChange.Kind.REMOVED) {
+            duplicateIndex.remove(task);
+        }
+        // The agenda only counts pending tasks, so marking a task done takes it out
+        if (change.getKind() == TaskChange.Kind.DONE_CHANGED) {
+            if (task.isDone()) {
+                agendaIndex.remove(task);
+            } else {
+                agendaIndex.add(task);
+            }
+        } else if (!task.isDone()) {
+            if (change.getKind() == TaskChange.Kind.ADDED) {
+                agendaIndex.add(task);
+            } else {
+                agendaIndex.remove(task);
+            }
+        }
+        if (task instanceof Event) {
+            if (change.getKind() == TaskChange.Kind.ADDED) {
+                eventIndex.add((Event) task);
+            } else if (change.getKind() == TaskChange.Kind.REMOVED) {
+                eventIndex.remove((Event) task);
+            }
+        }
+        if (fuzzyIndex != null) {
+            applyChange(fuzzyIndex, change);
+        } else if (pendingFuzzyChanges != null && change.getKind() != TaskChange.Kind.DONE_CHANGED) {
+            pendingFuzzyChanges.add(change);
+        }
+    }
+
+    private static void applyChange(FuzzyIndex index, TaskChange change) {
+        switch (change.getKind()) {
+        case ADDED:
+            index.add(change.getTask());
+            break;
+        case REMOVED:
+            index.remove(change.getTask());
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Stops updating the fuzzy search index until {@link #restoreFuzzyIndex(Storage, Executor)} is called, so that
+     * loading does not wait for it. Fuzzy searches check every task in the meantime.
+     */
+    public void deferFuzzyIndex() {
+        fuzzyIndex = null;
+        pendingFuzzyChanges = null;
+    }
+
+    /**
+     * Brings back the fuzzy search index once every task has been loaded from storage. The index saved next to
+     * the storage file is mapped in if it was saved for the file as it is now. Otherwise the index is built on
+     * a background thread, saved for the next start, and handed to the owner thread to install.
+     *
+     * @param storage The storage the tasks were just loaded from.
+     * @param owner   Runs tasks on the thread that changes the list.
+     * @return True if the saved index could be used.
+     */
+    public boolean restoreFuzzyIndex(Storage storage, Executor owner) {
+        if (fuzzyIndex != null || pendingFuzzyChanges != null) {
+            return fuzzyIndex != null;
+        }
+        persistedVersion = version;
+        IndexSidecar.Stamp stamp = null;
+        try {
+            stamp = IndexSidecar.stamp(storage.getStampFile());
+            FuzzyIndex restored = IndexSidecar.read(storage.getIndexPath(), stamp, tasks);
+            if (restored != null) {
+                fuzzyIndex = restored;
+                return true;
+            }
+        } catch (IOException e) {
+            LOGGER.warning("Error reading search index: " + e.getMessage());
+        }
+        rebuildFuzzyIndex(storage, stamp, owner);
+        return false;
+    }
+
+    private void rebuildFuzzyIndex(Storage storage, IndexSidecar.Stamp stamp, Executor owner) {
+        List<Task> snapshot = new ArrayList<>(tasks);
+        List<TaskChange> pending = new ArrayList<>();
+        pendingFuzzyChanges = pending;
+        Thread builder = new Thread(() -> {
+            IndexRebuildEvent event = new IndexRebuildEvent();
+            event.begin();
+            FuzzyIndex built = FuzzyIndex.build(snapshot);
+            event.end();
+            if (event.shouldCommit()) {
+                event.setIndex("fuzzy");
+                event.setTaskCount(snapshot.size());
+                event.commit();
+            }
+            if (stamp != null) {
+                try {
+                    IndexSidecar.write(storage.getIndexPath(), stamp, built, snapshot);
+                } catch (IOException e) {
+                    LOGGER.warning("Error saving search index: " + e.getMessage());
+                }
+            }
+            owner.execute(() -> installFuzzyIndex(built, pending));
+        }, "gilu-indexer");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    private void installFuzzyIndex(FuzzyIndex built, List<TaskChange> pending) {
+        if (pendingFuzzyChanges != pending) {
+            return; // Deferred again while it was being built
+        }
+        for (TaskChange change : pending) {
+            applyChange(built, change);
+        }
+        fuzzyIndex = built;
+        pendingFuzzyChanges = null;
+    }
+
+    /**
+     * Saves the fuzzy search index next to the storage file, so that the next start can map it in instead of
+     * building it. Does nothing while the index is being built or if the last save failed.
+     *
+     * @param storage The storage the tasks are saved in.
+     */
+    public void saveFuzzyIndex(Storage storage) {
+        if (fuzzyIndex == null || persistedVersion != version) {
+            return;
+        }
+        try {
+            IndexSidecar.Stamp stamp = IndexSidecar.stamp(storage.getStampFile());
+            if (stamp != null) {
+                IndexSidecar.write(storage.getIndexPath(), stamp, fuzzyIndex, tasks);
+            }
+        } catch (IOException e) {
+            LOGGER.warning("Error saving search index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Appends the given tasks to the response as lines numbered from 1.
+     * Each task's cached display line is copied directly into the buffer. Large lists are rendered
+     * in chunks across cores and joined in order.
+     *
+     * @param response The buffer to append to.
+     * @param list     The tasks to render, in display order.
+     */
+    private static void appendNumberedTasks(StringBuilder response, List<? extends Task> list) {
+        long startNanos = PhaseClock.start();
+        if (ParallelScan.isWorthSplitting(list.size())) {
+            ParallelScan.appendLines(response, list, (line, i, task) ->
+                    line.append("  ").append(i + 1).append(". ").append(task.toString()).append('\n'));
+        } else {
+            for (int i = 0; i < list.size(); i++) {
+                response.append("  ").append(i + 1).append(". ").append(list.get(i).toString()).append('\n');
+            }
+        }
+        PhaseClock.stop(Phase.RENDER, startNanos);
+    }
+
+    /**
+     * Estimates the buffer size needed to render the given number of task lines.
+     *
+     * @param lineCount The number of task lines.
+     * @return The initial capacity for the response buffer.
+     */
+    private static int estimateCapacity(int lineCount) {
+        return (int) Math.min(Integer.MAX_VALUE - 8, 128L + (long) lineCount * ESTIMATED_LINE_LENGTH);
+    }
+
     /**
      * Saves the current list of tasks to storage.
      *
      * <p>This method ensures that all tasks are persisted in the specified
      * storage. If an {@link IOException} occurs during the saving process,
-     * an error message is printed to the console.</p>
+     * including another Gilu having saved in the meantime, it is reported to the user.</p>
      *
      * @param storage The {@link Storage} object used to save tasks.
-     * @throws AssertionError If the provided storage object is {@code null}.
+     * @throws GiluException If the tasks cannot be saved.
      */
-    private void saveTasks(Storage storage) {
+    private void saveTasks(Storage storage) throws GiluException {
         assert storage != null : "Storage object should not be null";
 
         try {
-            storage.saveTasks(tasks);
+            persist(storage);
         } catch (IOException e) {
-            System.out.println("Error saving tasks: " + e.getMessage());
+            throw new GiluException("Error saving tasks: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the current list of tasks to storage, counting the time as the persist phase.
+     *
+     * @param storage The {@link Storage} object used to save tasks.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void persist(Storage storage) throws IOException {
+        long startNanos = PhaseClock.start();
+        try {
+            storage.saveTasks(tasks);
+            persistedVersion = version;
+        } finally {
+            PhaseClock.stop(Phase.PERSIST, startNanos);
         }
     }
 
@@ -381,6 +1290,51 @@ public class TaskList {
         return taskIndex;
     }
 
+    /**
+     * Appends tasks that were loaded from storage, without saving them again.
+     *
+     * @param loadedTasks The tasks to append, in storage order.
+     */
+    public void addLoadedTasks(List<Task> loadedTasks) {
+        assert loadedTasks != null : "Loaded tasks should not be null";
+        appendAll(loadedTasks);
+    }
+
+    /**
+     * Replaces the tasks from a position onwards with tasks that another process has saved,
+     * without saving them again.
+     *
+     * @param changes The tasks read from storage.
+     */
+    public void mergeExternalChanges(ExternalChanges changes) {
+        int fromTask = Math.min(changes.getFromTask(), tasks.size());
+        for (int i = tasks.size() - 1; i >= fromTask; i--) {
+            removeAt(i);
+        }
+        appendAll(changes.getTasks());
+    }
+
+    /**
+     * Removes all tasks from the list, without touching storage.
+     */
+    public void clear() {
+        List<Task> removed = new ArrayList<>(tasks);
+        tasks.clear();
+        for (int i = removed.size() - 1; i >= 0; i--) {
+            publish(TaskChange.Kind.REMOVED, removed.get(i), i);
+        }
+    }
+
+    /**
+     * Returns the modification version of the list. The version changes whenever a task
+     * is added, removed, marked or unmarked, so equal versions mean identical contents.
+     *
+     * @return The current modification version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
     /**
      * Returns the number of tasks in the task list.
      *
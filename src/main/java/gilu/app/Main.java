@@ -3,6 +3,7 @@ package gilu.app;
 import java.io.IOException;
 
 import gilu.Gilu;
+import gilu.StartupTimeline;
 import gilu.ui.MainWindow;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
@@ -18,10 +19,12 @@ public class Main extends Application {
     private static final String STORAGE_PATH = "./data/gilu.txt";
     private static final String FXML_PATH = "/view/MainWindow.fxml";
 
-    private final Gilu gilu = new Gilu(STORAGE_PATH); // Ensure storage path is passed
+    private Gilu gilu;
 
     @Override
     public void start(Stage stage) {
+        StartupTimeline.mark("JavaFX started");
+        gilu = new Gilu(STORAGE_PATH); // Tasks are loaded after the window is shown
         try {
             FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource(FXML_PATH));
             AnchorPane root = fxmlLoader.load();
@@ -34,9 +37,19 @@ public class Main extends Application {
 
             stage.setTitle("Gilu Chatbot");
             stage.show();
+            StartupTimeline.mark("Window shown");
+            gilu.startLoading();
+            gilu.startMetricsDump();
         } catch (IOException e) {
             System.err.println("Error loading FXML: " + e.getMessage()); // Provide meaningful error feedback
             e.printStackTrace();
         }
     }
+
+    @Override
+    public void stop() {
+        if (gilu != null) {
+            gilu.close();
+        }
+    }
 }
@@ -0,0 +1,130 @@
+package gilu.change;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Hands task changes over to a consumer thread through a ring buffer, and delivers them in batches.
+ *
+ * <p>Registering this feed as a {@link TaskChangeListener} costs the mutating thread only a store into
+ * the buffer per change. The buffer has a single producer, the thread that mutates the task list,
+ * and a single consumer, the thread started by this feed. If the consumer falls a whole buffer behind,
+ * the producer waits for it rather than dropping changes.</p>
+ */
+public class BatchedChangeFeed implements TaskChangeListener, AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(BatchedChangeFeed.class.getName());
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final TaskChange[] buffer;
+    private final int mask;
+    private final int maxBatchSize;
+    private final Consumer<List<TaskChange>> consumer;
+    private final Thread thread;
+
+    /**
+     * Sequence of the next change to publish. Written only by the producer.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Sequence of the next change to deliver. Written only by the consumer thread.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    private volatile boolean isRunning = true;
+
+    /**
+     * Starts a feed that delivers changes to the consumer on a new daemon thread.
+     *
+     * @param name         The name of the consumer thread.
+     * @param capacity     The number of changes the buffer holds, rounded up to a power of two.
+     * @param maxBatchSize The most changes delivered in one batch.
+     * @param consumer     Receives each batch of changes, in order.
+     */
+    public BatchedChangeFeed(String name, int capacity, int maxBatchSize, Consumer<List<TaskChange>> consumer) {
+        assert capacity > 0 && maxBatchSize > 0 : "Capacity and batch size should be positive";
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.buffer = new TaskChange[size];
+        this.mask = size - 1;
+        this.maxBatchSize = maxBatchSize;
+        this.consumer = consumer;
+        this.thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void onChange(TaskChange change) {
+        long sequence = head.get();
+        while (sequence - tail.get() >= buffer.length) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS); // Full, so wait for the consumer to catch up
+        }
+        buffer[(int) sequence & mask] = change;
+        head.lazySet(sequence + 1);
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Waits until every change published so far has been delivered.
+     *
+     * @param timeoutMillis The longest time to wait.
+     * @return true if everything was delivered in time.
+     */
+    public boolean awaitDelivery(long timeoutMillis) {
+        long target = head.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (tail.get() < target) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * Returns how many published changes have not been delivered yet.
+     *
+     * @return The number of pending changes.
+     */
+    public long getBacklog() {
+        return head.get() - tail.get();
+    }
+
+    /**
+     * Stops the consumer thread. Changes not yet delivered are dropped.
+     */
+    @Override
+    public void close() {
+        isRunning = false;
+        LockSupport.unpark(thread);
+    }
+
+    private void run() {
+        while (isRunning) {
+            long next = tail.get();
+            long available = Math.min(head.get() - next, maxBatchSize);
+            if (available == 0) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            List<TaskChange> batch = new ArrayList<>((int) available);
+            for (long sequence = next; sequence < next + available; sequence++) {
+                int slot = (int) sequence & mask;
+                batch.add(buffer[slot]);
+                buffer[slot] = null;
+            }
+            try {
+                consumer.accept(batch);
+            } catch (RuntimeException e) {
+                LOGGER.warning("Error delivering task changes: " + e);
+            }
+            tail.lazySet(next + available);
+        }
+    }
+}
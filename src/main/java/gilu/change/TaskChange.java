@@ -0,0 +1,57 @@
+package gilu.change;
+
+import gilu.task.Task;
+
+/**
+ * Describes one change to a task list: a task added, removed, or marked as done or not done.
+ */
+public final class TaskChange {
+    /**
+     * The kinds of change to a task list.
+     */
+    public enum Kind {
+        ADDED, REMOVED, DONE_CHANGED
+    }
+
+    private final Kind kind;
+    private final Task task;
+    private final int position;
+    private final long version;
+
+    /**
+     * Constructs a TaskChange.
+     *
+     * @param kind     The kind of change.
+     * @param task     The task that was added, removed or changed.
+     * @param position The 0-based position of the task in the list: where it was inserted, where it was
+     *                 removed from, or where it is.
+     * @param version  The list version right after this change.
+     */
+    public TaskChange(Kind kind, Task task, int position, long version) {
+        this.kind = kind;
+        this.task = task;
+        this.position = position;
+        this.version = version;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " #" + position + " @" + version + ": " + task;
+    }
+}
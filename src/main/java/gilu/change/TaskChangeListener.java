@@ -0,0 +1,15 @@
+package gilu.change;
+
+/**
+ * Receives the changes made to a task list, in the order they were made.
+ */
+@FunctionalInterface
+public interface TaskChangeListener {
+    /**
+     * Called on the mutating thread after the list has changed. Applying the changes one by one,
+     * in the order received, reproduces the list, even for bulk changes.
+     *
+     * @param change The change.
+     */
+    void onChange(TaskChange change);
+}
@@ -1,18 +1,111 @@
 package gilu.command;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 /**
  * Represents the different commands supported by Gilu.
  */
 public enum Command {
-    LIST, SORT, LIST_DATE, MARK, UNMARK, DELETE, TODO, DEADLINE, EVENT, FIND, EXIT, UNKNOWN;
+    LIST("list"), SORT("sort"), LIST_DATE(null), MARK("mark"), UNMARK("unmark"), DELETE("delete"), TODO("todo"),
+    DEADLINE("deadline"), EVENT("event"), FIND("find"), FUZZY_FIND("find~"), METRICS("metrics"), EXPORT("export"),
+    IMPORT("import"), ARCHIVE("archive"), ARCHIVE_FIND(null), CONFLICTS("conflicts"), DEDUPE("dedupe"),
+    AGENDA("agenda"), COUNT("count"), EXIT("bye"), UNKNOWN(null);
+
+    /**
+     * The words that start each command, as typed by the user.
+     */
+    public static final List<String> KEYWORDS;
+
+    /**
+     * The command each keyword starts, before looking at the rest of the input.
+     */
+    private static final Map<String, Command> BY_KEYWORD = new HashMap<>();
 
     /**
      * Regular expression to match date format YYYY-MM-DD.
      */
     private static final Pattern DATE_PATTERN = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
 
+    static {
+        List<String> keywords = new ArrayList<>();
+        for (Command command : values()) {
+            if (command.keyword != null) {
+                keywords.add(command.keyword);
+                BY_KEYWORD.put(command.keyword, command);
+            }
+        }
+        KEYWORDS = List.copyOf(keywords);
+    }
+
+    /**
+     * The word that starts the command, or null if it is told apart from another command by the rest of the input.
+     */
+    private final String keyword;
+
+    Command(String keyword) {
+        this.keyword = keyword;
+    }
+
+    /**
+     * Returns whether the command only reads the task list, so it can be answered
+     * without touching storage.
+     *
+     * @return true if the command does not modify any task.
+     */
+    public boolean isReadOnly() {
+        switch (this) {
+        case LIST:
+        case SORT:
+        case LIST_DATE:
+        case FIND:
+        case FUZZY_FIND:
+        case METRICS:
+        case ARCHIVE_FIND:
+        case CONFLICTS:
+        case AGENDA:
+        case COUNT:
+        case UNKNOWN:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether the response of the command depends only on its input and the task list,
+     * so it can be reused until the list changes. Agendas without a date depend on the day,
+     * and archive searches on the archive, so they are not.
+     *
+     * @return true if the response can be cached.
+     */
+    public boolean isCacheable() {
+        switch (this) {
+        case LIST:
+        case SORT:
+        case LIST_DATE:
+        case FIND:
+        case FUZZY_FIND:
+        case CONFLICTS:
+        case COUNT:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether the command refers to a task by its number in the list.
+     *
+     * @return true for commands that take a task number.
+     */
+    public boolean isNumbered() {
+        return this == MARK || this == UNMARK || this == DELETE;
+    }
+
     /**
      * Converts user input into a corresponding Command enum.
      *
@@ -26,36 +119,18 @@ public enum Command {
 
         // Extract the first word from input (command)
         String[] words = input.trim().split("\\s+", 2); // Split on first space only
-        String command = words[0].toLowerCase(); // Normalize to lowercase
+        Command command = BY_KEYWORD.getOrDefault(words[0].toLowerCase(), UNKNOWN);
 
-        switch (command) {
-        case "list":
-            // If a second word is present and is a valid date, classify as LIST_DATE
-            if (words.length > 1 && DATE_PATTERN.matcher(words[1]).matches()) {
-                return LIST_DATE;
-            }
-            return LIST;
-        case "sort":
-            return SORT;
-        case "mark":
-            return MARK;
-        case "unmark":
-            return UNMARK;
-        case "delete":
-            return DELETE;
-        case "todo":
-            return TODO;
-        case "deadline":
-            return DEADLINE;
-        case "event":
-            return EVENT;
-        case "find":
-            return FIND;
-        case "bye":
-            return EXIT;
-        default:
-            return UNKNOWN;
+        // If a second word is present and is a valid date, classify as LIST_DATE
+        if (command == LIST && words.length > 1 && DATE_PATTERN.matcher(words[1]).matches()) {
+            return LIST_DATE;
+        }
+        // "archive list" and "archive find KEYWORD" only read the archive
+        if (command == ARCHIVE && words.length > 1) {
+            String subcommand = words[1].split("\\s+", 2)[0].toLowerCase();
+            return subcommand.equals("list") || subcommand.equals("find") ? ARCHIVE_FIND : UNKNOWN;
         }
+        return command;
     }
 }
 
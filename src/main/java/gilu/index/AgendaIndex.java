@@ -0,0 +1,199 @@
+package gilu.index;
+
+import java.time.LocalDate;
+
+import gilu.task.Deadline;
+import gilu.task.Event;
+import gilu.task.Task;
+
+/**
+ * Counts pending deadlines and events by day, so that agendas and range counts never look at individual tasks.
+ *
+ * <p>Deadlines are counted on the day they are due. An event is counted on every day from the day it starts
+ * to the day it ends; rather than adding it to each of those days, its start and end days are counted in
+ * two separate trees. Each tree is a Fenwick tree over days, so adding or removing a task and counting
+ * the tasks in a range of days all take O(log D) time for D days. Todos and done tasks are not counted.</p>
+ */
+public class AgendaIndex {
+    private final DayTree deadlines = new DayTree();
+    private final DayTree eventStarts = new DayTree();
+    private final DayTree eventEnds = new DayTree();
+
+    /**
+     * Counts a task, if it is a deadline or an event.
+     *
+     * @param task The task to count.
+     */
+    public void add(Task task) {
+        update(task, 1);
+    }
+
+    /**
+     * Stops counting a task that was added before.
+     *
+     * @param task The task to remove.
+     */
+    public void remove(Task task) {
+        update(task, -1);
+    }
+
+    /**
+     * Removes every task from the index.
+     */
+    public void clear() {
+        deadlines.clear();
+        eventStarts.clear();
+        eventEnds.clear();
+    }
+
+    /**
+     * Counts the deadlines due between two days.
+     *
+     * @param from The first day.
+     * @param to   The last day, inclusive.
+     * @return The number of deadlines due on any of the days.
+     */
+    public int countDeadlines(LocalDate from, LocalDate to) {
+        return deadlines.countUpTo(to.toEpochDay()) - deadlines.countUpTo(from.toEpochDay() - 1);
+    }
+
+    /**
+     * Counts the events that take place on at least one day between two days.
+     *
+     * @param from The first day.
+     * @param to   The last day, inclusive.
+     * @return The number of events that start on or before the last day and end on or after the first.
+     */
+    public int countEvents(LocalDate from, LocalDate to) {
+        return eventStarts.countUpTo(to.toEpochDay()) - eventEnds.countUpTo(from.toEpochDay() - 1);
+    }
+
+    /**
+     * Counts the deadlines due on each of a range of days.
+     *
+     * @param from The first day.
+     * @param days The number of days.
+     * @return The number of deadlines due on each day, starting with the first.
+     */
+    public int[] countDeadlinesPerDay(LocalDate from, int days) {
+        int[] counts = new int[days];
+        long first = from.toEpochDay();
+        int before = deadlines.countUpTo(first - 1);
+        for (int i = 0; i < days; i++) {
+            int upTo = deadlines.countUpTo(first + i);
+            counts[i] = upTo - before;
+            before = upTo;
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the events taking place on each of a range of days.
+     *
+     * @param from The first day.
+     * @param days The number of days.
+     * @return The number of events on each day, starting with the first.
+     */
+    public int[] countEventsPerDay(LocalDate from, int days) {
+        int[] counts = new int[days];
+        long first = from.toEpochDay();
+        for (int i = 0; i < days; i++) {
+            // Events that have started by this day, less those that ended before it
+            counts[i] = eventStarts.countUpTo(first + i) - eventEnds.countUpTo(first + i - 1);
+        }
+        return counts;
+    }
+
+    private void update(Task task, int delta) {
+        if (task instanceof Deadline) {
+            deadlines.add(((Deadline) task).getBy().toLocalDate().toEpochDay(), delta);
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            long start = event.getFrom().toLocalDate().toEpochDay();
+            long end = event.getTo().toLocalDate().toEpochDay();
+            eventStarts.add(start, delta);
+            eventEnds.add(Math.max(start, end), delta); // An event that ends before it starts takes its first day
+        }
+    }
+
+    /**
+     * Counts tasks by epoch day in a Fenwick tree. The tree covers a window of days that is doubled
+     * whenever a task falls outside it, so it only grows O(log D) times.
+     */
+    private static class DayTree {
+        private static final int INITIAL_DAYS = 1024;
+
+        /**
+         * Partial sums, where {@code tree[i]} covers the {@code i & -i} days up to day {@code firstDay + i - 1}.
+         * The first element is unused.
+         */
+        private int[] tree = new int[1];
+        private long firstDay;
+        private int total;
+
+        void add(long day, int delta) {
+            if (day < firstDay || day >= firstDay + tree.length - 1) {
+                grow(day);
+            }
+            for (int i = (int) (day - firstDay) + 1; i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+            total += delta;
+        }
+
+        /**
+         * Counts the tasks on or before a day.
+         */
+        int countUpTo(long day) {
+            if (day < firstDay) {
+                return 0;
+            }
+            if (day >= firstDay + tree.length - 1) {
+                return total;
+            }
+            int count = 0;
+            for (int i = (int) (day - firstDay) + 1; i > 0; i -= i & -i) {
+                count += tree[i];
+            }
+            return count;
+        }
+
+        void clear() {
+            tree = new int[1];
+            firstDay = 0;
+            total = 0;
+        }
+
+        /**
+         * Widens the window to cover a day, with as much room again to spare, keeping every count.
+         */
+        private void grow(long day) {
+            int days = tree.length - 1;
+            long from = days == 0 ? day : Math.min(firstDay, day);
+            long to = days == 0 ? day + 1 : Math.max(firstDay + days, day + 1);
+            long newDays = Math.max(INITIAL_DAYS, 2 * (to - from));
+            long newFirstDay = from - (newDays - (to - from)) / 2;
+
+            // Undo the partial sums, last first, to get the count of each day back
+            int[] counts = tree;
+            for (int i = days; i > 0; i--) {
+                int parent = i + (i & -i);
+                if (parent <= days) {
+                    counts[parent] -= counts[i];
+                }
+            }
+            int[] grown = new int[(int) newDays + 1];
+            if (days > 0) {
+                System.arraycopy(counts, 1, grown, (int) (firstDay - newFirstDay) + 1, days);
+            }
+            for (int i = 1; i < grown.length; i++) {
+                int parent = i + (i & -i);
+                if (parent < grown.length) {
+                    grown[parent] += grown[i];
+                }
+            }
+            tree = grown;
+            firstDay = newFirstDay;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package gilu.index;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import gilu.task.Deadline;
+import gilu.task.Event;
+import gilu.task.Task;
+
+/**
+ * Counts tasks by their type, description and dates, so that adding a task that is already in the list
+ * can be spotted in constant time.
+ *
+ * <p>Descriptions are compared ignoring case and extra whitespace, so "Submit  Report" duplicates
+ * "submit report". Whether a task is done does not matter. Only a 64-bit hash of each key is kept, so the
+ * index holds no copy of the descriptions; two different tasks share a hash with negligible probability.</p>
+ */
+public class DuplicateIndex {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Map<Long, Integer> counts = new HashMap<>();
+    private int duplicateCount;
+
+    /**
+     * Returns the key that a task and all of its duplicates share.
+     *
+     * @param task The task.
+     * @return The normalized type, description and dates of the task.
+     */
+    public static String keyOf(Task task) {
+        StringBuilder key = new StringBuilder(task.getDescription().length() + 40);
+        if (task instanceof Deadline) {
+            key.append("D|").append(((Deadline) task).getBy());
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            key.append("E|").append(event.getFrom()).append('|').append(event.getTo());
+        } else {
+            key.append("T|");
+        }
+        key.append('|');
+        boolean isSpace = false;
+        for (String word : task.getDescription().trim().toLowerCase(Locale.ROOT).split("\\s+")) {
+            if (isSpace) {
+                key.append(' ');
+            }
+            key.append(word);
+            isSpace = true;
+        }
+        return key.toString();
+    }
+
+    /**
+     * Hashes the key of a task with 64-bit FNV-1a.
+     */
+    private static long hashOf(Task task) {
+        String key = keyOf(task);
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Adds a task to the index.
+     *
+     * @param task The task to add.
+     */
+    public void add(Task task) {
+        if (counts.merge(hashOf(task), 1, Integer::sum) > 1) {
+            duplicateCount++;
+        }
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param task The task to remove.
+     */
+    public void remove(Task task) {
+        long key = hashOf(task);
+        Integer count = counts.get(key);
+        if (count == null) {
+            return;
+        }
+        if (count == 1) {
+            counts.remove(key);
+        } else {
+            counts.put(key, count - 1);
+            duplicateCount--;
+        }
+    }
+
+    /**
+     * Removes every task from the index.
+     */
+    public void clear() {
+        counts.clear();
+        duplicateCount = 0;
+    }
+
+    /**
+     * Returns whether the index holds a task with the same type, description and dates.
+     *
+     * @param task The task to look for, which need not be indexed.
+     * @return true if an equivalent task is indexed.
+     */
+    public boolean contains(Task task) {
+        return counts.containsKey(hashOf(task));
+    }
+
+    /**
+     * Returns how many indexed tasks duplicate an earlier one.
+     *
+     * @return The number of tasks that a dedupe would remove.
+     */
+    public int getDuplicateCount() {
+        return duplicateCount;
+    }
+}
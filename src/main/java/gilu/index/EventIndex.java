@@ -0,0 +1,236 @@
+package gilu.index;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import gilu.task.Event;
+
+/**
+ * Indexes events by their time span, so that overlapping events can be found without scanning every event.
+ *
+ * <p>Events are kept in a treap ordered by start time, where every node also records the latest end
+ * time in its subtree. Looking up the events that overlap a span takes O(log n + k) expected time
+ * for k results. Two events overlap when each starts before the other ends, so events that only
+ * touch, such as one ending at 10:00 and the next starting at 10:00, do not clash.</p>
+ */
+public class EventIndex {
+    private final Map<Event, Node> nodes = new IdentityHashMap<>();
+    private final Random random = new Random();
+    private Node root;
+    private long nextId;
+
+    /**
+     * Adds an event to the index. Adding an event that is already indexed has no effect.
+     *
+     * @param event The event to add.
+     */
+    public void add(Event event) {
+        if (nodes.containsKey(event)) {
+            return;
+        }
+        Node node = new Node(event, nextId++, random.nextInt());
+        nodes.put(event, node);
+        root = insert(root, node);
+    }
+
+    /**
+     * Removes an event from the index, if it is indexed.
+     *
+     * @param event The event to remove.
+     */
+    public void remove(Event event) {
+        Node node = nodes.remove(event);
+        if (node != null) {
+            root = delete(root, node);
+        }
+    }
+
+    /**
+     * Removes every event from the index.
+     */
+    public void clear() {
+        nodes.clear();
+        root = null;
+    }
+
+    /**
+     * Returns the number of indexed events.
+     *
+     * @return The number of events.
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Finds the indexed events that overlap the given span, in order of start time.
+     *
+     * @param from The start of the span.
+     * @param to   The end of the span.
+     * @return The overlapping events.
+     */
+    public List<Event> findOverlapping(LocalDateTime from, LocalDateTime to) {
+        List<Event> overlapping = new ArrayList<>();
+        collectOverlapping(root, toSeconds(from), toSeconds(to), overlapping::add);
+        return overlapping;
+    }
+
+    /**
+     * Reports every pair of overlapping events with a sweep over the events in start order,
+     * in O(n log n + k) time for k pairs. The earlier-starting event of each pair comes first.
+     *
+     * @param consumer Receives each overlapping pair.
+     * @return The number of overlapping pairs.
+     */
+    public int forEachConflict(BiConsumer<Event, Event> consumer) {
+        PriorityQueue<Node> active = new PriorityQueue<>((a, b) -> Long.compare(a.to, b.to));
+        int[] count = new int[1];
+        forEachInOrder(root, node -> {
+            while (!active.isEmpty() && active.peek().to <= node.from) {
+                active.remove(); // Ended before this event starts
+            }
+            for (Node other : active) {
+                if (node.from < other.to && other.from < node.to) {
+                    consumer.accept(other.event, node.event);
+                    count[0]++;
+                }
+            }
+            active.add(node);
+        });
+        return count[0];
+    }
+
+    private static long toSeconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static void collectOverlapping(Node node, long from, long to, Consumer<Event> consumer) {
+        if (node == null || node.maxTo <= from) {
+            return; // Everything in this subtree ends before the span starts
+        }
+        collectOverlapping(node.left, from, to, consumer);
+        if (node.from >= to) {
+            return; // This event and everything to its right start after the span ends
+        }
+        if (node.to > from) {
+            consumer.accept(node.event);
+        }
+        collectOverlapping(node.right, from, to, consumer);
+    }
+
+    private static void forEachInOrder(Node node, Consumer<Node> consumer) {
+        if (node != null) {
+            forEachInOrder(node.left, consumer);
+            consumer.accept(node);
+            forEachInOrder(node.right, consumer);
+        }
+    }
+
+    private static Node insert(Node root, Node node) {
+        if (root == null) {
+            return node;
+        }
+        if (node.compareTo(root) < 0) {
+            root.left = insert(root.left, node);
+            if (root.left.priority > root.priority) {
+                root = rotateRight(root);
+            }
+        } else {
+            root.right = insert(root.right, node);
+            if (root.right.priority > root.priority) {
+                root = rotateLeft(root);
+            }
+        }
+        root.update();
+        return root;
+    }
+
+    private static Node delete(Node root, Node node) {
+        if (root == null) {
+            return null;
+        }
+        int comparison = node.compareTo(root);
+        if (comparison < 0) {
+            root.left = delete(root.left, node);
+        } else if (comparison > 0) {
+            root.right = delete(root.right, node);
+        } else if (root.left == null) {
+            return root.right;
+        } else if (root.right == null) {
+            return root.left;
+        } else if (root.left.priority > root.right.priority) {
+            root = rotateRight(root);
+            root.right = delete(root.right, node);
+        } else {
+            root = rotateLeft(root);
+            root.left = delete(root.left, node);
+        }
+        root.update();
+        return root;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.update();
+        left.update();
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.update();
+        right.update();
+        return right;
+    }
+
+    /**
+     * Holds one event, ordered by start time and then by insertion order.
+     */
+    private static class Node implements Comparable<Node> {
+        private final Event event;
+        private final long from;
+        private final long to;
+        private final long id;
+        private final int priority;
+        private long maxTo;
+        private Node left;
+        private Node right;
+
+        Node(Event event, long id, int priority) {
+            this.event = event;
+            this.from = toSeconds(event.getFrom());
+            this.to = toSeconds(event.getTo());
+            this.id = id;
+            this.priority = priority;
+            this.maxTo = to;
+        }
+
+        void update() {
+            maxTo = to;
+            if (left != null && left.maxTo > maxTo) {
+                maxTo = left.maxTo;
+            }
+            if (right != null && right.maxTo > maxTo) {
+                maxTo = right.maxTo;
+            }
+        }
+
+        @Override
+        public int compareTo(Node other) {
+            int comparison = Long.compare(from, other.from);
+            return comparison != 0 ? comparison : Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,464 @@
+package gilu.index;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+import gilu.task.Task;
+
+/**
+ * Finds tasks whose descriptions contain words close to the words of a query, allowing for typos.
+ *
+ * <p>Descriptions are split into lowercase words. Every distinct word is indexed by its trigrams,
+ * so that a query word is only compared with words that share enough trigrams with it to be within
+ * the allowed edit distance. Those few candidates are then checked with a bounded Levenshtein
+ * distance, so the cost of a query depends on the vocabulary it touches, not on the number of tasks.</p>
+ *
+ * <p>An index read back from an {@link IndexSidecar} keeps the tasks of each word in the mapped file
+ * and only turns them into a set when the word is first used.</p>
+ */
+public class FuzzyIndex {
+    private final Map<String, Set<Task>> tasksByWord = new HashMap<>();
+    private final Map<String, Set<String>> wordsByTrigram = new HashMap<>();
+
+    /**
+     * Words read from a sidecar whose tasks are still in the mapped file, with the offset of their postings.
+     */
+    private final Map<String, Integer> mappedWords = new HashMap<>();
+    private ByteBuffer mappedPostings;
+    private Task[] mappedTasks;
+
+    /**
+     * Builds an index over the given tasks.
+     *
+     * @param tasks The tasks to index.
+     * @return The new index.
+     */
+    public static FuzzyIndex build(List<Task> tasks) {
+        FuzzyIndex index = new FuzzyIndex();
+        for (Task task : tasks) {
+            index.add(task);
+        }
+        return index;
+    }
+
+    /**
+     * Adds a task's description words to the index.
+     *
+     * @param task The task to add.
+     */
+    public void add(Task task) {
+        for (String word : words(task.getDescription())) {
+            Set<Task> tasks = tasksOf(word);
+            if (tasks == null) {
+                tasks = Collections.newSetFromMap(new IdentityHashMap<>(4));
+                tasksByWord.put(word, tasks);
+                for (String trigram : trigrams(word)) {
+                    wordsByTrigram.computeIfAbsent(trigram, key -> new HashSet<>()).add(word);
+                }
+            }
+            tasks.add(task);
+        }
+    }
+
+    /**
+     * Removes a task from the index, dropping words that no other task uses.
+     *
+     * @param task The task to remove.
+     */
+    public void remove(Task task) {
+        for (String word : words(task.getDescription())) {
+            Set<Task> tasks = tasksOf(word);
+            if (tasks == null || !tasks.remove(task) || !tasks.isEmpty()) {
+                continue;
+            }
+            tasksByWord.remove(word);
+            for (String trigram : trigrams(word)) {
+                Set<String> words = wordsByTrigram.get(trigram);
+                words.remove(word);
+                if (words.isEmpty()) {
+                    wordsByTrigram.remove(trigram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes every task from the index.
+     */
+    public void clear() {
+        tasksByWord.clear();
+        wordsByTrigram.clear();
+        releaseMapping();
+    }
+
+    /**
+     * Finds the tasks that contain a close match for every word of the query, most similar first.
+     * A word of up to 2 letters must match exactly, up to 5 letters may have 1 typo, and longer words 2.
+     *
+     * @param query The words to look for.
+     * @return The matching tasks, ranked by similarity.
+     */
+    public List<Task> search(String query) {
+        List<String> queryWords = words(query);
+        if (queryWords.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // For each query word, the indexed words close enough to it, with their similarity
+        List<Map<String, Double>> matches = new ArrayList<>();
+        int rarest = 0;
+        long rarestCount = Long.MAX_VALUE;
+        for (String queryWord : queryWords) {
+            Map<String, Double> similarWords = findSimilarWords(queryWord);
+            if (similarWords.isEmpty()) {
+                return new ArrayList<>();
+            }
+            long count = 0;
+            for (String word : similarWords.keySet()) {
+                count += countTasks(word);
+            }
+            if (count < rarestCount) {
+                rarest = matches.size();
+                rarestCount = count;
+            }
+            matches.add(similarWords);
+        }
+
+        // Start from the query word with the fewest tasks, and keep tasks that match every other word too
+        Set<Task> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (String word : matches.get(rarest).keySet()) {
+            candidates.addAll(tasksOf(word));
+        }
+        List<ScoredTask> scored = new ArrayList<>();
+        for (Task task : candidates) {
+            double score = score(words(task.getDescription()), matches);
+            if (score > 0) {
+                scored.add(new ScoredTask(task, score));
+            }
+        }
+        return rank(scored);
+    }
+
+    /**
+     * Finds the same tasks as {@link #search(String)} by checking every task, for use while no index is
+     * available. Each distinct word is compared with the query only once.
+     *
+     * @param query The words to look for.
+     * @param tasks The tasks to check.
+     * @return The matching tasks, ranked by similarity.
+     */
+    public static List<Task> scan(String query, List<Task> tasks) {
+        List<String> queryWords = words(query);
+        if (queryWords.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // For each query word, the similarity of every word seen so far, 0 if it is not close enough
+        List<Map<String, Double>> matches = new ArrayList<>();
+        for (int i = 0; i < queryWords.size(); i++) {
+            matches.add(new HashMap<>());
+        }
+        List<ScoredTask> scored = new ArrayList<>();
+        for (Task task : tasks) {
+            List<String> taskWords = words(task.getDescription());
+            for (int i = 0; i < queryWords.size(); i++) {
+                String queryWord = queryWords.get(i);
+                for (String word : taskWords) {
+                    matches.get(i).computeIfAbsent(word, candidate -> similarity(queryWord, candidate));
+                }
+            }
+            double score = score(taskWords, matches);
+            if (score > 0) {
+                scored.add(new ScoredTask(task, score));
+            }
+        }
+        return rank(scored);
+    }
+
+    /**
+     * Writes every word with the positions of its tasks, for {@link #readPostings(ByteBuffer, Task[])}.
+     *
+     * @param output     The output to write to.
+     * @param positionOf Returns the position of an indexed task in the list being saved.
+     * @throws IOException If the output cannot be written.
+     */
+    void writePostings(DataOutput output, ToIntFunction<Task> positionOf) throws IOException {
+        for (String word : new ArrayList<>(mappedWords.keySet())) {
+            tasksOf(word); // Positions in the mapped file may no longer match the list
+        }
+        output.writeInt(tasksByWord.size());
+        for (Map.Entry<String, Set<Task>> entry : tasksByWord.entrySet()) {
+            byte[] word = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            output.writeShort(word.length);
+            output.write(word);
+            output.writeInt(entry.getValue().size());
+            for (Task task : entry.getValue()) {
+                output.writeInt(positionOf.applyAsInt(task));
+            }
+        }
+    }
+
+    /**
+     * Reads an index written by {@link #writePostings(DataOutput, ToIntFunction)}. Only the words are
+     * read now; the tasks of a word are read from the buffer when the word is first used.
+     *
+     * @param postings The postings, starting at the current position of the buffer.
+     * @param tasks    The tasks in the positions they had when the postings were written.
+     * @return The index.
+     * @throws IllegalArgumentException If the postings are truncated.
+     */
+    static FuzzyIndex readPostings(ByteBuffer postings, Task[] tasks) {
+        FuzzyIndex index = new FuzzyIndex();
+        int wordCount = postings.getInt();
+        for (int i = 0; i < wordCount; i++) {
+            byte[] bytes = new byte[postings.getShort() & 0xFFFF];
+            postings.get(bytes);
+            String word = new String(bytes, StandardCharsets.UTF_8);
+            int offset = postings.position();
+            int count = postings.getInt();
+            if (count < 0 || count > postings.remaining() / Integer.BYTES) {
+                throw new IllegalArgumentException("Postings of \"" + word + "\" are truncated");
+            }
+            postings.position(offset + Integer.BYTES * (count + 1));
+            index.mappedWords.put(word, offset);
+            for (String trigram : trigrams(word)) {
+                index.wordsByTrigram.computeIfAbsent(trigram, key -> new HashSet<>()).add(word);
+            }
+        }
+        index.mappedPostings = postings;
+        index.mappedTasks = tasks;
+        return index;
+    }
+
+    /**
+     * Returns the tasks that use a word, reading them from the mapped file if they are still there.
+     *
+     * @return The tasks, or null if no task uses the word.
+     */
+    private Set<Task> tasksOf(String word) {
+        Set<Task> tasks = tasksByWord.get(word);
+        if (tasks != null || mappedPostings == null) {
+            return tasks;
+        }
+        Integer offset = mappedWords.remove(word);
+        if (offset == null) {
+            return null;
+        }
+        int count = mappedPostings.getInt(offset);
+        tasks = Collections.newSetFromMap(new IdentityHashMap<>(Math.max(4, count * 2)));
+        for (int i = 1; i <= count; i++) {
+            int position = mappedPostings.getInt(offset + Integer.BYTES * i);
+            if (position >= 0 && position < mappedTasks.length) {
+                tasks.add(mappedTasks[position]);
+            }
+        }
+        tasksByWord.put(word, tasks);
+        if (mappedWords.isEmpty()) {
+            releaseMapping();
+        }
+        return tasks;
+    }
+
+    private int countTasks(String word) {
+        Set<Task> tasks = tasksByWord.get(word);
+        if (tasks != null) {
+            return tasks.size();
+        }
+        Integer offset = mappedWords.get(word);
+        return offset == null ? 0 : mappedPostings.getInt(offset);
+    }
+
+    private void releaseMapping() {
+        mappedWords.clear();
+        mappedPostings = null;
+        mappedTasks = null;
+    }
+
+    private static List<Task> rank(List<ScoredTask> scored) {
+        scored.sort((a, b) -> a.score != b.score ? Double.compare(b.score, a.score)
+                : a.task.getDescription().compareTo(b.task.getDescription()));
+
+        List<Task> ranked = new ArrayList<>(scored.size());
+        for (ScoredTask scoredTask : scored) {
+            ranked.add(scoredTask.task);
+        }
+        return ranked;
+    }
+
+    /**
+     * Sums, over the query words, the best similarity of any of the task's words, or returns 0
+     * if some query word has no match in the task.
+     */
+    private static double score(List<String> taskWords, List<Map<String, Double>> matches) {
+        double total = 0;
+        for (Map<String, Double> similarWords : matches) {
+            double best = 0;
+            for (String word : taskWords) {
+                best = Math.max(best, similarWords.getOrDefault(word, 0.0));
+            }
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private Map<String, Double> findSimilarWords(String queryWord) {
+        int maxEdits = maxEdits(queryWord);
+        Map<String, Double> similarWords = new HashMap<>();
+        if (maxEdits == 0) {
+            if (tasksByWord.containsKey(queryWord) || mappedWords.containsKey(queryWord)) {
+                similarWords.put(queryWord, 1.0);
+            }
+            return similarWords;
+        }
+
+        // Each edit changes at most 3 trigrams, so closer words must share the rest
+        List<String> queryTrigrams = trigrams(queryWord);
+        int minShared = queryTrigrams.size() - 3 * maxEdits;
+        if (minShared <= 0) {
+            // Short words can be close without sharing any trigram, so every word is a candidate
+            addSimilarWords(queryWord, tasksByWord.keySet(), similarWords);
+            addSimilarWords(queryWord, mappedWords.keySet(), similarWords);
+            return similarWords;
+        }
+        Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            for (String word : wordsByTrigram.getOrDefault(trigram, Collections.emptySet())) {
+                if (Math.abs(word.length() - queryWord.length()) <= maxEdits) {
+                    shared.merge(word, 1, Integer::sum);
+                }
+            }
+        }
+        for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+            if (entry.getValue() < minShared) {
+                continue;
+            }
+            double similarity = similarity(queryWord, entry.getKey());
+            if (similarity > 0) {
+                similarWords.put(entry.getKey(), similarity);
+            }
+        }
+        return similarWords;
+    }
+
+    /**
+     * Adds the words that are close enough to the query word, with their similarity.
+     */
+    private static void addSimilarWords(String queryWord, Set<String> words, Map<String, Double> similarWords) {
+        for (String word : words) {
+            double similarity = similarity(queryWord, word); // Words of a different length are rejected first
+            if (similarity > 0) {
+                similarWords.put(word, similarity);
+            }
+        }
+    }
+
+    private static int maxEdits(String queryWord) {
+        return queryWord.length() <= 2 ? 0 : queryWord.length() <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Returns how similar a word is to a query word, from 1 for the same word down to 0 for a word
+     * that needs more edits than the query word allows.
+     */
+    private static double similarity(String queryWord, String word) {
+        int maxEdits = maxEdits(queryWord);
+        if (Math.abs(word.length() - queryWord.length()) > maxEdits) {
+            return 0;
+        }
+        int distance = boundedDistance(queryWord, word, maxEdits);
+        return distance > maxEdits ? 0 : 1.0 - (double) distance / Math.max(word.length(), queryWord.length());
+    }
+
+    /**
+     * Computes the Levenshtein distance between two words, giving up once it must exceed the limit.
+     *
+     * @return The distance, or {@code limit + 1} if it is greater than the limit.
+     */
+    static int boundedDistance(String a, String b, int limit) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], limit + 1);
+    }
+
+    /**
+     * Splits text into distinct lowercase words of letters and digits.
+     */
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean isWordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (isWordChar && start < 0) {
+                start = i;
+            } else if (!isWordChar && start >= 0) {
+                String word = text.substring(start, i).toLowerCase();
+                if (!words.contains(word)) {
+                    words.add(word);
+                }
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Returns the distinct trigrams of a word padded with one boundary marker on each side, so a word
+     * of n letters has up to n trigrams and its first and last letters count as much as the others.
+     */
+    private static List<String> trigrams(String word) {
+        String padded = "$" + word + "$";
+        List<String> trigrams = new ArrayList<>(word.length());
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            String trigram = padded.substring(i, i + 3);
+            if (!trigrams.contains(trigram)) {
+                trigrams.add(trigram);
+            }
+        }
+        return trigrams;
+    }
+
+    /**
+     * Pairs a task with its similarity to the query.
+     */
+    private static class ScoredTask {
+        private final Task task;
+        private final double score;
+
+        ScoredTask(Task task, double score) {
+            this.task = task;
+            this.score = score;
+        }
+    }
+}
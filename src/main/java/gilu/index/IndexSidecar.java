@@ -0,0 +1,146 @@
+package gilu.index;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+import gilu.task.Task;
+
+/**
+ * Saves a {@link FuzzyIndex} to a file next to the task storage, so that the next start can map it
+ * back in instead of building it again.
+ *
+ * <p>The file is stamped with the length, modification time and checksum of the storage file it was
+ * built from. An index file whose stamp does not match the storage file is never used.</p>
+ */
+public final class IndexSidecar {
+    private static final int MAGIC = 0x47494458; // "GIDX"
+    private static final int FORMAT_VERSION = 1;
+    private static final int CHECKSUM_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    private IndexSidecar() {
+    }
+
+    /**
+     * Stamps a storage file with its current length, modification time and CRC-32C checksum.
+     *
+     * @param dataFile The storage file.
+     * @return The stamp, or null if the file does not exist.
+     * @throws IOException If the file cannot be read.
+     */
+    public static Stamp stamp(Path dataFile) throws IOException {
+        if (!Files.exists(dataFile)) {
+            return null;
+        }
+        CRC32C checksum = new CRC32C();
+        try (FileChannel channel = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+            long length = channel.size();
+            for (long offset = 0; offset < length; offset += CHECKSUM_CHUNK_SIZE) {
+                checksum.update(channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                        Math.min(CHECKSUM_CHUNK_SIZE, length - offset)));
+            }
+            return new Stamp(length, Files.getLastModifiedTime(dataFile).toMillis(), checksum.getValue());
+        }
+    }
+
+    /**
+     * Writes an index with the stamp of the storage file that holds the given tasks.
+     * The file is written next to its final location and moved into place.
+     *
+     * @param sidecar The index file to write.
+     * @param stamp   The stamp of the storage file.
+     * @param index   The index of the tasks.
+     * @param tasks   The tasks, in storage order.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(Path sidecar, Stamp stamp, FuzzyIndex index, List<Task> tasks) throws IOException {
+        Map<Task, Integer> positions = new IdentityHashMap<>(tasks.size() * 2);
+        for (int i = 0; i < tasks.size(); i++) {
+            positions.put(tasks.get(i), i);
+        }
+        Path temporary = sidecar.resolveSibling(sidecar.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(temporary.toFile()), 64 * 1024))) {
+            output.writeInt(MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            output.writeLong(stamp.length);
+            output.writeLong(stamp.modifiedMillis);
+            output.writeLong(stamp.checksum);
+            output.writeInt(tasks.size());
+            index.writePostings(output, positions::get);
+        }
+        Files.move(temporary, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps an index file back in, if it was written for the storage file as it is now.
+     *
+     * @param sidecar The index file.
+     * @param stamp   The current stamp of the storage file.
+     * @param tasks   The tasks loaded from the storage file, in storage order.
+     * @return The index, or null if the file is missing, stale or unreadable.
+     * @throws IOException If the file cannot be mapped.
+     */
+    public static FuzzyIndex read(Path sidecar, Stamp stamp, List<Task> tasks) throws IOException {
+        if (stamp == null || !Files.exists(sidecar)) {
+            return null;
+        }
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(sidecar, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION
+                    || !stamp.equals(new Stamp(buffer.getLong(), buffer.getLong(), buffer.getLong()))
+                    || buffer.getInt() != tasks.size()) {
+                return null;
+            }
+            ByteBuffer postings = buffer.slice();
+            return FuzzyIndex.readPostings(postings, tasks.toArray(new Task[0]));
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Identifies one version of a storage file.
+     */
+    public static class Stamp {
+        private final long length;
+        private final long modifiedMillis;
+        private final long checksum;
+
+        Stamp(long length, long modifiedMillis, long checksum) {
+            this.length = length;
+            this.modifiedMillis = modifiedMillis;
+            this.checksum = checksum;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Stamp)) {
+                return false;
+            }
+            Stamp stamp = (Stamp) other;
+            return length == stamp.length && modifiedMillis == stamp.modifiedMillis && checksum == stamp.checksum;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(length) * 31 + Long.hashCode(checksum);
+        }
+    }
+}
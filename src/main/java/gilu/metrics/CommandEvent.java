@@ -0,0 +1,39 @@
+package gilu.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for one call of {@code Parser.executeCommand}.
+ */
+@Name("gilu.Command")
+@Label("Command")
+@Category("Gilu")
+@Description("Parsing and executing one user command")
+public class CommandEvent extends Event {
+    @Label("Command")
+    private String command;
+
+    @Label("List Size")
+    @Description("Number of tasks after the command ran")
+    private int listSize;
+
+    @Label("Response Length")
+    @Description("Number of characters in the response")
+    private int responseLength;
+
+    public void setCommand(String command) {
+        this.command = command;
+    }
+
+    public void setListSize(int listSize) {
+        this.listSize = listSize;
+    }
+
+    public void setResponseLength(int responseLength) {
+        this.responseLength = responseLength;
+    }
+}
@@ -0,0 +1,109 @@
+package gilu.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+
+import gilu.command.Command;
+
+/**
+ * Keeps a latency histogram for every command and phase.
+ */
+public class CommandMetrics {
+    private final Map<Command, LatencyHistogram[]> histograms = new EnumMap<>(Command.class);
+    private final Map<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+
+    /**
+     * Constructs a CommandMetrics object with empty histograms for every command.
+     */
+    public CommandMetrics() {
+        for (Command command : Command.values()) {
+            LatencyHistogram[] phases = new LatencyHistogram[Phase.values().length];
+            for (int i = 0; i < phases.length; i++) {
+                phases[i] = new LatencyHistogram();
+            }
+            histograms.put(command, phases);
+        }
+    }
+
+    /**
+     * Records the phases of one command. The persist and render times are taken from the
+     * {@link PhaseClock} of the current thread, and the rest of the dispatch time counts as execute time.
+     *
+     * @param command       The command that ran.
+     * @param parseNanos    The time spent parsing the input.
+     * @param dispatchNanos The time spent running the command after parsing.
+     */
+    public void record(Command command, long parseNanos, long dispatchNanos) {
+        LatencyHistogram[] phases = histograms.get(command);
+        long persistNanos = PhaseClock.elapsed(Phase.PERSIST);
+        long renderNanos = PhaseClock.elapsed(Phase.RENDER);
+        phases[Phase.PARSE.ordinal()].record(parseNanos);
+        phases[Phase.EXECUTE.ordinal()].record(dispatchNanos - persistNanos - renderNanos);
+        phases[Phase.PERSIST.ordinal()].record(persistNanos);
+        phases[Phase.RENDER.ordinal()].record(renderNanos);
+        phases[Phase.TOTAL.ordinal()].record(parseNanos + dispatchNanos);
+    }
+
+    /**
+     * Returns the histogram of a command's phase.
+     *
+     * @param command The command.
+     * @param phase   The phase.
+     * @return The histogram.
+     */
+    public LatencyHistogram getHistogram(Command command, Phase phase) {
+        return histograms.get(command)[phase.ordinal()];
+    }
+
+    /**
+     * Adds a named value to the report, read each time the report is made. A gauge with the same
+     * name replaces the previous one.
+     *
+     * @param name  The name shown in the report.
+     * @param gauge Supplies the current value.
+     */
+    public void registerGauge(String name, LongSupplier gauge) {
+        gauges.put(name, gauge);
+    }
+
+    /**
+     * Returns a table of p50/p90/p99/max latencies in microseconds for every command that has run.
+     *
+     * @return The formatted report.
+     */
+    public String getReport() {
+        StringBuilder report = new StringBuilder("Command latency in microseconds (p50 / p90 / p99 / max):\n");
+        boolean hasCommands = false;
+        for (Map.Entry<Command, LatencyHistogram[]> entry : histograms.entrySet()) {
+            LatencyHistogram total = entry.getValue()[Phase.TOTAL.ordinal()];
+            long count = total.getCount();
+            if (count == 0) {
+                continue;
+            }
+            hasCommands = true;
+            report.append(entry.getKey().name().toLowerCase()).append(" (").append(count).append(" runs)\n");
+            for (Phase phase : Phase.values()) {
+                appendPhase(report, phase, entry.getValue()[phase.ordinal()]);
+            }
+        }
+        if (!hasCommands) {
+            report.append("No commands have run yet.\n");
+        }
+        if (!gauges.isEmpty()) {
+            report.append("Gauges:\n");
+            for (Map.Entry<String, LongSupplier> gauge : gauges.entrySet()) {
+                report.append("  ").append(gauge.getKey()).append(' ')
+                        .append(gauge.getValue().getAsLong()).append('\n');
+            }
+        }
+        return report.toString();
+    }
+
+    private static void appendPhase(StringBuilder report, Phase phase, LatencyHistogram histogram) {
+        report.append(String.format("  %-8s %9.1f %9.1f %9.1f %9.1f%n", phase.name().toLowerCase(),
+                histogram.getPercentile(50) / 1000.0, histogram.getPercentile(90) / 1000.0,
+                histogram.getPercentile(99) / 1000.0, histogram.getMax() / 1000.0));
+    }
+}
@@ -0,0 +1,30 @@
+package gilu.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for building a derived index over all tasks from scratch.
+ */
+@Name("gilu.IndexRebuild")
+@Label("Index Rebuild")
+@Category("Gilu")
+@Description("Building a derived index by scanning every task")
+public class IndexRebuildEvent extends Event {
+    @Label("Index")
+    private String index;
+
+    @Label("Task Count")
+    private int taskCount;
+
+    public void setIndex(String index) {
+        this.index = index;
+    }
+
+    public void setTaskCount(int taskCount) {
+        this.taskCount = taskCount;
+    }
+}
@@ -0,0 +1,80 @@
+package gilu.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Periodically writes a metrics report to a local file, replacing the previous report.
+ */
+public class MetricsDumper {
+    private static final Logger LOGGER = Logger.getLogger(MetricsDumper.class.getName());
+
+    private final Path filePath;
+    private final Supplier<String> report;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a MetricsDumper.
+     *
+     * @param filePath The file the report is written to.
+     * @param report   Produces the report to write.
+     */
+    public MetricsDumper(String filePath, Supplier<String> report) {
+        this.filePath = Paths.get(filePath);
+        this.report = report;
+    }
+
+    /**
+     * Starts writing the report at a fixed interval on a daemon thread. Further calls have no effect.
+     *
+     * @param intervalSeconds The number of seconds between two reports.
+     */
+    public synchronized void start(long intervalSeconds) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gilu-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::dump, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops writing the report at an interval, if it was started.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Writes the report now. The file is replaced atomically so readers never see a partial report.
+     */
+    public void dump() {
+        try {
+            if (filePath.getParent() != null) {
+                Files.createDirectories(filePath.getParent());
+            }
+            Path tempPath = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+            Files.writeString(tempPath, "Metrics at " + LocalDateTime.now() + "\n" + report.get(),
+                    StandardCharsets.UTF_8);
+            Files.move(tempPath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warning("Error writing metrics: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package gilu.metrics;
+
+/**
+ * Represents the phases in which a command spends its time.
+ */
+public enum Phase {
+    PARSE, EXECUTE, PERSIST, RENDER, TOTAL
+}
@@ -0,0 +1,55 @@
+package gilu.metrics;
+
+/**
+ * Accumulates the time the current thread spends in the persist and render phases of a command.
+ * <p>
+ * Code that saves tasks or renders a response brackets that work with {@link #start()} and
+ * {@link #stop(Phase, long)}; the command dispatcher resets the clock before each command and
+ * reads it afterwards.
+ * </p>
+ */
+public final class PhaseClock {
+    private static final ThreadLocal<long[]> NANOS = ThreadLocal.withInitial(() -> new long[Phase.values().length]);
+
+    private PhaseClock() {
+    }
+
+    /**
+     * Returns the current time, to be passed to {@link #stop(Phase, long)}.
+     *
+     * @return The current value of {@link System#nanoTime()}.
+     */
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Adds the time elapsed since {@code startNanos} to the given phase.
+     *
+     * @param phase      The phase the time was spent in.
+     * @param startNanos The value returned by {@link #start()}.
+     */
+    public static void stop(Phase phase, long startNanos) {
+        NANOS.get()[phase.ordinal()] += System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Clears the accumulated time of the current thread.
+     */
+    public static void reset() {
+        long[] nanos = NANOS.get();
+        for (int i = 0; i < nanos.length; i++) {
+            nanos[i] = 0;
+        }
+    }
+
+    /**
+     * Returns the time the current thread spent in the given phase since the last reset.
+     *
+     * @param phase The phase.
+     * @return The accumulated time in nanoseconds.
+     */
+    public static long elapsed(Phase phase) {
+        return NANOS.get()[phase.ordinal()];
+    }
+}
@@ -0,0 +1,30 @@
+package gilu.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for a search-as-you-type that checks every task, rather than refining its last result.
+ */
+@Name("gilu.SearchScan")
+@Label("Search Scan")
+@Category("Gilu")
+@Description("Searching every task for the keyword being typed")
+public class SearchScanEvent extends Event {
+    @Label("Task Count")
+    private int taskCount;
+
+    @Label("Match Count")
+    private int matchCount;
+
+    public void setTaskCount(int taskCount) {
+        this.taskCount = taskCount;
+    }
+
+    public void setMatchCount(int matchCount) {
+        this.matchCount = matchCount;
+    }
+}
@@ -0,0 +1,46 @@
+package gilu.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for one load of the task file.
+ */
+@Name("gilu.StorageLoad")
+@Label("Storage Load")
+@Category({"Gilu", "Storage"})
+@Description("Reading and parsing the task file")
+public class StorageLoadEvent extends Event {
+    @Label("File")
+    private String file;
+
+    @Label("Bytes")
+    @DataAmount(DataAmount.BYTES)
+    private long bytes;
+
+    @Label("Line Count")
+    private int lineCount;
+
+    @Label("Succeeded")
+    private boolean isSucceeded;
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public void setLineCount(int lineCount) {
+        this.lineCount = lineCount;
+    }
+
+    public void setSucceeded(boolean isSucceeded) {
+        this.isSucceeded = isSucceeded;
+    }
+}
@@ -0,0 +1,55 @@
+package gilu.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for one save of the task file.
+ */
+@Name("gilu.StorageSave")
+@Label("Storage Save")
+@Category({"Gilu", "Storage"})
+@Description("Formatting and writing the task file, including the fsync")
+public class StorageSaveEvent extends Event {
+    @Label("File")
+    private String file;
+
+    @Label("Bytes")
+    @DataAmount(DataAmount.BYTES)
+    private long bytes;
+
+    @Label("Line Count")
+    private int lineCount;
+
+    @Label("Fsync Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long fsyncNanos;
+
+    @Label("Succeeded")
+    private boolean isSucceeded;
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public void setLineCount(int lineCount) {
+        this.lineCount = lineCount;
+    }
+
+    public void setFsyncNanos(long fsyncNanos) {
+        this.fsyncNanos = fsyncNanos;
+    }
+
+    public void setSucceeded(boolean isSucceeded) {
+        this.isSucceeded = isSucceeded;
+    }
+}
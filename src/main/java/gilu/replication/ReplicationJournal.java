@@ -0,0 +1,96 @@
+package gilu.replication;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import gilu.change.TaskChange;
+
+/**
+ * Keeps the most recent change records of a primary in a ring, indexed by version, so that a
+ * standby that reconnects can catch up from the version it last applied.
+ */
+class ReplicationJournal {
+    private static final Logger LOGGER = Logger.getLogger(ReplicationJournal.class.getName());
+
+    private final String[] records;
+
+    /**
+     * Version of the newest record, or the starting version if there is none.
+     */
+    private long lastVersion;
+
+    /**
+     * Version of the oldest record still kept.
+     */
+    private long firstVersion;
+
+    /**
+     * Constructs an empty journal.
+     *
+     * @param capacity    The number of records kept.
+     * @param baseVersion The list version before the first record.
+     */
+    ReplicationJournal(int capacity, long baseVersion) {
+        this.records = new String[capacity];
+        this.lastVersion = baseVersion;
+        this.firstVersion = baseVersion + 1;
+    }
+
+    /**
+     * Appends a batch of changes and wakes up the connections waiting for them.
+     */
+    synchronized void append(List<TaskChange> changes) {
+        long millis = System.currentTimeMillis();
+        for (TaskChange change : changes) {
+            if (change.getVersion() != lastVersion + 1) {
+                LOGGER.warning("Replication journal skipped from version " + lastVersion + " to "
+                        + change.getVersion() + ", standbys will resynchronise");
+                firstVersion = change.getVersion();
+            }
+            lastVersion = change.getVersion();
+            records[slot(lastVersion)] = ReplicationProtocol.encodeChange(change, millis);
+            firstVersion = Math.max(firstVersion, lastVersion - records.length + 1);
+        }
+        notifyAll();
+    }
+
+    /**
+     * Returns whether every record after the given version is still in the journal or yet to come.
+     */
+    synchronized boolean isCovering(long version) {
+        return version >= firstVersion - 1 && version <= lastVersion;
+    }
+
+    synchronized long getLastVersion() {
+        return lastVersion;
+    }
+
+    /**
+     * Returns the records after the given version, waiting for new ones if there are none yet.
+     *
+     * @param version       The last version the caller has.
+     * @param maxRecords    The most records to return.
+     * @param timeoutMillis The longest time to wait for a new record.
+     * @return The records, empty if none arrived in time, or null if some were dropped before being read.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    synchronized List<String> readAfter(long version, int maxRecords, long timeoutMillis)
+            throws InterruptedException {
+        if (version >= lastVersion) {
+            wait(timeoutMillis);
+        }
+        if (version < firstVersion - 1) {
+            return null;
+        }
+        List<String> batch = new ArrayList<>();
+        for (long next = version + 1; next <= lastVersion && batch.size() < maxRecords; next++) {
+            batch.add(records[slot(next)]);
+        }
+        return batch;
+    }
+
+    private int slot(long version) {
+        return (int) Math.floorMod(version, (long) records.length);
+    }
+}
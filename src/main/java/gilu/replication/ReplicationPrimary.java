@@ -0,0 +1,228 @@
+package gilu.replication;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.logging.Logger;
+
+import gilu.TaskList;
+import gilu.change.BatchedChangeFeed;
+import gilu.metrics.CommandMetrics;
+import gilu.storage.Storage;
+import gilu.task.Task;
+
+/**
+ * Streams every change of a task list to standby instances that connect over a local socket.
+ *
+ * <p>Changes reach a {@link ReplicationJournal} through a {@link BatchedChangeFeed}, so the thread that
+ * changes the list never writes to a socket. A standby that reconnects with a version still in the
+ * journal continues from there; any other standby first gets a snapshot of the list, taken on the
+ * thread that owns the list, and then the changes after it.</p>
+ */
+public class ReplicationPrimary implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ReplicationPrimary.class.getName());
+    private static final int FEED_CAPACITY = 16 * 1024;
+    private static final int MAX_BATCH_SIZE = 1_000;
+    private static final long HEARTBEAT_MILLIS = 1_000;
+
+    private final TaskList tasks;
+    private final Executor owner;
+    private final ServerSocket serverSocket;
+    private final ReplicationJournal journal;
+    private final BatchedChangeFeed feed;
+
+    /**
+     * Last version acknowledged by each connected standby.
+     */
+    private final Map<Socket, Long> acknowledged = new ConcurrentHashMap<>();
+
+    /**
+     * Starts replicating. Must be called on the thread that changes the list, so that the journal
+     * starts exactly at the current version.
+     *
+     * @param port            The local port to listen on.
+     * @param tasks           The task list to replicate.
+     * @param owner           Runs tasks on the thread that changes the list.
+     * @param journalCapacity The number of changes kept for standbys that reconnect.
+     * @throws IOException If the port cannot be opened.
+     */
+    public ReplicationPrimary(int port, TaskList tasks, Executor owner, int journalCapacity) throws IOException {
+        this.tasks = tasks;
+        this.owner = owner;
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.journal = new ReplicationJournal(journalCapacity, tasks.getVersion());
+        this.feed = new BatchedChangeFeed("gilu-replication-feed", FEED_CAPACITY, MAX_BATCH_SIZE, journal::append);
+        tasks.addChangeListener(feed);
+
+        Thread acceptor = new Thread(this::acceptStandbys, "gilu-replication-primary");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Returns the port the primary listens on.
+     *
+     * @return The local port.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Adds the number of connected standbys and how many changes the slowest is behind to the metrics report.
+     *
+     * @param metrics The metrics to report to.
+     */
+    public void registerGauges(CommandMetrics metrics) {
+        metrics.registerGauge("replication.standbys", acknowledged::size);
+        metrics.registerGauge("replication.lag.changes", this::getLag);
+    }
+
+    /**
+     * Returns how many changes the slowest connected standby has not acknowledged yet.
+     *
+     * @return The lag in changes, or 0 without standbys.
+     */
+    public long getLag() {
+        long last = journal.getLastVersion();
+        long lag = 0;
+        for (long version : acknowledged.values()) {
+            lag = Math.max(lag, last - version);
+        }
+        return lag;
+    }
+
+    @Override
+    public void close() throws IOException {
+        tasks.removeChangeListener(feed);
+        feed.close();
+        serverSocket.close();
+        for (Socket socket : acknowledged.keySet()) {
+            socket.close();
+        }
+    }
+
+    private void acceptStandbys() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread sender = new Thread(() -> serve(socket), "gilu-replication-" + socket.getPort());
+                sender.setDaemon(true);
+                sender.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    LOGGER.warning("Error accepting standby: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends a standby what it is missing, then every new change, until the connection drops.
+     */
+    private void serve(Socket socket) {
+        try (socket;
+                BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                        StandardCharsets.UTF_8));
+                BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(),
+                        StandardCharsets.UTF_8))) {
+            String hello = reader.readLine();
+            if (hello == null || !hello.startsWith(ReplicationProtocol.HELLO + " ")) {
+                return;
+            }
+            long version = Long.parseLong(hello.substring(ReplicationProtocol.HELLO.length() + 1));
+            if (!journal.isCovering(version)) {
+                version = sendSnapshot(writer);
+            }
+            acknowledged.put(socket, version);
+            LOGGER.info("Standby connected from port " + socket.getPort() + " at version " + version);
+
+            while (!socket.isClosed()) {
+                List<String> records = journal.readAfter(version, MAX_BATCH_SIZE, HEARTBEAT_MILLIS);
+                if (records == null) {
+                    LOGGER.warning("Standby fell behind the replication journal, disconnecting it");
+                    return;
+                }
+                for (String record : records) {
+                    writer.write(record);
+                    writer.newLine();
+                }
+                version += records.size();
+                if (records.isEmpty()) {
+                    writer.write(ReplicationProtocol.HEARTBEAT + " " + version + " " + System.currentTimeMillis());
+                    writer.newLine();
+                }
+                writer.flush();
+                readAcknowledgements(socket, reader);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.info("Standby disconnected: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            acknowledged.remove(socket);
+        }
+    }
+
+    /**
+     * Sends the whole list as it is on the owning thread.
+     *
+     * @return The version of the snapshot.
+     */
+    private long sendSnapshot(BufferedWriter writer) throws IOException {
+        Snapshot snapshot = CompletableFuture.supplyAsync(() -> {
+            List<String> lines = new ArrayList<>(tasks.getTaskCount());
+            for (Task task : tasks.getTasks()) {
+                lines.add(Storage.formatTask(task));
+            }
+            return new Snapshot(tasks.getVersion(), lines);
+        }, owner).join();
+
+        writer.write(ReplicationProtocol.SNAPSHOT + " " + snapshot.version + " " + snapshot.lines.size());
+        writer.newLine();
+        for (String line : snapshot.lines) {
+            writer.write(line);
+            writer.newLine();
+        }
+        writer.flush();
+        return snapshot.version;
+    }
+
+    private void readAcknowledgements(Socket socket, BufferedReader reader) throws IOException {
+        while (reader.ready()) {
+            String line = reader.readLine();
+            if (line == null) {
+                socket.close();
+                return;
+            }
+            if (line.startsWith(ReplicationProtocol.ACK + " ")) {
+                acknowledged.put(socket, Long.parseLong(line.substring(ReplicationProtocol.ACK.length() + 1)));
+            }
+        }
+    }
+
+    /**
+     * Holds the task lines of the list at one version.
+     */
+    private static class Snapshot {
+        private final long version;
+        private final List<String> lines;
+
+        Snapshot(long version, List<String> lines) {
+            this.version = version;
+            this.lines = lines;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package gilu.replication;
+
+import gilu.change.TaskChange;
+import gilu.storage.Storage;
+
+/**
+ * Encodes the lines exchanged between a replication primary and its standbys.
+ *
+ * <p>The primary sends a snapshot header {@code S <version> <count>} followed by that many task lines,
+ * change records {@code C <version> <millis> <kind> <position> <task>}, and heartbeats
+ * {@code H <version> <millis>}. Tasks are in the storage file format. The standby sends
+ * {@code HELLO <version>} once, with -1 if it needs a snapshot, and {@code ACK <version>} after
+ * applying changes.</p>
+ */
+final class ReplicationProtocol {
+    static final String HELLO = "HELLO";
+    static final String ACK = "ACK";
+    static final char SNAPSHOT = 'S';
+    static final char CHANGE = 'C';
+    static final char HEARTBEAT = 'H';
+
+    private ReplicationProtocol() {
+    }
+
+    static String encodeChange(TaskChange change, long millis) {
+        return CHANGE + " " + change.getVersion() + " " + millis + " " + change.getKind() + " "
+                + change.getPosition() + " " + Storage.formatTask(change.getTask());
+    }
+
+    /**
+     * Decodes a change record.
+     *
+     * @param line The record.
+     * @return The change, whose version is the primary's version.
+     * @throws IllegalArgumentException If the record is malformed.
+     */
+    static TaskChange decodeChange(String line) {
+        String[] fields = line.split(" ", 6);
+        if (fields.length < 6) {
+            throw new IllegalArgumentException("Malformed change record: " + line);
+        }
+        return new TaskChange(TaskChange.Kind.valueOf(fields[3]), Storage.parseTask(fields[5]),
+                Integer.parseInt(fields[4]), Long.parseLong(fields[1]));
+    }
+
+    /**
+     * Returns the primary's timestamp of a change record or heartbeat.
+     */
+    static long decodeMillis(String line) {
+        return Long.parseLong(line.split(" ", 4)[2]);
+    }
+
+    /**
+     * Returns the version of a snapshot header, change record or heartbeat.
+     */
+    static long decodeVersion(String line) {
+        return Long.parseLong(line.split(" ", 3)[1]);
+    }
+}
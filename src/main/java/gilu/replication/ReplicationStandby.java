@@ -0,0 +1,248 @@
+package gilu.replication;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.logging.Logger;
+
+import gilu.TaskList;
+import gilu.change.TaskChange;
+import gilu.metrics.CommandMetrics;
+import gilu.storage.Storage;
+import gilu.task.Task;
+
+/**
+ * Follows a {@link ReplicationPrimary}, applying its changes to a local task list and storage.
+ *
+ * <p>Changes are applied in batches on the thread that owns the list, with one save per batch, and
+ * acknowledged afterwards. If the connection drops, the standby reconnects and continues from the last
+ * version it applied. It starts with a snapshot, since it cannot tell which primary version its own
+ * storage file matches.</p>
+ */
+public class ReplicationStandby implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ReplicationStandby.class.getName());
+    private static final int MAX_BATCH_SIZE = 1_000;
+    private static final long RECONNECT_MILLIS = 1_000;
+
+    private final String host;
+    private final int port;
+    private final TaskList tasks;
+    private final Storage storage;
+    private final Executor owner;
+    private final Thread thread;
+
+    private volatile boolean isRunning = true;
+    private volatile boolean isConnected;
+    private volatile Socket socket;
+
+    /**
+     * Last primary version applied here, or -1 before the first snapshot.
+     */
+    private volatile long appliedVersion = -1;
+
+    /**
+     * Newest primary version seen in a record or heartbeat.
+     */
+    private volatile long primaryVersion = -1;
+
+    /**
+     * Time between the primary journalling the last applied change and the standby saving it.
+     */
+    private volatile long lagMillis;
+
+    /**
+     * Starts following the primary on a new daemon thread.
+     *
+     * @param host    The primary host.
+     * @param port    The primary port.
+     * @param tasks   The local task list.
+     * @param storage The local storage.
+     * @param owner   Runs tasks on the thread that owns the list.
+     */
+    public ReplicationStandby(String host, int port, TaskList tasks, Storage storage, Executor owner) {
+        this.host = host;
+        this.port = port;
+        this.tasks = tasks;
+        this.storage = storage;
+        this.owner = owner;
+        this.thread = new Thread(this::run, "gilu-replication-standby");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Adds the connection state and replication lag to the metrics report.
+     *
+     * @param metrics The metrics to report to.
+     */
+    public void registerGauges(CommandMetrics metrics) {
+        metrics.registerGauge("replication.connected", () -> isConnected ? 1 : 0);
+        metrics.registerGauge("replication.lag.changes", this::getLag);
+        metrics.registerGauge("replication.lag.ms", () -> lagMillis);
+    }
+
+    /**
+     * Returns how many changes the primary has made that are not applied here yet.
+     *
+     * @return The lag in changes.
+     */
+    public long getLag() {
+        return Math.max(0, primaryVersion - appliedVersion);
+    }
+
+    /**
+     * Returns the last primary version applied here.
+     *
+     * @return The applied version, or -1 before the first snapshot.
+     */
+    public long getAppliedVersion() {
+        return appliedVersion;
+    }
+
+    @Override
+    public void close() throws IOException {
+        isRunning = false;
+        Socket current = socket;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private void run() {
+        while (isRunning) {
+            try (Socket connection = new Socket(host, port)) {
+                socket = connection;
+                follow(connection);
+            } catch (IOException | IllegalArgumentException | CompletionException e) {
+                if (isRunning) {
+                    LOGGER.info("Replication connection lost: " + e.getMessage());
+                }
+            } finally {
+                isConnected = false;
+            }
+            try {
+                Thread.sleep(RECONNECT_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void follow(Socket connection) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(),
+                StandardCharsets.UTF_8));
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(),
+                StandardCharsets.UTF_8));
+        writer.write(ReplicationProtocol.HELLO + " " + appliedVersion);
+        writer.newLine();
+        writer.flush();
+        isConnected = true;
+
+        List<TaskChange> batch = new ArrayList<>();
+        long batchMillis = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            switch (line.charAt(0)) {
+            case ReplicationProtocol.SNAPSHOT:
+                applySnapshot(line, reader);
+                break;
+            case ReplicationProtocol.CHANGE:
+                TaskChange change = ReplicationProtocol.decodeChange(line);
+                long expectedVersion = appliedVersion + batch.size() + 1;
+                if (change.getVersion() != expectedVersion) {
+                    appliedVersion = -1; // Out of step, so start over from a snapshot
+                    throw new IOException("Expected version " + expectedVersion + " but got " + change.getVersion());
+                }
+                batch.add(change);
+                batchMillis = ReplicationProtocol.decodeMillis(line);
+                primaryVersion = Math.max(primaryVersion, change.getVersion());
+                break;
+            case ReplicationProtocol.HEARTBEAT:
+                primaryVersion = Math.max(primaryVersion, ReplicationProtocol.decodeVersion(line));
+                break;
+            default:
+                throw new IOException("Unknown replication record: " + line);
+            }
+            if (!batch.isEmpty() && (batch.size() >= MAX_BATCH_SIZE || !reader.ready())) {
+                applyBatch(batch, batchMillis);
+                batch = new ArrayList<>();
+                writer.write(ReplicationProtocol.ACK + " " + appliedVersion);
+                writer.newLine();
+                writer.flush();
+            }
+        }
+    }
+
+    private void applySnapshot(String header, BufferedReader reader) throws IOException {
+        String[] fields = header.split(" ");
+        long version = Long.parseLong(fields[1]);
+        int count = Integer.parseInt(fields[2]);
+        List<Task> snapshot = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String line = reader.readLine();
+            if (line == null) {
+                throw new IOException("Snapshot ended after " + i + " of " + count + " tasks");
+            }
+            snapshot.add(Storage.parseTask(line));
+        }
+        try {
+            runOnOwner(() -> tasks.replaceAll(snapshot, storage));
+        } catch (IOException | CompletionException e) {
+            appliedVersion = -1;
+            throw e;
+        }
+        appliedVersion = version;
+        primaryVersion = Math.max(primaryVersion, version);
+        LOGGER.info("Applied replication snapshot of " + count + " tasks at version " + version);
+    }
+
+    private void applyBatch(List<TaskChange> batch, long batchMillis) throws IOException {
+        try {
+            runOnOwner(() -> tasks.applyChanges(batch, storage));
+        } catch (IOException | CompletionException e) {
+            appliedVersion = -1; // The list may be partly changed, so start over from a snapshot
+            throw e;
+        }
+        appliedVersion = batch.get(batch.size() - 1).getVersion();
+        lagMillis = Math.max(0, System.currentTimeMillis() - batchMillis);
+    }
+
+    /**
+     * Runs an update on the thread that owns the list and waits for it.
+     */
+    private void runOnOwner(ListUpdate update) throws IOException {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        owner.execute(() -> {
+            try {
+                update.run();
+                done.complete(null);
+            } catch (IOException | RuntimeException e) {
+                done.completeExceptionally(e);
+            }
+        });
+        try {
+            done.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Changes the local task list.
+     */
+    private interface ListUpdate {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,158 @@
+package gilu.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import gilu.TaskList;
+import gilu.change.TaskChange;
+import gilu.change.TaskChangeListener;
+import gilu.command.Command;
+import gilu.task.DescriptionStore;
+import gilu.task.Task;
+
+/**
+ * Suggests how to finish the input being typed: a command keyword, a flag of the command, or the
+ * description of an existing task.
+ * <p>
+ * Keywords are ranked by how often they have been run, and descriptions by how many tasks share them.
+ * The descriptions are indexed on the first suggestion and then kept in step through the change feed
+ * of the task list. When descriptions are kept off the heap, they are not completed, as the index would
+ * keep a copy of every one of them on the heap. This class is not thread-safe; it is meant to be used
+ * from the thread that owns the task list.
+ * </p>
+ */
+public class Autocomplete implements TaskChangeListener {
+    /**
+     * Maximum number of suggestions returned at once.
+     */
+    public static final int MAX_SUGGESTIONS = 8;
+
+    /**
+     * The flags each command takes, in the order they are typed.
+     */
+    private static final Map<String, List<String>> FLAGS = Map.of(
+            "deadline", List.of("/by"),
+            "event", List.of("/from", "/to"));
+
+    /**
+     * The commands followed by a task description or a search keyword.
+     */
+    private static final List<String> DESCRIBED_COMMANDS = List.of("todo", "deadline", "event", "find", "find~");
+
+    private final CompletionTrie keywords = new CompletionTrie();
+    private final CompletionTrie descriptions = new CompletionTrie();
+    private final boolean isCompletingDescriptions;
+    private boolean isIndexed;
+
+    /**
+     * Constructs an Autocomplete that knows every command keyword, and completes descriptions unless
+     * they are kept off the heap.
+     */
+    public Autocomplete() {
+        this(!DescriptionStore.isEnabled());
+    }
+
+    /**
+     * Constructs an Autocomplete that knows every command keyword.
+     *
+     * @param isCompletingDescriptions Whether to complete the descriptions of existing tasks.
+     */
+    public Autocomplete(boolean isCompletingDescriptions) {
+        this.isCompletingDescriptions = isCompletingDescriptions;
+        for (String keyword : Command.KEYWORDS) {
+            keywords.add(keyword, 0);
+        }
+    }
+
+    /**
+     * Ranks the keyword of a command that has been run higher in later suggestions.
+     *
+     * @param input The command as entered.
+     */
+    public void recordCommand(String input) {
+        String keyword = input.trim().split("\\s+", 2)[0].toLowerCase(Locale.ROOT);
+        if (Command.KEYWORDS.contains(keyword)) {
+            keywords.add(keyword);
+        }
+    }
+
+    /**
+     * Suggests complete inputs that start with the text typed so far.
+     *
+     * @param text  The text typed so far.
+     * @param tasks The task list whose descriptions are suggested.
+     * @return Up to {@link #MAX_SUGGESTIONS} inputs, best first.
+     */
+    public List<String> suggest(String text, TaskList tasks) {
+        String typed = text.stripLeading();
+        int keywordEnd = indexOfWhitespace(typed);
+        if (keywordEnd < 0) {
+            return typed.isEmpty() ? List.of() : keywords.suggest(typed, MAX_SUGGESTIONS);
+        }
+
+        String keyword = typed.substring(0, keywordEnd).toLowerCase(Locale.ROOT);
+        String lastWord = typed.substring(typed.lastIndexOf(' ') + 1);
+        if (lastWord.startsWith("/")) {
+            return suggestFlags(typed.substring(0, typed.length() - lastWord.length()), keyword, lastWord);
+        }
+        String argument = typed.substring(keywordEnd).stripLeading();
+        if (!isCompletingDescriptions || argument.isEmpty() || argument.indexOf('/') >= 0
+                || !DESCRIBED_COMMANDS.contains(keyword)) {
+            return List.of();
+        }
+
+        if (!isIndexed) {
+            for (Task task : tasks.getTasks()) {
+                descriptions.add(task.getDescription());
+            }
+            isIndexed = true;
+        }
+        List<String> suggestions = new ArrayList<>(MAX_SUGGESTIONS);
+        String head = typed.substring(0, keywordEnd) + " ";
+        for (String description : descriptions.suggest(argument, MAX_SUGGESTIONS)) {
+            suggestions.add(head + description);
+        }
+        return suggestions;
+    }
+
+    @Override
+    public void onChange(TaskChange change) {
+        if (!isIndexed) {
+            return; // Indexed from the whole list on the first suggestion
+        }
+        switch (change.getKind()) {
+        case ADDED:
+            descriptions.add(change.getTask().getDescription());
+            break;
+        case REMOVED:
+            descriptions.remove(change.getTask().getDescription());
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Suggests the flags of a command that start with the word being typed and are not typed yet.
+     */
+    private static List<String> suggestFlags(String head, String keyword, String lastWord) {
+        List<String> suggestions = new ArrayList<>();
+        for (String flag : FLAGS.getOrDefault(keyword, List.of())) {
+            if (flag.startsWith(lastWord.toLowerCase(Locale.ROOT)) && !head.contains(flag + " ")) {
+                suggestions.add(head + flag + " ");
+            }
+        }
+        return suggestions;
+    }
+
+    private static int indexOfWhitespace(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,347 @@
+package gilu.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * Suggests the most frequent strings that start with a prefix, ignoring case.
+ * <p>
+ * Strings are kept in a compressed trie: every edge is labelled with a run of characters, so a chain
+ * of single children takes one node. Labels are not copied; each node points into one of the keys that
+ * pass through it. Every node also records the highest count in its subtree, so a lookup visits nodes
+ * in order of their best count and stops after the top suggestions, however many strings share the
+ * prefix. Ties are broken alphabetically. Adding or removing a string only touches the nodes on its path.
+ * This class is not thread-safe.
+ * </p>
+ */
+public class CompletionTrie {
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    /**
+     * Orders candidates by count, highest first, then alphabetically by key.
+     */
+    private static final Comparator<Candidate> BEST_FIRST = Comparator.comparingInt((Candidate c) -> -c.count)
+            .thenComparing((a, b) -> compareKeys(a.node, b.node))
+            .thenComparing(c -> !c.isTerminal);
+
+    private final Node root = new Node(null, 0, 0);
+    private int size;
+
+    /**
+     * Counts one more occurrence of a string.
+     *
+     * @param text The string, as it should be suggested.
+     */
+    public void add(String text) {
+        add(text, 1);
+    }
+
+    /**
+     * Counts more occurrences of a string. A string added with a count of 0 is suggested after every string
+     * with a positive count.
+     *
+     * @param text  The string, as it should be suggested if it is new.
+     * @param count The number of occurrences to add, at least 0.
+     */
+    public void add(String text, int count) {
+        assert count >= 0 : "Count should not be negative";
+        String key = text.toLowerCase(Locale.ROOT);
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int depth = 0;
+        while (depth < key.length()) {
+            int index = node.findChild(key.charAt(depth));
+            if (index < 0) {
+                Node leaf = new Node(key, depth, key.length());
+                node.insertChild(-index - 1, leaf);
+                node = leaf;
+                path.add(node);
+                break;
+            }
+            Node child = node.children[index];
+            int matched = child.matchLength(key, depth);
+            if (matched < child.length()) {
+                child = split(node, index, matched);
+            }
+            node = child;
+            path.add(node);
+            depth += matched;
+        }
+
+        if (node.text == null) {
+            node.text = text;
+            size++;
+        }
+        node.count += count;
+        for (Node onPath : path) {
+            onPath.maxCount = Math.max(onPath.maxCount, node.count);
+        }
+    }
+
+    /**
+     * Counts one occurrence of a string less, forgetting the string once none are left.
+     *
+     * @param text The string, in any case.
+     */
+    public void remove(String text) {
+        String key = text.toLowerCase(Locale.ROOT);
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int depth = 0;
+        while (depth < key.length()) {
+            int index = node.findChild(key.charAt(depth));
+            if (index < 0) {
+                return;
+            }
+            node = node.children[index];
+            if (node.matchLength(key, depth) < node.length()) {
+                return;
+            }
+            path.add(node);
+            depth += node.length();
+        }
+        if (node.text == null) {
+            return;
+        }
+
+        if (node.count > 0) {
+            node.count--;
+        }
+        if (node.count == 0) {
+            node.text = null;
+            size--;
+            prune(path);
+        }
+        for (int i = path.size() - 1; i >= 0; i--) {
+            path.get(i).updateMaxCount();
+        }
+    }
+
+    /**
+     * Returns the most frequent strings that start with a prefix, ignoring case.
+     *
+     * @param prefix The prefix typed so far.
+     * @param limit  The maximum number of suggestions.
+     * @return The suggestions, most frequent first.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        String key = prefix.toLowerCase(Locale.ROOT);
+        Node node = root;
+        int depth = 0;
+        while (depth < key.length()) {
+            int index = node.findChild(key.charAt(depth));
+            if (index < 0) {
+                return List.of();
+            }
+            node = node.children[index];
+            int matched = node.matchLength(key, depth);
+            if (matched < node.length() && depth + matched < key.length()) {
+                return List.of(); // The prefix leaves the trie in the middle of this label
+            }
+            depth += matched;
+        }
+
+        List<String> suggestions = new ArrayList<>(limit);
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(BEST_FIRST);
+        candidates.add(new Candidate(node, false));
+        while (!candidates.isEmpty() && suggestions.size() < limit) {
+            Candidate best = candidates.remove();
+            if (best.isTerminal) {
+                suggestions.add(best.node.text);
+                continue;
+            }
+            if (best.node.text != null) {
+                candidates.add(new Candidate(best.node, true));
+            }
+            for (int i = 0; i < best.node.childCount; i++) {
+                candidates.add(new Candidate(best.node.children[i], false));
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Returns the number of distinct strings, ignoring case.
+     *
+     * @return The number of strings.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes every string.
+     */
+    public void clear() {
+        root.children = NO_CHILDREN;
+        root.childCount = 0;
+        root.maxCount = 0;
+        size = 0;
+    }
+
+    /**
+     * Splits a child's label after some characters, putting a new node in its place above it.
+     *
+     * @return The new node.
+     */
+    private static Node split(Node parent, int index, int at) {
+        Node child = parent.children[index];
+        Node middle = new Node(child.source, child.start, child.start + at);
+        child.start += at;
+        middle.children = new Node[] {child};
+        middle.childCount = 1;
+        middle.maxCount = child.maxCount;
+        parent.children[index] = middle; // Same first character, so the children stay sorted
+        return middle;
+    }
+
+    /**
+     * Removes the last node of a path if it no longer holds a string and has no children,
+     * then merges any node left with a single child and no string into that child.
+     */
+    private static void prune(List<Node> path) {
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            Node parent = path.get(i - 1);
+            if (node.text != null) {
+                return;
+            }
+            int index = parent.findChild(node.firstChar());
+            if (node.childCount == 0) {
+                parent.removeChild(index);
+            } else if (node.childCount == 1) {
+                Node child = node.children[0];
+                child.start = node.start; // The child's key passes through this node, so it holds its label too
+                parent.children[index] = child;
+                return;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Compares the keys that two nodes end, which are the prefixes of their sources up to their ends.
+     */
+    private static int compareKeys(Node a, Node b) {
+        int length = Math.min(a.end, b.end);
+        for (int i = 0; i < length; i++) {
+            int comparison = Character.compare(a.source.charAt(i), b.source.charAt(i));
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(a.end, b.end);
+    }
+
+    /**
+     * A node whose label is {@code source.substring(start, end)}, where {@code source} is a key
+     * that passes through the node and {@code end} is the length of the key the node ends.
+     */
+    private static class Node {
+        private final String source;
+        private int start;
+        private final int end;
+        private Node[] children = NO_CHILDREN;
+        private int childCount;
+
+        /**
+         * The string ending here, as first added, or null if no string ends here.
+         */
+        private String text;
+        private int count;
+        private int maxCount;
+
+        Node(String source, int start, int end) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+        }
+
+        int length() {
+            return end - start;
+        }
+
+        char firstChar() {
+            return source.charAt(start);
+        }
+
+        /**
+         * Counts how many characters of the label match the key from a depth on.
+         */
+        int matchLength(String key, int depth) {
+            int length = Math.min(length(), key.length() - depth);
+            for (int i = 0; i < length; i++) {
+                if (source.charAt(start + i) != key.charAt(depth + i)) {
+                    return i;
+                }
+            }
+            return length;
+        }
+
+        /**
+         * Finds the child whose label starts with a character, by binary search.
+         *
+         * @return The index of the child, or {@code -(insertion point) - 1} if there is none.
+         */
+        int findChild(char c) {
+            int low = 0;
+            int high = childCount - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char first = children[middle].firstChar();
+                if (first < c) {
+                    low = middle + 1;
+                } else if (first > c) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -low - 1;
+        }
+
+        void insertChild(int index, Node child) {
+            if (childCount == children.length) {
+                children = Arrays.copyOf(children, Math.max(2, childCount * 2));
+            }
+            System.arraycopy(children, index, children, index + 1, childCount - index);
+            children[index] = child;
+            childCount++;
+        }
+
+        void removeChild(int index) {
+            System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+            children[--childCount] = null;
+        }
+
+        void updateMaxCount() {
+            int max = count;
+            for (int i = 0; i < childCount; i++) {
+                max = Math.max(max, children[i].maxCount);
+            }
+            maxCount = max;
+        }
+    }
+
+    /**
+     * A node to expand, or the string that ends at a node, waiting to be suggested.
+     */
+    private static class Candidate {
+        private final Node node;
+        private final boolean isTerminal;
+        private final int count;
+
+        Candidate(Node node, boolean isTerminal) {
+            this.node = node;
+            this.isTerminal = isTerminal;
+            this.count = isTerminal ? node.count : node.maxCount;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package gilu.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import gilu.TaskList;
+import gilu.metrics.SearchScanEvent;
+import gilu.task.Task;
+
+/**
+ * Finds tasks by keyword as the user types, reusing the previous result where possible.
+ * <p>
+ * When the keyword grows and the task list has not changed since the previous search,
+ * only the previous matches are filtered again instead of scanning every task.
+ * This class is not thread-safe; it is meant to be used from the thread that owns the task list.
+ * </p>
+ */
+public class IncrementalSearch {
+    /**
+     * Maximum number of result lines rendered for display.
+     */
+    public static final int MAX_RENDERED_RESULTS = 200;
+
+    /**
+     * Number of tasks checked between two checks for a newer search.
+     */
+    private static final int CANCEL_CHECK_INTERVAL = 4096;
+
+    private String lastKeyword;
+    private long lastVersion;
+    private Matches lastMatches;
+
+    /**
+     * Finds the tasks whose description contains the keyword (case-insensitive) and renders them
+     * with their task numbers.
+     *
+     * @param keyword      The keyword typed so far.
+     * @param tasks        The task list to search.
+     * @param isSuperseded Returns true once a newer search has been requested.
+     * @return The rendered result lines, or null if the search was superseded.
+     */
+    public List<String> search(String keyword, TaskList tasks, BooleanSupplier isSuperseded) {
+        assert keyword != null : "Keyword should not be null";
+        String normalizedKeyword = keyword.trim().toLowerCase();
+        List<Task> taskView = tasks.getTasks();
+
+        Matches matches = canRefine(normalizedKeyword, tasks.getVersion())
+                ? filter(lastMatches, taskView, normalizedKeyword, isSuperseded)
+                : scan(taskView, normalizedKeyword, isSuperseded);
+        if (matches == null) {
+            return null; // Superseded, keep the previous state for the next refinement
+        }
+
+        lastKeyword = normalizedKeyword;
+        lastVersion = tasks.getVersion();
+        lastMatches = matches;
+        return render(taskView, matches);
+    }
+
+    /**
+     * Returns whether the previous result can be filtered instead of scanning every task.
+     */
+    private boolean canRefine(String keyword, long version) {
+        return lastMatches != null && version == lastVersion && keyword.startsWith(lastKeyword);
+    }
+
+    /**
+     * Checks every task against the keyword.
+     *
+     * @return The matches, or null if superseded.
+     */
+    private Matches scan(List<Task> taskView, String keyword, BooleanSupplier isSuperseded) {
+        SearchScanEvent event = new SearchScanEvent();
+        event.begin();
+        Matches matches = new Matches(Math.min(taskView.size(), 1024));
+        for (int i = 0; i < taskView.size(); i++) {
+            if (i % CANCEL_CHECK_INTERVAL == 0 && isSuperseded.getAsBoolean()) {
+                return null;
+            }
+            if (taskView.get(i).getDescription().toLowerCase().contains(keyword)) {
+                matches.add(i);
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.setTaskCount(taskView.size());
+            event.setMatchCount(matches.count);
+            event.commit();
+        }
+        return matches;
+    }
+
+    /**
+     * Keeps the previous matches that still contain the longer keyword.
+     *
+     * @return The matches, or null if superseded.
+     */
+    private Matches filter(Matches previous, List<Task> taskView, String keyword, BooleanSupplier isSuperseded) {
+        Matches matches = new Matches(previous.count);
+        for (int i = 0; i < previous.count; i++) {
+            if (i % CANCEL_CHECK_INTERVAL == 0 && isSuperseded.getAsBoolean()) {
+                return null;
+            }
+            int index = previous.indices[i];
+            if (taskView.get(index).getDescription().toLowerCase().contains(keyword)) {
+                matches.add(index);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Renders up to {@link #MAX_RENDERED_RESULTS} matches with their 1-based task numbers.
+     */
+    private List<String> render(List<Task> taskView, Matches matches) {
+        int shown = Math.min(matches.count, MAX_RENDERED_RESULTS);
+        List<String> lines = new ArrayList<>(shown + 1);
+        for (int i = 0; i < shown; i++) {
+            int index = matches.indices[i];
+            lines.add((index + 1) + ". " + taskView.get(index));
+        }
+        if (matches.count > shown) {
+            lines.add("... and " + (matches.count - shown) + " more");
+        }
+        return lines;
+    }
+
+    /**
+     * Holds the 0-based indices of matching tasks, in list order.
+     */
+    private static class Matches {
+        private int[] indices;
+        private int count;
+
+        Matches(int initialCapacity) {
+            indices = new int[Math.max(16, initialCapacity)];
+        }
+
+        void add(int index) {
+            if (count == indices.length) {
+                indices = Arrays.copyOf(indices, indices.length * 2);
+            }
+            indices[count++] = index;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package gilu.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import gilu.task.Task;
+
+/**
+ * Keeps archived tasks in a compressed, append-only file, apart from the tasks in {@link Storage}.
+ *
+ * <p>Each call to {@link #append(List)} writes one new gzip member to the end of the file, so
+ * archiving never rewrites what is already there. Reading decompresses the members in order.</p>
+ */
+public class ArchiveStorage {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String filePath;
+
+    /**
+     * Constructs an ArchiveStorage for the given file path. The file is created on the first append.
+     *
+     * @param filePath The file path where archived tasks are stored.
+     */
+    public ArchiveStorage(String filePath) {
+        this.filePath = filePath;
+    }
+
+    /**
+     * Returns the path of the archive file.
+     *
+     * @return The archive file path.
+     */
+    public Path getPath() {
+        return Paths.get(filePath);
+    }
+
+    /**
+     * Appends the given tasks to the archive.
+     *
+     * @param tasks The tasks to archive, in order.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void append(List<Task> tasks) throws IOException {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        File file = new File(filePath);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        try (FileOutputStream output = new FileOutputStream(file, true)) {
+            GZIPOutputStream compressed = new GZIPOutputStream(output, BUFFER_SIZE);
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(compressed));
+            for (Task task : tasks) {
+                writer.write(Storage.formatTask(task));
+                writer.newLine();
+            }
+            writer.flush();
+            compressed.finish();
+            if (Storage.IS_FSYNC_ENABLED) {
+                output.getFD().sync(); // Archived tasks are removed from the main file next
+            }
+        }
+    }
+
+    /**
+     * Reads every archived task in archive order. Nothing is kept in memory between calls.
+     *
+     * @param consumer Receives each archived task.
+     * @return The number of archived tasks.
+     * @throws IOException If an I/O error occurs or the archive is corrupted.
+     */
+    public int forEachTask(Consumer<Task> consumer) throws IOException {
+        File file = new File(filePath);
+        if (!file.exists() || file.length() == 0) {
+            return 0;
+        }
+        int count = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE))))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                consumer.accept(Storage.parseTask(line));
+                count++;
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("The archive is corrupted: " + e.getMessage());
+        }
+        return count;
+    }
+}
@@ -0,0 +1,32 @@
+package gilu.storage;
+
+import java.util.List;
+
+import gilu.task.Task;
+
+/**
+ * Tasks that another process has saved, replacing the tasks from a position onwards.
+ */
+public class ExternalChanges {
+    private final int fromTask;
+    private final List<Task> tasks;
+
+    /**
+     * Constructs the changes read from the storage file.
+     *
+     * @param fromTask The position of the first task that may have changed.
+     * @param tasks    The tasks from that position to the end of the list.
+     */
+    public ExternalChanges(int fromTask, List<Task> tasks) {
+        this.fromTask = fromTask;
+        this.tasks = tasks;
+    }
+
+    public int getFromTask() {
+        return fromTask;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+}
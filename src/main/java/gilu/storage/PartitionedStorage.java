@@ -0,0 +1,624 @@
+package gilu.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import gilu.change.TaskChange;
+import gilu.change.TaskChangeListener;
+import gilu.task.Deadline;
+import gilu.task.Event;
+import gilu.task.Task;
+
+/**
+ * Stores tasks in one file per month instead of a single file, so that a query for a date only
+ * reads the months it needs and a change only rewrites the month it touches.
+ *
+ * <p>Deadlines are filed under the month of {@link Deadline#getBy()}, events under the month of
+ * {@link Event#getFrom()}, and todos in a partition of their own. Every line starts with a
+ * sequence number, so that the list order survives being split across files. A small manifest
+ * records, for each partition, its task count, a fingerprint of its contents and the last day any
+ * of its tasks covers.</p>
+ *
+ * <p>The flat file given to the constructor is only read once, to migrate it into partitions, and is then
+ * renamed with a {@code .migrated} extension so that it is never loaded again in their place.</p>
+ *
+ * <p>Saves are recorded in the version file next to the flat file, as {@link Storage} records them, so a save is
+ * refused if another process has saved since, and the other processes load every partition again.</p>
+ *
+ * <p>Once the tracker from {@link #trackChanges()} is registered with the list, a save only rewrites the
+ * partitions whose tasks were added, removed or marked since the last save. Otherwise every save groups the
+ * whole list again to find them.</p>
+ */
+public class PartitionedStorage extends Storage {
+    private static final String MANIFEST_NAME = "manifest.txt";
+    private static final String MANIFEST_HEADER = "gilu-partitions 1";
+    private static final String PARTITION_SUFFIX = ".txt";
+    private static final String TODO_PARTITION = "todo";
+    private static final String SEPARATOR = " | ";
+    private static final String MIGRATED_SUFFIX = ".migrated";
+
+    private final Path directory;
+
+    /**
+     * Sequence number of every task saved or loaded, used to keep the list order across partitions.
+     * Only touched by the thread that loads and saves tasks.
+     */
+    private Map<Task, Long> sequences = new IdentityHashMap<>();
+    private long nextSequence;
+
+    /**
+     * Partitions as last written, keyed by name.
+     */
+    private Map<String, Partition> partitions = new HashMap<>();
+
+    private boolean isTrackingChanges;
+
+    /**
+     * The tasks of each partition in list order, as the tracked list has them now, or null if they have not been
+     * grouped since the tracker was registered, or may have missed a change.
+     */
+    private Map<String, List<Task>> members;
+    private int memberCount;
+
+    /**
+     * Partitions whose tasks have changed since they were last written.
+     */
+    private final Set<String> dirtyPartitions = new HashSet<>();
+
+    /**
+     * Constructs a PartitionedStorage that keeps its partitions in the given directory.
+     *
+     * @param filePath  The flat storage file, migrated into partitions if no manifest exists yet.
+     * @param directory The directory holding the partitions and the manifest.
+     */
+    public PartitionedStorage(String filePath, String directory) {
+        super(filePath, false);
+        this.directory = Paths.get(directory);
+    }
+
+    /**
+     * Returns whether tasks have been migrated into partitions in the given directory.
+     *
+     * @param directory The directory holding the partitions.
+     * @return true if the directory has a manifest.
+     */
+    public static boolean hasManifest(Path directory) {
+        return Files.exists(directory.resolve(MANIFEST_NAME));
+    }
+
+    /**
+     * Returns a listener to register with the list that is saved here, so that saves only rewrite the partitions
+     * it has changed. Only the thread that saves tasks should change the list.
+     *
+     * @return The listener.
+     */
+    public TaskChangeListener trackChanges() {
+        isTrackingChanges = true;
+        members = null; // Changes made before now were not seen
+        return this::onChange;
+    }
+
+    private void onChange(TaskChange change) {
+        if (members == null) {
+            return;
+        }
+        Task task = change.getTask();
+        String name = partitionOf(task);
+        switch (change.getKind()) {
+        case ADDED:
+            if (change.getPosition() != memberCount) {
+                members = null; // Sequence numbers can only be handed out at the end, so group everything again
+                return;
+            }
+            sequences.put(task, nextSequence++);
+            members.computeIfAbsent(name, key -> new ArrayList<>()).add(task);
+            memberCount++;
+            break;
+        case REMOVED:
+            if (!removeMember(members.getOrDefault(name, List.of()), task)) {
+                members = null;
+                return;
+            }
+            sequences.remove(task);
+            memberCount--;
+            break;
+        default:
+            break;
+        }
+        dirtyPartitions.add(name);
+    }
+
+    /**
+     * Loads every partition again if another process has saved since this process last loaded or saved them,
+     * as saves are not recorded by position in the list.
+     */
+    @Override
+    public ExternalChanges readExternalChanges() throws IOException {
+        lock(true);
+        try {
+            if (!isChangedElsewhere()) {
+                return null;
+            }
+            return new ExternalChanges(0, loadTasks());
+        } finally {
+            unlock();
+        }
+    }
+
+    @Override
+    public Path getStampFile() {
+        return directory.resolve(MANIFEST_NAME);
+    }
+
+    @Override
+    public List<Path> getFiles() throws IOException {
+        List<Path> files = new ArrayList<>(super.getFiles());
+        files.add(Paths.get(getFilePath() + MIGRATED_SUFFIX));
+        files.add(directory.resolve(MANIFEST_NAME));
+        if (Files.isDirectory(directory)) {
+            files.addAll(listPartitionFiles());
+        }
+        return files;
+    }
+
+    /**
+     * Returns false, as the partitions are not in the format of a flat storage file.
+     */
+    @Override
+    public boolean copySavedTasks(List<Task> tasks, WritableByteChannel target) {
+        return false;
+    }
+
+    @Override
+    public int loadTasks(int batchSize, Consumer<List<Task>> consumer) throws IOException {
+        assert batchSize > 0 : "Batch size should be positive";
+        boolean isMigrating = !hasManifest(directory);
+        lock(!isMigrating);
+        try {
+            if (isMigrating) {
+                return migrate(batchSize, consumer);
+            }
+            rememberVersion();
+            return readPartitions(batchSize, consumer);
+        } finally {
+            unlock();
+        }
+    }
+
+    private int readPartitions(int batchSize, Consumer<List<Task>> consumer) throws IOException {
+        sequences = new IdentityHashMap<>();
+        partitions = new HashMap<>();
+        nextSequence = 0;
+        members = null;
+        PriorityQueue<PartitionReader> readers = new PriorityQueue<>();
+        try {
+            for (Path file : listPartitionFiles()) {
+                PartitionReader reader = new PartitionReader(file);
+                if (reader.advance()) {
+                    readers.add(reader);
+                } else {
+                    reader.close();
+                    partitions.put(reader.name, reader.partition);
+                }
+            }
+
+            // Merge the partitions by sequence number to restore the list order
+            int count = 0;
+            List<Task> batch = new ArrayList<>();
+            while (!readers.isEmpty()) {
+                PartitionReader reader = readers.remove();
+                sequences.put(reader.task, reader.sequence);
+                nextSequence = Math.max(nextSequence, reader.sequence + 1);
+                batch.add(reader.task);
+                count++;
+                if (batch.size() >= batchSize) {
+                    consumer.accept(batch);
+                    batch = new ArrayList<>();
+                }
+                if (reader.advance()) {
+                    readers.add(reader);
+                } else {
+                    reader.close();
+                    partitions.put(reader.name, reader.partition);
+                }
+            }
+            if (!batch.isEmpty()) {
+                consumer.accept(batch);
+            }
+            return count;
+        } finally {
+            for (PartitionReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Removes a task from the tasks of its partition, looking from the end, where the most recent tasks are.
+     *
+     * @return false if the partition does not hold the task.
+     */
+    private static boolean removeMember(List<Task> group, Task task) {
+        for (int i = group.size() - 1; i >= 0; i--) {
+            if (group.get(i) == task) {
+                group.remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Splits the flat storage file into partitions, delivering its tasks as they are read.
+     */
+    private int migrate(int batchSize, Consumer<List<Task>> consumer) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        super.loadTasks(batchSize, batch -> {
+            tasks.addAll(batch);
+            consumer.accept(batch);
+        });
+        sequences = new IdentityHashMap<>();
+        partitions = new HashMap<>();
+        nextSequence = 0;
+        members = null;
+        saveTasks(tasks);
+
+        Path flatFile = Paths.get(getFilePath());
+        if (Files.exists(flatFile)) {
+            Files.move(flatFile, flatFile.resolveSibling(flatFile.getFileName() + MIGRATED_SUFFIX),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+        return tasks.size();
+    }
+
+    /**
+     * Saves the given list of tasks, rewriting only the partitions that changed, and records the save in the
+     * version file shared with other processes.
+     *
+     * @param tasks The list of tasks to save.
+     * @throws IOException If an I/O error occurs, or if another process has saved since these tasks were
+     *                     loaded or last saved.
+     */
+    @Override
+    public void saveTasks(List<Task> tasks) throws IOException {
+        lock(false);
+        try {
+            StorageCoordinator.VersionLog log = checkVersion();
+            if (writeChangedPartitions(tasks)) {
+                recordSave(log, 0, 0); // Other processes load every partition again
+            }
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Writes the partitions that changed since the last save, and the manifest if any did.
+     *
+     * @return true if anything was written.
+     */
+    private boolean writeChangedPartitions(List<Task> tasks) throws IOException {
+        Files.createDirectories(directory);
+        if (members != null && memberCount == tasks.size() && hasManifest(directory)) {
+            return saveDirtyPartitions();
+        }
+        members = null;
+
+        // Group the tasks by partition, keeping list order within each partition
+        Map<Task, Long> newSequences = new IdentityHashMap<>(tasks.size() * 2);
+        Map<String, List<Task>> groups = new LinkedHashMap<>();
+        Map<String, Partition> newPartitions = new HashMap<>();
+        for (Task task : tasks) {
+            Long sequence = sequences.get(task);
+            if (sequence == null) {
+                sequence = nextSequence++; // New tasks are only ever appended to the list
+            }
+            newSequences.put(task, sequence);
+            String name = partitionOf(task);
+            groups.computeIfAbsent(name, key -> new ArrayList<>()).add(task);
+            newPartitions.computeIfAbsent(name, Partition::new).add(task, sequence);
+        }
+
+        boolean isChanged = false;
+        for (Map.Entry<String, List<Task>> group : groups.entrySet()) {
+            Partition partition = newPartitions.get(group.getKey());
+            if (partition.equals(partitions.get(group.getKey()))) {
+                continue; // Nothing in this partition changed since it was last written
+            }
+            writePartition(group.getKey(), group.getValue(), newSequences);
+            isChanged = true;
+        }
+        List<String> removed = new ArrayList<>();
+        for (String name : partitions.keySet()) {
+            if (!newPartitions.containsKey(name)) {
+                removed.add(name);
+            }
+        }
+        boolean isWritten = isChanged || !removed.isEmpty() || !Files.exists(directory.resolve(MANIFEST_NAME));
+        if (isWritten) {
+            writeManifest(newPartitions);
+        }
+        for (String name : removed) {
+            Files.deleteIfExists(directory.resolve(name + PARTITION_SUFFIX));
+        }
+
+        sequences = newSequences;
+        partitions = newPartitions;
+        if (isTrackingChanges) {
+            members = groups;
+            memberCount = tasks.size();
+            dirtyPartitions.clear();
+        }
+        return isWritten;
+    }
+
+    /**
+     * Rewrites the partitions whose tasks have changed since the last save, from the tracked groups.
+     *
+     * @return true if any partition had changed.
+     */
+    private boolean saveDirtyPartitions() throws IOException {
+        if (dirtyPartitions.isEmpty()) {
+            return false;
+        }
+        Map<String, Partition> newPartitions = new HashMap<>(partitions);
+        List<String> removed = new ArrayList<>();
+        try {
+            for (String name : dirtyPartitions) {
+                List<Task> group = members.get(name);
+                if (group == null || group.isEmpty()) {
+                    members.remove(name);
+                    newPartitions.remove(name);
+                    removed.add(name);
+                    continue;
+                }
+                Partition partition = new Partition(name);
+                for (Task task : group) {
+                    partition.add(task, sequences.get(task));
+                }
+                if (!partition.equals(partitions.get(name))) {
+                    writePartition(name, group, sequences);
+                }
+                newPartitions.put(name, partition);
+            }
+            writeManifest(newPartitions);
+            for (String name : removed) {
+                Files.deleteIfExists(directory.resolve(name + PARTITION_SUFFIX));
+            }
+        } catch (IOException e) {
+            members = null; // Group everything again on the next save
+            throw e;
+        }
+        partitions = newPartitions;
+        dirtyPartitions.clear();
+        return true;
+    }
+
+    /**
+     * Loads only the tasks that can fall on the given date: deadlines due that month, and events
+     * from partitions whose last covered day is not before the date. Todos are never read.
+     * The tasks are in list order, but are meant for read-only queries only.
+     *
+     * @param date The date to look up.
+     * @return The candidate tasks, or null if there is no manifest to choose partitions from.
+     * @throws IOException If an I/O error occurs.
+     */
+    public List<Task> loadTasksAround(LocalDate date) throws IOException {
+        Path manifest = directory.resolve(MANIFEST_NAME);
+        if (!Files.exists(manifest)) {
+            return null;
+        }
+        String month = YearMonth.from(date).toString();
+        Map<Task, Long> taskSequences = new IdentityHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(manifest, Charset.defaultCharset())) {
+            String line = reader.readLine();
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(" ");
+                String name = fields[0];
+                boolean isCandidate = !name.equals(TODO_PARTITION) && name.compareTo(month) <= 0
+                        && LocalDate.parse(fields[3]).compareTo(date) >= 0;
+                if (isCandidate) {
+                    readPartition(directory.resolve(name + PARTITION_SUFFIX), taskSequences::put);
+                }
+            }
+        }
+        List<Task> tasks = new ArrayList<>(taskSequences.keySet());
+        tasks.sort(Comparator.comparing(taskSequences::get));
+        return tasks;
+    }
+
+    private static String partitionOf(Task task) {
+        if (task instanceof Deadline) {
+            return YearMonth.from(((Deadline) task).getBy()).toString();
+        } else if (task instanceof Event) {
+            return YearMonth.from(((Event) task).getFrom()).toString();
+        }
+        return TODO_PARTITION;
+    }
+
+    private List<Path> listPartitionFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + PARTITION_SUFFIX)) {
+            for (Path file : stream) {
+                if (!file.getFileName().toString().equals(MANIFEST_NAME)) {
+                    files.add(file);
+                }
+            }
+        }
+        return files;
+    }
+
+    private static void readPartition(Path file, BiConsumer<Task, Long> consumer) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, Charset.defaultCharset())) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf(SEPARATOR);
+                consumer.accept(parseTask(line.substring(separator + SEPARATOR.length())),
+                        Long.parseLong(line.substring(0, separator)));
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("The partition " + file.getFileName() + " is corrupted.");
+        }
+    }
+
+    private void writePartition(String name, List<Task> tasks, Map<Task, Long> taskSequences) throws IOException {
+        writeAtomically(directory.resolve(name + PARTITION_SUFFIX), writer -> {
+            for (Task task : tasks) {
+                writer.write(Long.toString(taskSequences.get(task)));
+                writer.write(SEPARATOR);
+                writer.write(formatTask(task));
+                writer.newLine();
+            }
+        });
+    }
+
+    private void writeManifest(Map<String, Partition> manifest) throws IOException {
+        writeAtomically(directory.resolve(MANIFEST_NAME), writer -> {
+            writer.write(MANIFEST_HEADER);
+            writer.newLine();
+            for (Partition partition : manifest.values()) {
+                writer.write(partition.name + " " + partition.count + " " + partition.fingerprint + " "
+                        + partition.lastDay);
+                writer.newLine();
+            }
+        });
+    }
+
+    /**
+     * Writes a file next to its final location and moves it into place, so readers never see a partial file.
+     */
+    private static void writeAtomically(Path file, LineWriter content) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileOutputStream output = new FileOutputStream(temporary.toFile());
+                BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(output))) {
+            content.write(writer);
+            writer.flush();
+            if (IS_FSYNC_ENABLED) {
+                output.getFD().sync();
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes the lines of a file.
+     */
+    private interface LineWriter {
+        void write(BufferedWriter writer) throws IOException;
+    }
+
+    /**
+     * Summarises the contents of a partition. Two summaries are equal when the partition holds the
+     * same tasks, in the same order, with the same completion status.
+     */
+    private static class Partition {
+        private final String name;
+        private int count;
+        private long fingerprint;
+        private LocalDate lastDay = LocalDate.MIN;
+
+        Partition(String name) {
+            this.name = name;
+        }
+
+        void add(Task task, long sequence) {
+            count++;
+            // Descriptions and dates never change, so the sequence number stands for the task itself
+            fingerprint = fingerprint * 1_000_003L + sequence * 2 + (task.isDone() ? 1 : 0);
+            LocalDate day = task instanceof Deadline ? ((Deadline) task).getBy().toLocalDate()
+                    : task instanceof Event ? ((Event) task).getTo().toLocalDate() : LocalDate.MIN;
+            if (day.isAfter(lastDay)) {
+                lastDay = day;
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Partition)) {
+                return false;
+            }
+            Partition partition = (Partition) other;
+            return count == partition.count && fingerprint == partition.fingerprint;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(fingerprint) * 31 + count;
+        }
+    }
+
+    /**
+     * Reads one partition line by line during the merge, ordered by the sequence number of its current task.
+     */
+    private static class PartitionReader implements Comparable<PartitionReader> {
+        private final String name;
+        private final BufferedReader reader;
+        private final Partition partition;
+        private long sequence;
+        private Task task;
+
+        PartitionReader(Path file) throws IOException {
+            String fileName = file.getFileName().toString();
+            this.name = fileName.substring(0, fileName.length() - PARTITION_SUFFIX.length());
+            this.reader = Files.newBufferedReader(file, Charset.defaultCharset());
+            this.partition = new Partition(name);
+        }
+
+        /**
+         * Moves to the next task in the partition.
+         *
+         * @return false if the partition has no more tasks.
+         */
+        boolean advance() throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                return false;
+            }
+            try {
+                int separator = line.indexOf(SEPARATOR);
+                sequence = Long.parseLong(line.substring(0, separator));
+                task = parseTask(line.substring(separator + SEPARATOR.length()));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new IOException("The partition " + name + " is corrupted. Please fix or delete the file.");
+            }
+            partition.add(task, sequence);
+            return true;
+        }
+
+        void close() throws IOException {
+            reader.close();
+        }
+
+        @Override
+        public int compareTo(PartitionReader other) {
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -1,16 +1,27 @@
 package gilu.storage;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
+import java.util.function.Consumer;
 
+import gilu.metrics.StorageLoadEvent;
+import gilu.metrics.StorageSaveEvent;
 import gilu.task.Deadline;
 import gilu.task.Event;
 import gilu.task.Task;
@@ -21,8 +32,45 @@ import gilu.task.Todo;
  * Handles saving and loading of tasks to/from the disk.
  */
 public class Storage {
+    /**
+     * Whether saves are forced to disk before returning, configurable with {@code -Dgilu.storage.fsync}.
+     */
+    static final boolean IS_FSYNC_ENABLED = Boolean.parseBoolean(
+            System.getProperty("gilu.storage.fsync", "true"));
+
+    /**
+     * The charset of the task file. Exports in the native format are written with it too.
+     */
+    static final Charset CHARSET = Charset.defaultCharset();
+
+    /**
+     * Whether tasks are stored in monthly partitions, configurable with {@code -Dgilu.storage.partitioned}.
+     */
+    private static final boolean IS_PARTITIONED = Boolean.getBoolean("gilu.storage.partitioned");
+
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+    private static final int DEFAULT_BATCH_SIZE = 10_000;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
     private final String filePath;
+    private final ArchiveStorage archive;
+    private final StorageCoordinator coordinator;
+
+    // The file as this process last loaded, saved or read it, so that saves and reloads only touch the tail
+    // that changed
+    private final List<Task> savedTasks = new ArrayList<>();
+    private final BitSet savedDone = new BitSet();
+
+    /**
+     * The byte offset of each saved line followed by the length of the file, or null if not known.
+     */
+    private long[] lineStarts;
+
+    /**
+     * The version of the file in the version file when this process last loaded, saved or read it,
+     * or -1 if it has not loaded it.
+     */
+    private long knownVersion = -1;
 
     /**
      * Constructs a Storage object with the given file path.
@@ -30,8 +78,108 @@ public class Storage {
      * @param filePath The file path where tasks are stored.
      */
     public Storage(String filePath) {
+        this(filePath, true);
+    }
+
+    /**
+     * Constructs a Storage object with the given file path, creating the file only if asked to.
+     *
+     * @param filePath     The file path where tasks are stored.
+     * @param isFileNeeded Whether to create the file and its directories if they do not exist.
+     */
+    Storage(String filePath, boolean isFileNeeded) {
         this.filePath = filePath;
-        ensureFileExists();
+        this.archive = new ArchiveStorage(stripExtension(filePath) + ".archive.gz");
+        this.coordinator = new StorageCoordinator(siblingPath(".lock"), siblingPath(".version"));
+        if (isFileNeeded) {
+            ensureFileExists();
+        }
+    }
+
+    /**
+     * Opens the storage for the given file path, using monthly partitions if {@code -Dgilu.storage.partitioned}
+     * is set. Partitions are kept in a directory named after the file, such as {@code data/gilu/}. Tasks that
+     * have been migrated into partitions stay there even without the property.
+     *
+     * @param filePath The file path where tasks are stored.
+     * @return The storage to use.
+     */
+    public static Storage open(String filePath) {
+        String directory = stripExtension(filePath);
+        if (IS_PARTITIONED || PartitionedStorage.hasManifest(Paths.get(directory))) {
+            return new PartitionedStorage(filePath, directory);
+        }
+        return new Storage(filePath);
+    }
+
+    private static String stripExtension(String filePath) {
+        return filePath.replaceFirst("\\.[^./\\\\]*$", "");
+    }
+
+    /**
+     * Returns the path of a file kept next to the storage file, named after it with another extension.
+     */
+    private Path siblingPath(String extension) {
+        return Paths.get(stripExtension(filePath) + extension);
+    }
+
+    /**
+     * Returns the path of the file where tasks are stored.
+     *
+     * @return The storage file path.
+     */
+    public String getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Returns the file whose length, modification time and checksum change whenever the stored tasks do.
+     *
+     * @return The file to stamp derived data with.
+     */
+    public Path getStampFile() {
+        return Paths.get(filePath);
+    }
+
+    /**
+     * Returns the file for the search index kept next to the storage file, such as {@code gilu.index}
+     * for {@code gilu.txt}.
+     *
+     * @return The index file path.
+     */
+    public Path getIndexPath() {
+        return siblingPath(".index");
+    }
+
+    /**
+     * Returns the file for the metrics report kept next to the storage file, such as {@code gilu.metrics.txt}
+     * for {@code gilu.txt}.
+     *
+     * @return The metrics file path.
+     */
+    public Path getMetricsPath() {
+        return siblingPath(".metrics.txt");
+    }
+
+    /**
+     * Returns every file this storage reads or writes, whether or not it exists yet, so that other
+     * commands can avoid writing over them.
+     *
+     * @return The storage file and the files kept next to it.
+     * @throws IOException If the files cannot be listed.
+     */
+    public List<Path> getFiles() throws IOException {
+        return List.of(Paths.get(filePath), archive.getPath(), siblingPath(".lock"), siblingPath(".version"),
+                getIndexPath(), getMetricsPath());
+    }
+
+    /**
+     * Returns the archive kept next to the storage file, such as {@code gilu.archive.gz} for {@code gilu.txt}.
+     *
+     * @return The archive of this storage.
+     */
+    public ArchiveStorage getArchive() {
+        return archive;
     }
 
     /**
@@ -57,39 +205,429 @@ public class Storage {
      */
     public List<Task> loadTasks() throws IOException {
         List<Task> tasks = new ArrayList<>();
+        loadTasks(DEFAULT_BATCH_SIZE, tasks::addAll);
+        return tasks;
+    }
+
+    /**
+     * Streams tasks from the file in batches, so that callers can use the first tasks
+     * before the whole file has been read. If the file does not exist, no batch is delivered.
+     *
+     * @param batchSize The maximum number of tasks per batch.
+     * @param consumer  Receives each batch of tasks, in file order.
+     * @return The total number of tasks loaded.
+     * @throws IOException If an I/O error occurs or the file format is corrupted.
+     */
+    public int loadTasks(int batchSize, Consumer<List<Task>> consumer) throws IOException {
+        assert batchSize > 0 : "Batch size should be positive";
+        lock(true);
+        try {
+            rememberVersion();
+            savedTasks.clear();
+            savedDone.clear();
+            lineStarts = null;
+            return readTasks(batchSize, consumer);
+        } finally {
+            unlock();
+        }
+    }
+
+    private int readTasks(int batchSize, Consumer<List<Task>> consumer) throws IOException {
         File file = new File(filePath);
         if (!file.exists()) {
-            return tasks; // Return empty list if file does not exist
+            return 0; // Nothing to load if file does not exist
         }
 
+        StorageLoadEvent event = new StorageLoadEvent();
+        event.begin();
+        int lineCount = 0;
+        int count = 0;
+        List<Task> batch = new ArrayList<>();
+        long[] starts = new long[16];
+        long position = 0;
+        int separatorLength = System.lineSeparator().length();
         try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
             String line;
             while ((line = reader.readLine()) != null) {
+                lineCount++;
                 Task task = parseTask(line);
-                if (task != null) {
-                    tasks.add(task);
+                if (task == null) {
+                    continue;
+                }
+                if (savedTasks.size() + 1 >= starts.length) {
+                    starts = Arrays.copyOf(starts, starts.length * 2);
+                }
+                starts[savedTasks.size()] = position;
+                position += encodedLength(line) + separatorLength;
+                savedDone.set(savedTasks.size(), task.isDone());
+                savedTasks.add(task);
+                batch.add(task);
+                count++;
+                if (batch.size() >= batchSize) {
+                    consumer.accept(batch);
+                    batch = new ArrayList<>();
                 }
             }
+            // The offsets only hold if every line ended with this platform's separator
+            starts[savedTasks.size()] = position;
+            lineStarts = position == file.length() ? starts : null;
+            event.setSucceeded(true);
         } catch (IllegalArgumentException e) {
             throw new IOException("The file format is corrupted. Please fix or delete the file.");
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.setFile(filePath);
+                event.setBytes(file.length());
+                event.setLineCount(lineCount);
+                event.commit();
+            }
         }
 
-        return tasks;
+        if (!batch.isEmpty()) {
+            consumer.accept(batch);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of bytes a line takes in the file.
+     */
+    private static int encodedLength(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) >= 0x80) {
+                return line.getBytes(CHARSET).length;
+            }
+        }
+        return line.length();
     }
 
     /**
-     * Saves the given list of tasks to the file.
+     * Saves the given list of tasks to the file. Only the lines from the first task that differs from the
+     * last save onwards are written, so adding a task appends a line.
      *
      * @param tasks The list of tasks to save.
-     * @throws IOException If an I/O error occurs.
+     * @throws IOException If an I/O error occurs, or if another process has saved since these tasks were
+     *                     loaded or last saved.
      */
     public void saveTasks(List<Task> tasks) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            for (Task task : tasks) {
-                writer.write(formatTask(task));
-                writer.newLine();
+        StorageSaveEvent event = new StorageSaveEvent();
+        event.begin();
+        long fsyncNanos = 0;
+        lock(false);
+        try {
+            StorageCoordinator.VersionLog log = checkVersion();
+            int fromTask = findFirstChange(tasks);
+            if (fromTask < tasks.size() || fromTask < savedTasks.size()) {
+                long fromByte = fromTask == 0 ? 0 : lineStarts[fromTask];
+                fsyncNanos = writeTail(tasks, fromTask, fromByte);
+                recordSave(log, fromTask, fromByte);
+            }
+            event.setSucceeded(true);
+        } finally {
+            unlock();
+            event.end();
+            if (event.shouldCommit()) {
+                event.setFile(filePath);
+                event.setBytes(new File(filePath).length());
+                event.setLineCount(tasks.size());
+                event.setFsyncNanos(fsyncNanos);
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Returns the position of the first task that is not saved as it is now.
+     */
+    private int findFirstChange(List<Task> tasks) {
+        if (lineStarts == null || new File(filePath).length() != lineStarts[savedTasks.size()]) {
+            return 0; // Rewrite everything if the file is not as this process left it
+        }
+        int common = Math.min(tasks.size(), savedTasks.size());
+        for (int i = 0; i < common; i++) {
+            Task task = tasks.get(i);
+            if (task != savedTasks.get(i) || task.isDone() != savedDone.get(i)) {
+                return i;
             }
         }
+        return common;
+    }
+
+    /**
+     * Cuts the file at a task's line and writes that task and the ones after it.
+     *
+     * @return The time spent forcing the file to disk.
+     */
+    private long writeTail(List<Task> tasks, int fromTask, long fromByte) throws IOException {
+        long[] starts = new long[tasks.size() + 1];
+        if (fromTask > 0) {
+            System.arraycopy(lineStarts, 0, starts, 0, fromTask);
+        }
+        lineStarts = null; // Unknown until the write succeeds
+        forgetFrom(fromTask);
+        long fsyncNanos = 0;
+        Charset charset = CHARSET;
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            channel.truncate(fromByte);
+            channel.position(fromByte);
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+            long position = fromByte;
+            for (int i = fromTask; i < tasks.size(); i++) {
+                Task task = tasks.get(i);
+                byte[] line = (formatTask(task) + System.lineSeparator()).getBytes(charset);
+                if (line.length > buffer.remaining()) {
+                    flush(channel, buffer);
+                }
+                if (line.length > buffer.capacity()) {
+                    writeFully(channel, ByteBuffer.wrap(line));
+                } else {
+                    buffer.put(line);
+                }
+                starts[i] = position;
+                position += line.length;
+                savedDone.set(savedTasks.size(), task.isDone());
+                savedTasks.add(task);
+            }
+            flush(channel, buffer);
+            if (IS_FSYNC_ENABLED) {
+                long fsyncStart = System.nanoTime();
+                channel.force(false); // Make sure the tasks survive a crash
+                fsyncNanos = System.nanoTime() - fsyncStart;
+            }
+            starts[tasks.size()] = position;
+        }
+        lineStarts = starts;
+        return fsyncNanos;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        writeFully(channel, buffer);
+        buffer.clear();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void forgetFrom(int fromTask) {
+        savedTasks.subList(fromTask, savedTasks.size()).clear();
+        savedDone.clear(fromTask, Math.max(fromTask, savedDone.length()));
+    }
+
+    /**
+     * Runs an action while the storage file is locked against saves by other processes, so that
+     * picking up their changes, changing the tasks and saving them cannot interleave with theirs.
+     *
+     * @param action The action to run.
+     */
+    public void runWithWriteLock(Runnable action) {
+        lock(false);
+        try {
+            action.run();
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * Locks the storage against other threads and processes. Every call must be followed by {@link #unlock()}.
+     *
+     * @param isShared Whether other processes may still read.
+     */
+    void lock(boolean isShared) {
+        coordinator.lock(isShared);
+    }
+
+    /**
+     * Releases one hold of the lock taken by {@link #lock(boolean)}.
+     */
+    void unlock() {
+        coordinator.unlock();
+    }
+
+    /**
+     * Remembers the current version as the one this process has loaded. Should be called with the storage locked.
+     *
+     * @throws IOException If the version file cannot be read.
+     */
+    void rememberVersion() throws IOException {
+        knownVersion = coordinator.readLog().getVersion();
+    }
+
+    /**
+     * Returns whether another process has saved since this process last loaded or saved the tasks.
+     * Should be called with the storage locked.
+     *
+     * @return false if nothing was saved since, or the tasks were never loaded.
+     * @throws IOException If the version file cannot be read.
+     */
+    boolean isChangedElsewhere() throws IOException {
+        return knownVersion >= 0 && coordinator.readLog().getVersion() != knownVersion;
+    }
+
+    /**
+     * Checks that no other process has saved since this process last loaded or saved the tasks.
+     * Should be called with the storage locked for writing.
+     *
+     * @return The version file, to record the save in.
+     * @throws IOException If another process has saved, or the version file cannot be read.
+     */
+    StorageCoordinator.VersionLog checkVersion() throws IOException {
+        StorageCoordinator.VersionLog log = coordinator.readLog();
+        if (knownVersion >= 0 && log.getVersion() != knownVersion) {
+            throw new IOException("Another Gilu has changed the tasks since they were loaded, "
+                    + "so this change was not saved.");
+        }
+        return log;
+    }
+
+    /**
+     * Records a save as the new version, which this process then knows. Should be called with the storage
+     * locked for writing, after {@link #checkVersion()}.
+     *
+     * @param log      The version file returned by {@link #checkVersion()}.
+     * @param fromTask The first task the save rewrote.
+     * @param fromByte The first byte of the storage file the save rewrote.
+     * @throws IOException If the version file cannot be written.
+     */
+    void recordSave(StorageCoordinator.VersionLog log, int fromTask, long fromByte) throws IOException {
+        knownVersion = log.getVersion() + 1;
+        coordinator.recordSave(log, new StorageCoordinator.SaveRecord(knownVersion, fromTask, fromByte));
+    }
+
+    /**
+     * Copies the storage file to a channel, without passing it through the heap, if it holds exactly the given
+     * tasks as they are now. That is only known if this process has loaded or saved the file since any other
+     * process saved it, and the tasks have not changed since.
+     *
+     * @param tasks  The tasks the copy should hold.
+     * @param target The channel to copy to.
+     * @return true if the file was copied, or false, with nothing copied, if it may not hold the tasks.
+     * @throws IOException If an I/O error occurs.
+     */
+    public boolean copySavedTasks(List<Task> tasks, WritableByteChannel target) throws IOException {
+        coordinator.lock(true);
+        try {
+            if (knownVersion < 0 || lineStarts == null || coordinator.readLog().getVersion() != knownVersion
+                    || tasks.size() != savedTasks.size() || findFirstChange(tasks) < tasks.size()) {
+                return false;
+            }
+            try (FileChannel source = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+                long size = source.size();
+                long position = 0;
+                while (position < size) {
+                    position += source.transferTo(position, size - position, target);
+                }
+            }
+            return true;
+        } finally {
+            coordinator.unlock();
+        }
+    }
+
+    /**
+     * Calls back on a background thread whenever a process, including this one, may have saved the tasks.
+     *
+     * @param onChange Called after each save.
+     */
+    public void watchExternalChanges(Runnable onChange) {
+        coordinator.watch(onChange);
+    }
+
+    /**
+     * Stops calling back on saves, if {@link #watchExternalChanges(Runnable)} was called.
+     */
+    public void stopWatchingExternalChanges() {
+        coordinator.stopWatching();
+    }
+
+    /**
+     * Reads the tasks that other processes have saved since this process last loaded, saved or read them.
+     * Only the part of the file from the first changed task onwards is read, unless too many saves were
+     * made to tell where the changes start.
+     *
+     * @return The changed tasks, or null if nothing has changed or the tasks were never loaded.
+     * @throws IOException If the file cannot be read or is corrupted.
+     */
+    public ExternalChanges readExternalChanges() throws IOException {
+        if (knownVersion < 0) {
+            return null;
+        }
+        coordinator.lock(true);
+        try {
+            StorageCoordinator.VersionLog log = coordinator.readLog();
+            if (log.getVersion() == knownVersion) {
+                return null;
+            }
+            StorageCoordinator.SaveRecord since = log.findChangesSince(knownVersion);
+            int fromTask = since.getFromTask();
+            long fromByte = since.getFromByte();
+            if (fromTask > savedTasks.size()) {
+                fromTask = 0; // Out of step with the file, so read all of it
+                fromByte = 0;
+            }
+            List<Task> tail = readTail(fromTask, fromByte);
+            knownVersion = log.getVersion();
+            return new ExternalChanges(fromTask, tail);
+        } finally {
+            coordinator.unlock();
+        }
+    }
+
+    /**
+     * Reads the tasks from a task's line to the end of the file, and remembers them as saved.
+     */
+    private List<Task> readTail(int fromTask, long fromByte) throws IOException {
+        List<Task> tail = new ArrayList<>();
+        long[] starts = null;
+        if (fromTask == 0 || lineStarts != null) {
+            starts = lineStarts == null ? new long[16] : Arrays.copyOf(lineStarts, Math.max(16, fromTask + 1));
+        }
+        lineStarts = null; // Unknown until the read succeeds
+        forgetFrom(fromTask);
+        Charset charset = CHARSET;
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (fromByte > length) {
+                throw new IOException("The task file is shorter than another Gilu recorded.");
+            }
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, fromByte, length - fromByte);
+            int lineStart = 0;
+            for (int i = 0; i <= bytes.limit(); i++) {
+                if (i < bytes.limit() && bytes.get(i) != '\n') {
+                    continue;
+                }
+                int lineEnd = i > lineStart && bytes.get(i - 1) == '\r' ? i - 1 : i;
+                if (lineEnd > lineStart || i < bytes.limit()) {
+                    byte[] line = new byte[lineEnd - lineStart];
+                    bytes.get(lineStart, line);
+                    Task task = parseTask(new String(line, charset));
+                    if (starts != null) {
+                        int position = fromTask + tail.size();
+                        if (position + 1 >= starts.length) {
+                            starts = Arrays.copyOf(starts, starts.length * 2);
+                        }
+                        starts[position] = fromByte + lineStart;
+                    }
+                    savedDone.set(savedTasks.size(), task.isDone());
+                    savedTasks.add(task);
+                    tail.add(task);
+                }
+                lineStart = i + 1;
+            }
+            if (starts != null) {
+                starts[fromTask + tail.size()] = length;
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("The file format is corrupted. Please fix or delete the file.");
+        }
+        lineStarts = starts;
+        return tail;
     }
 
     /**
@@ -97,8 +635,9 @@ public class Storage {
      *
      * @param line A line from the file.
      * @return A Task object or null if the line is invalid.
+     * @throws IllegalArgumentException If the line is not in the storage format.
      */
-    private Task parseTask(String line) {
+    public static Task parseTask(String line) {
         String[] parts = line.split(" \\| ");
         if (parts.length < 3) {
             throw new IllegalArgumentException("Invalid task format: " + line);
@@ -113,11 +652,11 @@ public class Storage {
             case "T":
                 return new Todo(description, isDone);
             case "D":
-                LocalDateTime by = LocalDateTime.parse(parts[3], DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm"));
+                LocalDateTime by = LocalDateTime.parse(parts[3], DATE_TIME_FORMATTER);
                 return new Deadline(description, by, isDone);
             case "E":
-                LocalDateTime from = LocalDateTime.parse(parts[3], DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm"));
-                LocalDateTime to = LocalDateTime.parse(parts[4], DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm"));
+                LocalDateTime from = LocalDateTime.parse(parts[3], DATE_TIME_FORMATTER);
+                LocalDateTime to = LocalDateTime.parse(parts[4], DATE_TIME_FORMATTER);
                 return new Event(description, from, to, isDone);
             default:
                 throw new IllegalArgumentException("Unknown task type: " + type);
@@ -133,19 +672,18 @@ public class Storage {
      * @param task The Task object.
      * @return A string representing the task.
      */
-    private String formatTask(Task task) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+    public static String formatTask(Task task) {
         if (task instanceof Todo) {
             return "T | " + (task.isDone() ? "1" : "0") + " | " + task.getDescription();
         } else if (task instanceof Deadline) {
             Deadline deadline = (Deadline) task;
             return "D | " + (task.isDone() ? "1" : "0") + " | "
-                    + task.getDescription() + " | " + deadline.getBy().format(formatter);
+                    + task.getDescription() + " | " + deadline.getBy().format(DATE_TIME_FORMATTER);
         } else if (task instanceof Event) {
             Event event = (Event) task;
             return "E | " + (task.isDone() ? "1" : "0") + " | "
-                    + task.getDescription() + " | " + event.getFrom().format(formatter)
-                    + " | " + event.getTo().format(formatter);
+                    + task.getDescription() + " | " + event.getFrom().format(DATE_TIME_FORMATTER)
+                    + " | " + event.getTo().format(DATE_TIME_FORMATTER);
         }
         throw new IllegalArgumentException("Unknown task type: " + task);
     }
@@ -0,0 +1,291 @@
+package gilu.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Coordinates Gilu processes that share one storage file, through a lock file and a version file next to it.
+ *
+ * <p>Every save increments the version in the version file and records the first task and byte it rewrote.
+ * The most recent saves are kept, so a process that last saw an earlier version can tell how much of the
+ * storage file it has to read again.</p>
+ */
+final class StorageCoordinator {
+    private static final Logger LOGGER = Logger.getLogger(StorageCoordinator.class.getName());
+    private static final String VERSION_HEADER = "gilu-version 1";
+    private static final int MAX_RECENT_SAVES = 64;
+
+    /**
+     * The lock of every lock file used by this process. File locks belong to the whole process, so storages
+     * of the same file within one process share one.
+     */
+    private static final Map<Path, ProcessLock> LOCKS = new ConcurrentHashMap<>();
+
+    private final Path versionPath;
+    private final ProcessLock lock;
+    private Thread watcher;
+
+    StorageCoordinator(Path lockPath, Path versionPath) {
+        this.versionPath = versionPath;
+        this.lock = LOCKS.computeIfAbsent(lockPath.toAbsolutePath().normalize(), ProcessLock::new);
+    }
+
+    /**
+     * Locks the storage file against other threads and processes, waiting for them to release it. A shared
+     * lock keeps out writers in other processes but not readers. If the file cannot be locked, a warning is
+     * logged and the caller carries on with only the other threads of this process locked out.
+     *
+     * @param isShared Whether other processes may still read.
+     */
+    void lock(boolean isShared) {
+        lock.lock(isShared);
+    }
+
+    /**
+     * Releases one hold of the lock, unlocking the file once every hold has been released.
+     */
+    void unlock() {
+        lock.unlock();
+    }
+
+    /**
+     * Reads the version file. Should be called with the storage locked.
+     *
+     * @return The versions, with version 0 and no saves if no process has saved yet.
+     * @throws IOException If the file cannot be read or is corrupted.
+     */
+    VersionLog readLog() throws IOException {
+        VersionLog log = new VersionLog();
+        if (!Files.exists(versionPath)) {
+            return log;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(versionPath, StandardCharsets.UTF_8)) {
+            if (!VERSION_HEADER.equals(reader.readLine())) {
+                throw new IOException("Unknown version file format: " + versionPath);
+            }
+            String line = reader.readLine();
+            if (line == null) {
+                throw new IOException("The version file is corrupted: " + versionPath);
+            }
+            log.version = Long.parseLong(line.trim());
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(" ");
+                log.saves.add(new SaveRecord(Long.parseLong(fields[0]), Integer.parseInt(fields[1]),
+                        Long.parseLong(fields[2])));
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("The version file is corrupted: " + versionPath);
+        }
+        return log;
+    }
+
+    /**
+     * Records a save as the new version. Should be called with the storage locked for writing.
+     *
+     * @param log  The version file as read before the save.
+     * @param save The save that was made.
+     * @throws IOException If the file cannot be written.
+     */
+    void recordSave(VersionLog log, SaveRecord save) throws IOException {
+        log.version = save.version;
+        log.saves.add(save);
+        if (log.saves.size() > MAX_RECENT_SAVES) {
+            log.saves.subList(0, log.saves.size() - MAX_RECENT_SAVES).clear();
+        }
+        Path temporary = versionPath.resolveSibling(versionPath.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            writer.write(VERSION_HEADER);
+            writer.newLine();
+            writer.write(Long.toString(log.version));
+            writer.newLine();
+            for (SaveRecord record : log.saves) {
+                writer.write(record.version + " " + record.fromTask + " " + record.fromByte);
+                writer.newLine();
+            }
+        }
+        Files.move(temporary, versionPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Calls back on a new daemon thread whenever the version file changes, including after saves
+     * by this process.
+     *
+     * @param onChange Called after each change.
+     */
+    synchronized void watch(Runnable onChange) {
+        Path directory = versionPath.toAbsolutePath().getParent();
+        Path versionName = versionPath.getFileName();
+        watcher = new Thread(() -> {
+            try (WatchService service = directory.getFileSystem().newWatchService()) {
+                directory.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+                while (true) {
+                    WatchKey key = service.take();
+                    boolean isChanged = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        // An overflow means events were lost, so the version file may have changed
+                        isChanged |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                                || versionName.equals(event.context());
+                    }
+                    if (isChanged) {
+                        onChange.run();
+                    }
+                    if (!key.reset()) {
+                        LOGGER.warning("Stopped watching " + directory + " for changes by other processes");
+                        return;
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.warning("Error watching " + directory + ": " + e.getMessage());
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // Stop watching
+            }
+        }, "gilu-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Stops calling back on changes to the version file, if it is being watched.
+     */
+    synchronized void stopWatching() {
+        if (watcher != null) {
+            watcher.interrupt();
+            watcher = null;
+        }
+    }
+
+    /**
+     * Locks one lock file for this process. A thread that holds the lock may take it again.
+     */
+    private static class ProcessLock {
+        private final Path path;
+        private final ReentrantLock threadLock = new ReentrantLock();
+        private FileChannel channel;
+        private int depth;
+
+        ProcessLock(Path path) {
+            this.path = path;
+        }
+
+        void lock(boolean isShared) {
+            threadLock.lock();
+            if (depth++ > 0) {
+                return;
+            }
+            try {
+                Files.createDirectories(path.getParent());
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+                channel.lock(0, Long.MAX_VALUE, isShared);
+            } catch (IOException | OverlappingFileLockException e) {
+                LOGGER.warning("Error locking " + path + ": " + e.getMessage());
+                closeChannel();
+            }
+        }
+
+        void unlock() {
+            assert threadLock.isHeldByCurrentThread() : "Storage should be locked before it is unlocked";
+            if (--depth == 0) {
+                closeChannel();
+            }
+            threadLock.unlock();
+        }
+
+        private void closeChannel() {
+            try {
+                if (channel != null) {
+                    channel.close(); // Also releases the lock
+                }
+            } catch (IOException e) {
+                LOGGER.warning("Error unlocking " + path + ": " + e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    /**
+     * The contents of the version file.
+     */
+    static class VersionLog {
+        private long version;
+        private final List<SaveRecord> saves = new ArrayList<>();
+
+        long getVersion() {
+            return version;
+        }
+
+        /**
+         * Returns where the earliest change since a version starts, or the start of the file if some
+         * of the saves since then are no longer recorded.
+         *
+         * @param knownVersion The version last seen.
+         * @return The first task and byte that may have changed.
+         */
+        SaveRecord findChangesSince(long knownVersion) {
+            if (knownVersion > version) {
+                return new SaveRecord(version, 0, 0); // The version file was reset
+            }
+            int fromTask = Integer.MAX_VALUE;
+            long fromByte = Long.MAX_VALUE;
+            long expectedVersion = knownVersion + 1;
+            for (SaveRecord save : saves) {
+                if (save.version < expectedVersion) {
+                    continue;
+                }
+                if (save.version > expectedVersion) {
+                    break;
+                }
+                fromTask = Math.min(fromTask, save.fromTask);
+                fromByte = Math.min(fromByte, save.fromByte);
+                expectedVersion++;
+            }
+            if (expectedVersion <= version) {
+                return new SaveRecord(version, 0, 0); // Saves are missing, so read everything again
+            }
+            return new SaveRecord(version, fromTask, fromByte);
+        }
+    }
+
+    /**
+     * One save: the version it created and the first task and byte it rewrote.
+     */
+    static class SaveRecord {
+        private final long version;
+        private final int fromTask;
+        private final long fromByte;
+
+        SaveRecord(long version, int fromTask, long fromByte) {
+            this.version = version;
+            this.fromTask = fromTask;
+            this.fromByte = fromByte;
+        }
+
+        int getFromTask() {
+            return fromTask;
+        }
+
+        long getFromByte() {
+            return fromByte;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package gilu.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import gilu.task.Deadline;
+import gilu.task.Event;
+import gilu.task.Task;
+
+/**
+ * Exports tasks to a file through an NIO channel, encoding one task at a time into a fixed-size
+ * buffer so that memory use does not depend on the number of tasks.
+ */
+public class TaskExporter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter ICS_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final int ICS_LINE_LIMIT = 75;
+
+    /**
+     * Writes the tasks to the target file in the given format, replacing the file if it exists. The file is
+     * written next to the target and moved into place, so the target is never left half written.
+     *
+     * @param tasks   The tasks to export, in list order.
+     * @param format  The target format.
+     * @param target  The file to write, which must not be one of the files of the storage.
+     * @param storage The storage holding the saved tasks, copied directly for the {@code GILU} format
+     *                if it holds the tasks as they are now.
+     * @return The number of tasks exported.
+     * @throws IOException If the target is a file of the storage or an I/O error occurs.
+     */
+    public int export(List<Task> tasks, TransferFormat format, Path target, Storage storage) throws IOException {
+        for (Path file : storage.getFiles()) {
+            if (isSameFile(file, target)) {
+                throw new IOException(target + " is where Gilu keeps its own data. Please export to another file.");
+            }
+        }
+        createParentDirectories(target);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                if (format != TransferFormat.GILU || !storage.copySavedTasks(tasks, channel)) {
+                    // The native format uses the charset of the task file, so that it can be imported again
+                    Charset charset = format == TransferFormat.GILU ? Storage.CHARSET : StandardCharsets.UTF_8;
+                    try (ChannelWriter writer = new ChannelWriter(channel, charset)) {
+                        write(writer, tasks, format);
+                    }
+                }
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return tasks.size();
+    }
+
+    private static void write(ChannelWriter writer, List<Task> tasks, TransferFormat format) throws IOException {
+        switch (format) {
+        case GILU:
+            for (Task task : tasks) {
+                writer.write(Storage.formatTask(task)).write(System.lineSeparator());
+            }
+            break;
+        case CSV:
+            writer.write("type,done,description,start,end\r\n");
+            for (Task task : tasks) {
+                writeCsv(writer, task);
+            }
+            break;
+        case JSONL:
+            for (Task task : tasks) {
+                writeJson(writer, task);
+            }
+            break;
+        case ICS:
+            writeIcs(writer, tasks);
+            break;
+        default:
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+    }
+
+    /**
+     * Returns whether two paths name the same file, even if neither exists yet.
+     */
+    private static boolean isSameFile(Path file, Path target) throws IOException {
+        if (file.toAbsolutePath().normalize().equals(target.toAbsolutePath().normalize())) {
+            return true;
+        }
+        return Files.exists(file) && Files.exists(target) && Files.isSameFile(file, target);
+    }
+
+    private static void writeCsv(ChannelWriter writer, Task task) throws IOException {
+        writer.write(typeCode(task)).write(",").write(task.isDone() ? "true" : "false").write(",")
+                .write(csvField(task.getDescription())).write(",");
+        if (task instanceof Deadline) {
+            writer.write(((Deadline) task).getBy().toString()).write(",");
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            writer.write(event.getFrom().toString()).write(",").write(event.getTo().toString());
+        } else {
+            writer.write(",");
+        }
+        writer.write("\r\n");
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static void writeJson(ChannelWriter writer, Task task) throws IOException {
+        writer.write("{\"type\":\"").write(typeCode(task)).write("\",\"done\":")
+                .write(task.isDone() ? "true" : "false").write(",\"description\":")
+                .write(jsonString(task.getDescription()));
+        if (task instanceof Deadline) {
+            writer.write(",\"by\":\"").write(((Deadline) task).getBy().toString()).write("\"");
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            writer.write(",\"from\":\"").write(event.getFrom().toString()).write("\",\"to\":\"")
+                    .write(event.getTo().toString()).write("\"");
+        }
+        writer.write("}\n");
+    }
+
+    private static String jsonString(String value) {
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"':
+                json.append("\\\"");
+                break;
+            case '\\':
+                json.append("\\\\");
+                break;
+            case '\n':
+                json.append("\\n");
+                break;
+            case '\r':
+                json.append("\\r");
+                break;
+            case '\t':
+                json.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    json.append(String.format("\\u%04x", (int) c));
+                } else {
+                    json.append(c);
+                }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    private static void writeIcs(ChannelWriter writer, List<Task> tasks) throws IOException {
+        String stamp = LocalDateTime.now(ZoneOffset.UTC).format(ICS_DATE_TIME) + "Z";
+        writer.write("BEGIN:VCALENDAR\r\nVERSION:2.0\r\nPRODID:-//Gilu//Task Manager//EN\r\n");
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            String component = task instanceof Event ? "VEVENT" : "VTODO";
+            writer.write("BEGIN:").write(component).write("\r\n");
+            writer.write("UID:gilu-").write(Integer.toString(i + 1)).write("-").write(stamp).write("@gilu\r\n");
+            writer.write("DTSTAMP:").write(stamp).write("\r\n");
+            writeIcsLine(writer, "SUMMARY:" + icsText(task.getDescription()));
+            if (task instanceof Deadline) {
+                writer.write("DUE:").write(((Deadline) task).getBy().format(ICS_DATE_TIME)).write("\r\n");
+            } else if (task instanceof Event) {
+                Event event = (Event) task;
+                writer.write("DTSTART:").write(event.getFrom().format(ICS_DATE_TIME)).write("\r\n");
+                writer.write("DTEND:").write(event.getTo().format(ICS_DATE_TIME)).write("\r\n");
+            }
+            if (task instanceof Event) {
+                writer.write(task.isDone() ? "X-GILU-DONE:TRUE\r\n" : "X-GILU-DONE:FALSE\r\n");
+            } else {
+                writer.write(task.isDone() ? "STATUS:COMPLETED\r\n" : "STATUS:NEEDS-ACTION\r\n");
+            }
+            writer.write("END:").write(component).write("\r\n");
+        }
+        writer.write("END:VCALENDAR\r\n");
+    }
+
+    private static String icsText(String value) {
+        return value.replace("\\", "\\\\").replace(";", "\\;").replace(",", "\\,").replace("\n", "\\n");
+    }
+
+    /**
+     * Writes a content line, folding it after {@value #ICS_LINE_LIMIT} characters as iCalendar requires.
+     */
+    private static void writeIcsLine(ChannelWriter writer, String line) throws IOException {
+        int start = 0;
+        while (line.length() - start > ICS_LINE_LIMIT) {
+            writer.write(line.substring(start, start + ICS_LINE_LIMIT)).write("\r\n ");
+            start += ICS_LINE_LIMIT;
+        }
+        writer.write(line.substring(start)).write("\r\n");
+    }
+
+    private static String typeCode(Task task) {
+        return task instanceof Deadline ? "D" : task instanceof Event ? "E" : "T";
+    }
+
+    private static void createParentDirectories(Path target) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            parent.toFile().mkdirs();
+        }
+    }
+
+    /**
+     * Encodes text into a fixed buffer and writes the buffer to a file channel whenever it fills up.
+     * Closing the writer closes the channel.
+     */
+    private static class ChannelWriter implements Closeable {
+        private final FileChannel channel;
+        private final CharsetEncoder encoder;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        ChannelWriter(FileChannel channel, Charset charset) {
+            this.channel = channel;
+            // Replaces what the charset cannot encode, as Storage does when it writes the task file
+            this.encoder = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        ChannelWriter write(String text) throws IOException {
+            CharBuffer chars = CharBuffer.wrap(text);
+            while (true) {
+                CoderResult result = encoder.encode(chars, buffer, false);
+                if (result.isOverflow()) {
+                    drain();
+                } else if (result.isError()) {
+                    result.throwException();
+                } else {
+                    return this;
+                }
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                drain();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
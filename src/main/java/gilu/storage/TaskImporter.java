@@ -0,0 +1,341 @@
+package gilu.storage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import gilu.task.Deadline;
+import gilu.task.Event;
+import gilu.task.Task;
+import gilu.task.Todo;
+
+/**
+ * Imports tasks from a file through an NIO channel, reading one line at a time and handing each
+ * parsed task to a consumer instead of building an intermediate representation of the file.
+ */
+public class TaskImporter {
+    private static final DateTimeFormatter ICS_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter ICS_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private int lineNumber;
+
+    /**
+     * Reads tasks from the source file in the given format.
+     *
+     * @param format   The source format.
+     * @param source   The file to read.
+     * @param consumer Receives each task, in file order.
+     * @return The number of tasks read.
+     * @throws IOException              If an I/O error occurs.
+     * @throws IllegalArgumentException If the file is not in the given format.
+     */
+    public int importTasks(TransferFormat format, Path source, Consumer<Task> consumer) throws IOException {
+        // The native format is read with the same charset that Storage writes it with
+        Charset charset = format == TransferFormat.GILU ? Storage.CHARSET : StandardCharsets.UTF_8;
+        lineNumber = 0;
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ);
+                BufferedReader reader = new BufferedReader(Channels.newReader(channel, charset))) {
+            switch (format) {
+            case GILU:
+                return readLines(reader, consumer, Storage::parseTask);
+            case CSV:
+                return readCsv(reader, consumer);
+            case JSONL:
+                return readLines(reader, consumer, TaskImporter::parseJson);
+            case ICS:
+                return readIcs(reader, consumer);
+            default:
+                throw new IllegalArgumentException("Unsupported import format: " + format);
+            }
+        }
+    }
+
+    private int readLines(BufferedReader reader, Consumer<Task> consumer,
+            Function<String, Task> parser) throws IOException {
+        int count = 0;
+        String line;
+        while ((line = nextLine(reader)) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            consumer.accept(parseLine(line, parser));
+            count++;
+        }
+        return count;
+    }
+
+    private int readCsv(BufferedReader reader, Consumer<Task> consumer) throws IOException {
+        String header = nextLine(reader);
+        if (header == null) {
+            return 0;
+        }
+        if (!header.startsWith("type,")) {
+            throw invalidLine("expected a 'type,done,description,start,end' header");
+        }
+        return readLines(reader, consumer, TaskImporter::parseCsv);
+    }
+
+    private int readIcs(BufferedReader reader, Consumer<Task> consumer) throws IOException {
+        int count = 0;
+        Map<String, String> properties = null;
+        String component = null;
+        String line = nextLine(reader);
+        while (line != null) {
+            // Unfold continuation lines, which start with a space or a tab
+            StringBuilder unfolded = new StringBuilder(line);
+            String next = nextLine(reader);
+            while (next != null && !next.isEmpty() && (next.charAt(0) == ' ' || next.charAt(0) == '\t')) {
+                unfolded.append(next, 1, next.length());
+                next = nextLine(reader);
+            }
+            String content = unfolded.toString();
+            line = next;
+
+            int colon = content.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String name = content.substring(0, colon);
+            String value = content.substring(colon + 1);
+            int parameters = name.indexOf(';');
+            if (parameters >= 0) {
+                name = name.substring(0, parameters);
+            }
+            name = name.toUpperCase();
+
+            if (name.equals("BEGIN") && (value.equals("VTODO") || value.equals("VEVENT"))) {
+                component = value;
+                properties = new HashMap<>();
+            } else if (name.equals("END") && value.equals(component)) {
+                Map<String, String> finished = properties;
+                consumer.accept(parseLine(component, c -> toIcsTask(c, finished)));
+                count++;
+                component = null;
+                properties = null;
+            } else if (properties != null) {
+                properties.put(name, value);
+            }
+        }
+        return count;
+    }
+
+    private String nextLine(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line != null) {
+            lineNumber++;
+        }
+        return line;
+    }
+
+    private Task parseLine(String line, Function<String, Task> parser) {
+        try {
+            return parser.apply(line);
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw invalidLine(e.getMessage());
+        }
+    }
+
+    private IllegalArgumentException invalidLine(String reason) {
+        return new IllegalArgumentException("Line " + lineNumber + " could not be imported: " + reason);
+    }
+
+    private static Task parseCsv(String line) {
+        List<String> fields = new ArrayList<>(5);
+        StringBuilder field = new StringBuilder();
+        boolean isQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (isQuoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    isQuoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                isQuoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        if (fields.size() < 3) {
+            throw new IllegalArgumentException("expected at least 3 fields");
+        }
+        String start = fields.size() > 3 ? fields.get(3) : "";
+        String end = fields.size() > 4 ? fields.get(4) : "";
+        return createTask(fields.get(0), Boolean.parseBoolean(fields.get(1)), fields.get(2), start, end);
+    }
+
+    private static Task parseJson(String line) {
+        Map<String, String> fields = new HashMap<>();
+        int i = skipWhitespace(line, 0);
+        expect(line, i, '{');
+        i = skipWhitespace(line, i + 1);
+        while (line.charAt(i) != '}') {
+            StringBuilder key = new StringBuilder();
+            i = readJsonString(line, i, key);
+            i = skipWhitespace(line, i);
+            expect(line, i, ':');
+            i = skipWhitespace(line, i + 1);
+            StringBuilder value = new StringBuilder();
+            if (line.charAt(i) == '"') {
+                i = readJsonString(line, i, value);
+            } else {
+                while (i < line.length() && ",} \t".indexOf(line.charAt(i)) < 0) {
+                    value.append(line.charAt(i++));
+                }
+            }
+            fields.put(key.toString(), value.toString());
+            i = skipWhitespace(line, i);
+            if (line.charAt(i) == ',') {
+                i = skipWhitespace(line, i + 1);
+            }
+        }
+        String type = fields.getOrDefault("type", "");
+        String start = fields.getOrDefault(type.equals("E") ? "from" : "by", "");
+        return createTask(type, Boolean.parseBoolean(fields.get("done")), fields.get("description"),
+                start, fields.getOrDefault("to", ""));
+    }
+
+    private static int readJsonString(String line, int start, StringBuilder out) {
+        expect(line, start, '"');
+        int i = start + 1;
+        while (line.charAt(i) != '"') {
+            char c = line.charAt(i++);
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            char escaped = line.charAt(i++);
+            switch (escaped) {
+            case 'n':
+                out.append('\n');
+                break;
+            case 'r':
+                out.append('\r');
+                break;
+            case 't':
+                out.append('\t');
+                break;
+            case 'b':
+                out.append('\b');
+                break;
+            case 'f':
+                out.append('\f');
+                break;
+            case 'u':
+                out.append((char) Integer.parseInt(line.substring(i, i + 4), 16));
+                i += 4;
+                break;
+            default:
+                out.append(escaped);
+            }
+        }
+        return i + 1;
+    }
+
+    private static int skipWhitespace(String line, int start) {
+        int i = start;
+        while (i < line.length() && Character.isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static void expect(String line, int index, char expected) {
+        if (index >= line.length() || line.charAt(index) != expected) {
+            throw new IllegalArgumentException("expected '" + expected + "' at column " + (index + 1));
+        }
+    }
+
+    private static Task toIcsTask(String component, Map<String, String> properties) {
+        String summary = unescapeIcsText(properties.getOrDefault("SUMMARY", ""));
+        if (component.equals("VEVENT")) {
+            String start = properties.get("DTSTART");
+            if (start == null) {
+                throw new IllegalArgumentException("VEVENT without DTSTART");
+            }
+            LocalDateTime from = parseIcsDate(start);
+            String end = properties.get("DTEND");
+            LocalDateTime to = end == null ? from : parseIcsDate(end);
+            boolean isDone = "TRUE".equalsIgnoreCase(properties.get("X-GILU-DONE"));
+            return requireDescription(new Event(summary, from, to, isDone));
+        }
+        boolean isDone = "COMPLETED".equalsIgnoreCase(properties.get("STATUS"));
+        String due = properties.get("DUE");
+        if (due == null) {
+            return requireDescription(new Todo(summary, isDone));
+        }
+        return requireDescription(new Deadline(summary, parseIcsDate(due), isDone));
+    }
+
+    private static LocalDateTime parseIcsDate(String value) {
+        // Zone designators are dropped, since Gilu stores local date-times
+        String local = value.endsWith("Z") ? value.substring(0, value.length() - 1) : value;
+        if (local.length() == 8) {
+            return LocalDate.parse(local, ICS_DATE).atStartOfDay();
+        }
+        return LocalDateTime.parse(local, ICS_DATE_TIME);
+    }
+
+    private static String unescapeIcsText(String value) {
+        StringBuilder text = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char escaped = value.charAt(++i);
+                text.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+            } else {
+                text.append(c);
+            }
+        }
+        return text.toString();
+    }
+
+    private static Task createTask(String type, boolean isDone, String description, String start, String end) {
+        if (description == null) {
+            throw new IllegalArgumentException("missing description");
+        }
+        switch (type) {
+        case "T":
+            return requireDescription(new Todo(description, isDone));
+        case "D":
+            return requireDescription(new Deadline(description, LocalDateTime.parse(start), isDone));
+        case "E":
+            return requireDescription(new Event(description, LocalDateTime.parse(start),
+                    LocalDateTime.parse(end), isDone));
+        default:
+            throw new IllegalArgumentException("unknown task type '" + type + "'");
+        }
+    }
+
+    private static Task requireDescription(Task task) {
+        String description = task.getDescription();
+        if (description.isBlank() || description.contains(" | ") || description.contains("\n")) {
+            // Such descriptions cannot be written back to the storage file
+            throw new IllegalArgumentException("description is empty or contains ' | ' or a line break");
+        }
+        return task;
+    }
+}
@@ -0,0 +1,55 @@
+package gilu.storage;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+
+import gilu.ui.Message;
+
+/**
+ * Appends chat messages that no longer fit in the on-screen history to a file on disk.
+ */
+public class TranscriptStorage {
+    private final String filePath;
+
+    /**
+     * Constructs a TranscriptStorage object with the given file path.
+     *
+     * @param filePath The file path where spilled messages are appended.
+     */
+    public TranscriptStorage(String filePath) {
+        this.filePath = filePath;
+    }
+
+    /**
+     * Appends the given messages to the transcript file, oldest first.
+     *
+     * @param messages The messages to append.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void appendMessages(List<Message> messages) throws IOException {
+        File file = new File(filePath);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs(); // Create directories if needed
+        }
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, true))) {
+            for (Message message : messages) {
+                writer.write(formatMessage(message));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Formats a message into a single file line, escaping line breaks.
+     *
+     * @param message The message to format.
+     * @return A string representing the message.
+     */
+    private String formatMessage(Message message) {
+        String text = message.getText().replace("\\", "\\\\").replace("\n", "\\n");
+        return (message.getSender() == Message.Sender.USER ? "U" : "G") + " | " + text;
+    }
+}
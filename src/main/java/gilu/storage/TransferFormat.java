@@ -0,0 +1,38 @@
+package gilu.storage;
+
+/**
+ * Represents the file formats that tasks can be exported to and imported from.
+ */
+public enum TransferFormat {
+    /**
+     * The pipe-separated format used by {@link Storage}.
+     */
+    GILU,
+    /**
+     * Comma-separated values with a header row.
+     */
+    CSV,
+    /**
+     * One JSON object per line.
+     */
+    JSONL,
+    /**
+     * iCalendar, with todos and deadlines as VTODO and events as VEVENT.
+     */
+    ICS;
+
+    /**
+     * Returns the format with the given name, ignoring case.
+     *
+     * @param name The format name, such as "csv".
+     * @return The matching format, or null if there is none.
+     */
+    public static TransferFormat fromName(String name) {
+        for (TransferFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
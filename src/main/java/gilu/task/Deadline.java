@@ -1,7 +1,6 @@
 package gilu.task;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 /**
  * Represents a task with a deadline.
@@ -43,7 +42,7 @@ public class Deadline extends Task {
     }
 
     @Override
-    public String toString() {
-        return "[D]" + super.toString() + " (by: " + by.format(DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm")) + ")";
+    protected String render() {
+        return "[D]" + super.render() + " (by: " + by.format(DISPLAY_FORMATTER) + ")";
     }
 }
@@ -0,0 +1,284 @@
+package gilu.task;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Logger;
+
+/**
+ * Keeps task descriptions outside the heap, in a memory-mapped temporary file, so that huge lists
+ * put less on the heap for the garbage collector to trace.
+ *
+ * <p>Descriptions are appended as UTF-8 and never changed, and a task holds only a packed handle with
+ * the generation, offset and length of its description, which is decoded again on every read. A task
+ * that leaves its list gets its description back on the heap, leaving garbage behind in the file.
+ * Once there is more garbage than live data, the live descriptions are copied to a new file, a new
+ * generation, and the old file is dropped. Descriptions too long to pack stay on the heap.</p>
+ *
+ * <p>Descriptions are stored and released by the thread that changes the lists, but may be read from
+ * any thread.</p>
+ */
+public final class DescriptionStore {
+    private static final Logger LOGGER = Logger.getLogger(DescriptionStore.class.getName());
+
+    /**
+     * Whether task lists keep descriptions off the heap, configurable with {@code -Dgilu.descriptions.offheap}.
+     */
+    private static final boolean IS_ENABLED = Boolean.getBoolean("gilu.descriptions.offheap");
+
+    private static final int GENERATION_BITS = 8;
+    private static final int OFFSET_BITS = 36;
+    private static final int LENGTH_BITS = 20;
+    private static final int MAX_LENGTH = (1 << LENGTH_BITS) - 1;
+    private static final int CHUNK_SIZE = 16 * 1024 * 1024;
+    private static final int MAX_CHUNKS = (int) ((1L << OFFSET_BITS) / CHUNK_SIZE);
+
+    /**
+     * Garbage below this many bytes is never compacted, however little is live.
+     */
+    private static final long MIN_COMPACTION_BYTES = 4 * 1024 * 1024;
+
+    private static volatile DescriptionStore shared;
+
+    private final Path directory;
+    private final AtomicReferenceArray<Region> regions = new AtomicReferenceArray<>(1 << GENERATION_BITS);
+    private int generation;
+    private Region current;
+
+    /**
+     * The task of each description in the current region, by the ordinal stored before it,
+     * or null for descriptions released since.
+     */
+    private Task[] owners = new Task[1024];
+    private int ownerCount;
+    private long liveBytes;
+    private long garbageBytes;
+
+    private DescriptionStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns whether task lists should keep descriptions off the heap.
+     *
+     * @return true if enabled with {@code -Dgilu.descriptions.offheap=true}.
+     */
+    public static boolean isEnabled() {
+        return IS_ENABLED;
+    }
+
+    /**
+     * Returns the store of this process, in the directory given by {@code -Dgilu.descriptions.dir}
+     * or the temporary directory.
+     *
+     * @return The shared store.
+     */
+    public static synchronized DescriptionStore shared() {
+        if (shared == null) {
+            shared = new DescriptionStore(Paths.get(System.getProperty("gilu.descriptions.dir",
+                    System.getProperty("java.io.tmpdir"))));
+        }
+        return shared;
+    }
+
+    /**
+     * Moves the description of a task into the store. If it cannot be stored, it stays on the heap
+     * and a warning is logged.
+     *
+     * @param task The task, which should be in exactly one list.
+     */
+    public synchronized void attach(Task task) {
+        if (task.getHandle() != 0) {
+            return;
+        }
+        byte[] bytes = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_LENGTH) {
+            return;
+        }
+        try {
+            if (current == null) {
+                current = openRegion(generation);
+            }
+            long offset = current.append(ownerCount, bytes);
+            if (ownerCount == owners.length) {
+                owners = Arrays.copyOf(owners, owners.length * 2);
+            }
+            owners[ownerCount++] = task;
+            liveBytes += Integer.BYTES + bytes.length;
+            task.moveDescriptionOffHeap(pack(generation, offset, bytes.length));
+        } catch (IOException e) {
+            LOGGER.warning("Error storing a description off the heap: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Moves the description of a task back onto the heap, typically because it has left its list.
+     *
+     * @param task The task.
+     */
+    public synchronized void release(Task task) {
+        long handle = task.getHandle();
+        if (handle == 0) {
+            return;
+        }
+        task.moveDescriptionOnHeap(current.read(offsetOf(handle), lengthOf(handle)));
+        owners[current.readOrdinal(offsetOf(handle))] = null;
+        liveBytes -= Integer.BYTES + lengthOf(handle);
+        garbageBytes += Integer.BYTES + lengthOf(handle);
+        if (garbageBytes > MIN_COMPACTION_BYTES && garbageBytes > liveBytes) {
+            compact();
+        }
+    }
+
+    /**
+     * Decodes a description, or returns null if its region has been dropped since the handle was read.
+     */
+    static String decode(long handle) {
+        Region region = shared.regions.get(generationOf(handle));
+        return region == null ? null : region.read(offsetOf(handle), lengthOf(handle));
+    }
+
+    /**
+     * Copies the live descriptions into a new region and drops the current one.
+     */
+    private void compact() {
+        int nextGeneration = (generation + 1) & ((1 << GENERATION_BITS) - 1);
+        Region old = current;
+        Task[] oldOwners = owners;
+        int oldCount = ownerCount;
+        try {
+            current = openRegion(nextGeneration);
+        } catch (IOException e) {
+            LOGGER.warning("Error compacting descriptions: " + e.getMessage());
+            return;
+        }
+        owners = new Task[Math.max(1024, countLive(oldOwners, oldCount))];
+        ownerCount = 0;
+        for (int i = 0; i < oldCount; i++) {
+            Task task = oldOwners[i];
+            if (task == null) {
+                continue;
+            }
+            long handle = task.getHandle();
+            byte[] bytes = old.readBytes(offsetOf(handle), lengthOf(handle));
+            try {
+                long offset = current.append(ownerCount, bytes);
+                owners[ownerCount++] = task;
+                task.relocateDescription(pack(nextGeneration, offset, bytes.length));
+            } catch (IOException e) {
+                LOGGER.warning("Error compacting descriptions: " + e.getMessage());
+                task.moveDescriptionOnHeap(new String(bytes, StandardCharsets.UTF_8));
+                liveBytes -= Integer.BYTES + bytes.length;
+            }
+        }
+        regions.set(generation, null);
+        old.close();
+        generation = nextGeneration;
+        garbageBytes = 0;
+        LOGGER.info("Compacted " + ownerCount + " descriptions into " + liveBytes + " bytes");
+    }
+
+    private static int countLive(Task[] owners, int count) {
+        int live = 0;
+        for (int i = 0; i < count; i++) {
+            if (owners[i] != null) {
+                live++;
+            }
+        }
+        return live;
+    }
+
+    private Region openRegion(int forGeneration) throws IOException {
+        Files.createDirectories(directory);
+        Region region = new Region(Files.createTempFile(directory, "gilu-descriptions-", ".bin"));
+        regions.set(forGeneration, region);
+        return region;
+    }
+
+    private static long pack(int generation, long offset, int length) {
+        return (long) generation << (OFFSET_BITS + LENGTH_BITS) | offset << LENGTH_BITS | length;
+    }
+
+    private static int generationOf(long handle) {
+        return (int) (handle >>> (OFFSET_BITS + LENGTH_BITS));
+    }
+
+    private static long offsetOf(long handle) {
+        return (handle >>> LENGTH_BITS) & ((1L << OFFSET_BITS) - 1);
+    }
+
+    private static int lengthOf(long handle) {
+        return (int) (handle & MAX_LENGTH);
+    }
+
+    /**
+     * One generation of the store: a temporary file mapped in chunks, to which entries are appended.
+     * Each entry is the ordinal of its description followed by the description, and never crosses a chunk.
+     */
+    private static class Region {
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer[] chunks = new MappedByteBuffer[MAX_CHUNKS];
+        private long end = Integer.BYTES; // Offset 0 is never a description, so no handle is 0
+
+        Region(Path path) throws IOException {
+            this.path = path;
+            // The file is deleted when closed or when the JVM exits; the mapping stays readable until collected
+            this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+        }
+
+        /**
+         * Appends an entry.
+         *
+         * @return The offset of the description.
+         */
+        long append(int ordinal, byte[] bytes) throws IOException {
+            int size = Integer.BYTES + bytes.length;
+            if (end % CHUNK_SIZE + size > CHUNK_SIZE) {
+                end += CHUNK_SIZE - end % CHUNK_SIZE; // Start the next chunk rather than split the entry
+            }
+            int index = (int) (end / CHUNK_SIZE);
+            if (index >= MAX_CHUNKS) {
+                throw new IOException("The description store is full");
+            }
+            if (chunks[index] == null) {
+                chunks[index] = channel.map(FileChannel.MapMode.READ_WRITE, (long) index * CHUNK_SIZE, CHUNK_SIZE);
+            }
+            int position = (int) (end % CHUNK_SIZE);
+            chunks[index].putInt(position, ordinal);
+            chunks[index].put(position + Integer.BYTES, bytes);
+            end += size;
+            return (long) index * CHUNK_SIZE + position + Integer.BYTES;
+        }
+
+        byte[] readBytes(long offset, int length) {
+            byte[] bytes = new byte[length];
+            chunks[(int) (offset / CHUNK_SIZE)].get((int) (offset % CHUNK_SIZE), bytes);
+            return bytes;
+        }
+
+        String read(long offset, int length) {
+            return new String(readBytes(offset, length), StandardCharsets.UTF_8);
+        }
+
+        int readOrdinal(long offset) {
+            return chunks[(int) (offset / CHUNK_SIZE)].getInt((int) (offset % CHUNK_SIZE) - Integer.BYTES);
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOGGER.warning("Error closing " + path + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -1,11 +1,32 @@
 package gilu.task;
 
+import java.time.format.DateTimeFormatter;
+
 /**
  * Represents a generic task with a description and completion status.
  */
 public class Task {
+    /**
+     * Formatter used when rendering dates for display. Shared because building a formatter is costly.
+     */
+    protected static final DateTimeFormatter DISPLAY_FORMATTER = DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm");
+
     protected boolean isDone;
-    final String description;
+
+    /**
+     * The description, or null while it is kept in the {@link DescriptionStore}.
+     */
+    private String description;
+
+    /**
+     * The packed location of the description in the {@link DescriptionStore}, or 0 if it is on the heap.
+     */
+    private volatile long handle;
+
+    /**
+     * The rendered display line, or null if it has not been rendered since the last change.
+     */
+    private String renderedLine;
 
     /**
      * Constructs a Task with the given description.
@@ -31,6 +52,7 @@ public class Task {
      */
     public void markAsDone() {
         this.isDone = true;
+        this.renderedLine = null;
     }
 
     /**
@@ -38,15 +60,23 @@ public class Task {
      */
     public void markAsNotDone() {
         this.isDone = false;
+        this.renderedLine = null;
     }
 
     /**
-     * Gets the description of the task.
+     * Gets the description of the task, decoding it again if it is kept off the heap.
      *
      * @return The description of the task.
      */
     public String getDescription() {
-        return description;
+        while (true) {
+            long location = handle;
+            String text = location == 0 ? description : DescriptionStore.decode(location);
+            if (text != null) {
+                return text;
+            }
+            // Moved on or off the heap, or compacted, while being read, so look again
+        }
     }
 
     /**
@@ -60,11 +90,57 @@ public class Task {
 
     /**
      * Converts the task to a string representation.
+     * The line is rendered once and cached until the completion status changes, unless the description
+     * is kept off the heap.
      *
      * @return A string representation of the task with its status and description.
      */
     @Override
-    public String toString() {
-        return "[" + getStatusIcon() + "] " + description;
+    public final String toString() {
+        String line = renderedLine;
+        if (line == null) {
+            line = render();
+            if (handle == 0) {
+                renderedLine = line; // Caching would put the description back on the heap
+            }
+        }
+        return line;
+    }
+
+    long getHandle() {
+        return handle;
+    }
+
+    /**
+     * Hands the description over to the {@link DescriptionStore}, which has stored it at a location.
+     */
+    void moveDescriptionOffHeap(long location) {
+        handle = location;
+        description = null; // Only after the handle, so that readers always find one of them
+        renderedLine = null;
+    }
+
+    /**
+     * Records where the {@link DescriptionStore} has moved the description.
+     */
+    void relocateDescription(long location) {
+        handle = location;
+    }
+
+    /**
+     * Takes the description back from the {@link DescriptionStore}.
+     */
+    void moveDescriptionOnHeap(String text) {
+        description = text;
+        handle = 0;
+    }
+
+    /**
+     * Renders the display line of the task. Subclasses extend this with their type and dates.
+     *
+     * @return A freshly rendered string representation of the task.
+     */
+    protected String render() {
+        return "[" + getStatusIcon() + "] " + getDescription();
     }
 }
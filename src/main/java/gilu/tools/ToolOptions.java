@@ -0,0 +1,46 @@
+package gilu.tools;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parses {@code --name value} command-line options for the workload tools.
+ */
+class ToolOptions {
+    private final Map<String, String> values = new HashMap<>();
+
+    /**
+     * Parses the given arguments.
+     *
+     * @param args The command-line arguments.
+     * @throws IllegalArgumentException If an option has no value or does not start with {@code --}.
+     */
+    ToolOptions(String[] args) {
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --name value but got: " + args[i]);
+            }
+            values.put(args[i].substring(2), args[i + 1]);
+        }
+    }
+
+    String get(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    String require(String name) {
+        String value = values.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing required option --" + name);
+        }
+        return value;
+    }
+
+    long getLong(String name, long defaultValue) {
+        return values.containsKey(name) ? Long.parseLong(values.get(name)) : defaultValue;
+    }
+
+    double getDouble(String name, double defaultValue) {
+        return values.containsKey(name) ? Double.parseDouble(values.get(name)) : defaultValue;
+    }
+}
@@ -0,0 +1,61 @@
+package gilu.tools;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+
+/**
+ * Records the commands a user sends to Gilu, so that they can be replayed by {@link TraceReplayer}.
+ * <p>
+ * Each line holds the milliseconds since recording started, a tab and the command.
+ * Recording is enabled by starting Gilu with {@code -Dgilu.trace=FILE}.
+ * </p>
+ */
+public class TraceRecorder implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(TraceRecorder.class.getName());
+
+    private final BufferedWriter writer;
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Opens a trace file for appending.
+     *
+     * @param filePath The trace file.
+     * @throws IOException If the file cannot be opened.
+     */
+    public TraceRecorder(String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Appends a command to the trace.
+     *
+     * @param input The command as typed by the user.
+     */
+    public synchronized void record(String input) {
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        try {
+            writer.write(elapsedMillis + "\t" + input.replace('\n', ' '));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            LOGGER.warning("Error recording trace: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
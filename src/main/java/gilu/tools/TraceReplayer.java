@@ -0,0 +1,185 @@
+package gilu.tools;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import gilu.Gilu;
+import gilu.command.Command;
+import gilu.metrics.LatencyHistogram;
+
+/**
+ * Replays a recorded command trace through {@link Gilu#getResponse} and reports throughput,
+ * latency percentiles, garbage collection and allocation.
+ * <p>
+ * Options:
+ * </p>
+ * <ul>
+ *   <li>{@code --trace FILE}: a trace written by {@link TraceRecorder}</li>
+ *   <li>{@code --data FILE}: the task file to start from; it is copied into a temporary directory, which is
+ *       deleted afterwards with every file Gilu kept next to the copy (default: empty list)</li>
+ *   <li>{@code --rate N|recorded}: commands per second, {@code recorded} for the original timing,
+ *       or 0 to replay as fast as possible (default 0)</li>
+ *   <li>{@code --repeat N}: how many times to replay the trace (default 1)</li>
+ * </ul>
+ * Latency is measured from the time a command was scheduled to be sent, so that a slow command
+ * also counts against the commands that had to wait behind it. {@code bye} commands are skipped, and
+ * completed tasks are not archived on startup, so that the trace runs against the tasks as given.
+ */
+public class TraceReplayer {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Replays a trace and prints a report.
+     *
+     * @param args The options described in the class comment.
+     * @throws IOException If the trace or data file cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        ToolOptions options = new ToolOptions(args);
+        List<TraceEntry> trace = readTrace(Paths.get(options.require("trace")));
+        String rate = options.get("rate", "0");
+        long repeat = options.getLong("repeat", 1);
+
+        Path directory = Files.createTempDirectory("gilu-replay");
+        Path dataCopy = directory.resolve("gilu.txt");
+        String dataPath = options.get("data", null);
+        try {
+            if (dataPath != null) {
+                Files.copy(Paths.get(dataPath), dataCopy, StandardCopyOption.REPLACE_EXISTING);
+            }
+            try (Gilu gilu = new Gilu(dataCopy.toString(), false)) {
+                long loadStart = System.nanoTime();
+                gilu.awaitLoading();
+                System.out.println("Loaded tasks in " + (System.nanoTime() - loadStart) / 1_000_000 + " ms");
+                replay(gilu, trace, rate, repeat);
+            }
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    /**
+     * Deletes a directory with everything in it.
+     */
+    private static void deleteDirectory(Path directory) throws IOException {
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList()); // Contents first
+        }
+        for (Path path : paths) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static void replay(Gilu gilu, List<TraceEntry> trace, String rate, long repeat) {
+        boolean isRecordedRate = rate.equals("recorded");
+        double commandsPerSecond = isRecordedRate ? 0 : Double.parseDouble(rate);
+        LatencyHistogram latency = new LatencyHistogram();
+
+        long gcCountBefore = totalGcCount();
+        long gcMillisBefore = totalGcMillis();
+        long allocatedBefore = totalAllocatedBytes();
+        long startNanos = System.nanoTime();
+        long sent = 0;
+        for (long round = 0; round < repeat; round++) {
+            long roundStart = System.nanoTime();
+            for (TraceEntry entry : trace) {
+                long intendedStart;
+                if (isRecordedRate) {
+                    intendedStart = roundStart + entry.offsetMillis * 1_000_000;
+                } else if (commandsPerSecond > 0) {
+                    intendedStart = startNanos + (long) (sent * 1e9 / commandsPerSecond);
+                } else {
+                    intendedStart = System.nanoTime();
+                }
+                waitUntil(intendedStart);
+                gilu.getResponse(entry.input);
+                latency.record(System.nanoTime() - intendedStart);
+                sent++;
+            }
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        System.out.printf("Replayed %d commands in %.1f s: %.1f commands/s%n", sent, elapsedNanos / 1e9,
+                sent * 1e9 / Math.max(1, elapsedNanos));
+        System.out.printf("Latency (ms): p50 %.3f, p90 %.3f, p99 %.3f, p99.9 %.3f, max %.3f%n",
+                latency.getPercentile(50) / 1e6, latency.getPercentile(90) / 1e6, latency.getPercentile(99) / 1e6,
+                latency.getPercentile(99.9) / 1e6, latency.getMax() / 1e6);
+        long allocated = totalAllocatedBytes() - allocatedBefore;
+        System.out.printf("GC: %d collections, %d ms; allocated %.1f MB (%.1f KB per command)%n",
+                totalGcCount() - gcCountBefore, totalGcMillis() - gcMillisBefore, allocated / 1e6,
+                allocated / 1e3 / Math.max(1, sent));
+    }
+
+    private static void waitUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static List<TraceEntry> readTrace(Path path) throws IOException {
+        List<TraceEntry> trace = new ArrayList<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            String[] parts = line.split("\t", 2);
+            if (parts.length < 2 || Command.fromInput(parts[1]) == Command.EXIT) {
+                continue; // Skip malformed lines and commands that would stop Gilu
+            }
+            trace.add(new TraceEntry(Long.parseLong(parts[0].trim()), parts[1]));
+        }
+        return trace;
+    }
+
+    private static long totalGcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long totalGcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+
+    /**
+     * Returns the bytes allocated so far by all live threads, including Gilu's worker thread.
+     */
+    private static long totalAllocatedBytes() {
+        long total = 0;
+        for (long bytes : THREADS.getThreadAllocatedBytes(THREADS.getAllThreadIds())) {
+            total += Math.max(0, bytes);
+        }
+        return total;
+    }
+
+    /**
+     * Represents one recorded command.
+     */
+    private static class TraceEntry {
+        private final long offsetMillis;
+        private final String input;
+
+        TraceEntry(long offsetMillis, String input) {
+            this.offsetMillis = offsetMillis;
+            this.input = input;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package gilu.tools;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import gilu.storage.Storage;
+import gilu.task.Deadline;
+import gilu.task.Event;
+import gilu.task.Task;
+import gilu.task.Todo;
+
+/**
+ * Generates synthetic task files in the {@link Storage} format for scale testing.
+ * <p>
+ * Options (all but {@code --out} are optional):
+ * </p>
+ * <ul>
+ *   <li>{@code --out FILE}: the task file to write</li>
+ *   <li>{@code --count N}: number of tasks, up to tens of millions (default 1000)</li>
+ *   <li>{@code --mix T,D,E}: relative weights of todos, deadlines and events (default 60,25,15)</li>
+ *   <li>{@code --done RATIO}: fraction of tasks marked done (default 0.3)</li>
+ *   <li>{@code --start yyyy-MM-dd} and {@code --days N}: the date range of deadlines and events
+ *       (default 2024-01-01 and 730)</li>
+ *   <li>{@code --dates uniform|recent}: spread dates evenly, or favour the end of the range (default uniform)</li>
+ *   <li>{@code --vocab FILE}: words used in descriptions, one per line (default: a built-in list)</li>
+ *   <li>{@code --seed N}: random seed (default 42)</li>
+ * </ul>
+ * Tasks are written as they are generated, so memory use does not depend on the count.
+ */
+public class WorkloadGenerator {
+    private static final String[] DEFAULT_VOCABULARY = {
+        "read", "book", "submit", "report", "team", "meeting", "buy", "bread", "call", "mom", "review",
+        "code", "water", "plants", "gym", "session", "pay", "rent", "plan", "trip", "clean", "room",
+        "email", "professor", "project", "demo", "lecture", "tutorial", "dentist", "appointment"
+    };
+    private static final int PROGRESS_INTERVAL = 1_000_000;
+
+    private final Random random;
+    private final String[] vocabulary;
+    private final int[] mix;
+    private final double doneRatio;
+    private final LocalDateTime start;
+    private final int days;
+    private final boolean isRecentBiased;
+
+    private WorkloadGenerator(ToolOptions options) throws IOException {
+        random = new Random(options.getLong("seed", 42));
+        String vocabPath = options.get("vocab", null);
+        vocabulary = vocabPath == null ? DEFAULT_VOCABULARY : readVocabulary(Paths.get(vocabPath));
+        String[] weights = options.get("mix", "60,25,15").split(",");
+        mix = new int[] {Integer.parseInt(weights[0].trim()), Integer.parseInt(weights[1].trim()),
+            Integer.parseInt(weights[2].trim())};
+        doneRatio = options.getDouble("done", 0.3);
+        start = LocalDate.parse(options.get("start", "2024-01-01")).atStartOfDay();
+        days = (int) options.getLong("days", 730);
+        isRecentBiased = options.get("dates", "uniform").equals("recent");
+    }
+
+    /**
+     * Writes a synthetic task file.
+     *
+     * @param args The options described in the class comment.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        ToolOptions options = new ToolOptions(args);
+        Path out = Paths.get(options.require("out"));
+        long count = options.getLong("count", 1000);
+        new WorkloadGenerator(options).write(out, count);
+    }
+
+    private void write(Path out, long count) throws IOException {
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        long startNanos = System.nanoTime();
+        try (BufferedWriter writer = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+            for (long i = 0; i < count; i++) {
+                writer.write(Storage.formatTask(nextTask(i)));
+                writer.newLine();
+                if ((i + 1) % PROGRESS_INTERVAL == 0) {
+                    System.out.println("Generated " + (i + 1) + " tasks");
+                }
+            }
+        }
+        System.out.println("Wrote " + count + " tasks to " + out + " in "
+                + (System.nanoTime() - startNanos) / 1_000_000 + " ms");
+    }
+
+    private Task nextTask(long index) {
+        String description = nextDescription(index);
+        boolean isDone = random.nextDouble() < doneRatio;
+        int pick = random.nextInt(mix[0] + mix[1] + mix[2]);
+        if (pick < mix[0]) {
+            return new Todo(description, isDone);
+        }
+        LocalDateTime date = nextDate();
+        if (pick < mix[0] + mix[1]) {
+            return new Deadline(description, date, isDone);
+        }
+        LocalDateTime end = date.plusHours(1 + random.nextInt(8)).plusDays(random.nextInt(10) < 8 ? 0 : 1);
+        return new Event(description, date, end, isDone);
+    }
+
+    private String nextDescription(long index) {
+        int wordCount = 2 + random.nextInt(4);
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < wordCount; i++) {
+            description.append(vocabulary[random.nextInt(vocabulary.length)]).append(' ');
+        }
+        return description.append(index).toString();
+    }
+
+    private LocalDateTime nextDate() {
+        double position = random.nextDouble();
+        if (isRecentBiased) {
+            position = 1 - position * position; // More dates towards the end of the range
+        }
+        int day = Math.min(days - 1, (int) (position * days));
+        return start.plusDays(day).plusHours(8 + random.nextInt(12)).plusMinutes(15L * random.nextInt(4));
+    }
+
+    private static String[] readVocabulary(Path path) throws IOException {
+        List<String> words = Files.readAllLines(path, StandardCharsets.UTF_8).stream()
+                .map(String::trim)
+                .filter(word -> !word.isEmpty() && !word.contains("|"))
+                .collect(Collectors.toList());
+        if (words.isEmpty()) {
+            throw new IOException("The vocabulary file has no words: " + path);
+        }
+        return words.toArray(new String[0]);
+    }
+}
@@ -1,66 +1,96 @@
 package gilu.ui;
 
-import java.io.IOException;
-import java.util.Collections;
-
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
 
 /**
  * Represents a dialog box consisting of an ImageView to represent the speaker's face
  * and a label containing text from the speaker.
+ * <p>
+ * The box is built in code rather than from FXML so that creating one is cheap,
+ * and it can be reused for another message through {@link #setMessage}.
+ * </p>
  */
 public class DialogBox extends HBox {
-    @FXML
-    private Label dialog;
-    @FXML
-    private ImageView displayPicture;
+    private static final double PREF_WIDTH = 400.0;
+    private static final double PICTURE_SIZE = 99.0;
+    private static final Insets PADDING = new Insets(15.0, 5.0, 15.0, 5.0);
 
-    private DialogBox(String text, Image img) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    private final Label dialog = new Label();
+    private final ImageView displayPicture = new ImageView();
+    private boolean isFlipped;
+
+    /**
+     * Constructs an empty dialog box with the text on the left and the picture on the right.
+     */
+    public DialogBox() {
+        setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
+        setPrefWidth(PREF_WIDTH);
+        setPadding(PADDING);
+        setAlignment(Pos.TOP_RIGHT);
+
+        dialog.setWrapText(true);
+        dialog.setMinHeight(Region.USE_PREF_SIZE);
+
+        displayPicture.setFitHeight(PICTURE_SIZE);
+        displayPicture.setFitWidth(PICTURE_SIZE);
+        displayPicture.setPickOnBounds(true);
+        displayPicture.setPreserveRatio(true);
 
+        getChildren().setAll(dialog, displayPicture);
+    }
+
+    /**
+     * Shows the given message in this dialog box, reusing its existing nodes.
+     *
+     * @param text      The text of the message.
+     * @param img       The speaker's picture.
+     * @param isFlipped Whether the picture should be on the left and the text on the right.
+     */
+    public void setMessage(String text, Image img, boolean isFlipped) {
         dialog.setText(text);
         displayPicture.setImage(img);
+        if (this.isFlipped != isFlipped) {
+            flip(isFlipped);
+        }
     }
 
     /**
-     * Flips the dialog box such that the ImageView is on the left and text on the right.
+     * Places the ImageView on the left and text on the right, or restores the default order.
+     *
+     * @param isFlipped Whether the ImageView should be on the left.
      */
-    private void flip() {
-        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
-        Collections.reverse(tmp);
-        getChildren().setAll(tmp);
-        setAlignment(Pos.TOP_LEFT);
+    private void flip(boolean isFlipped) {
+        this.isFlipped = isFlipped;
+        if (isFlipped) {
+            getChildren().setAll(displayPicture, dialog);
+            setAlignment(Pos.TOP_LEFT);
+        } else {
+            getChildren().setAll(dialog, displayPicture);
+            setAlignment(Pos.TOP_RIGHT);
+        }
     }
 
     /**
      * Creates a user dialog box.
      */
     public static DialogBox getUserDialog(String text, Image img) {
-        return new DialogBox(text, img);
+        DialogBox db = new DialogBox();
+        db.setMessage(text, img, false);
+        return db;
     }
 
     /**
      * Creates a chatbot dialog box, with the chatbot's image on the left.
      */
     public static DialogBox getGiluDialog(String text, Image img) {
-        var db = new DialogBox(text, img);
-        db.flip();
+        DialogBox db = new DialogBox();
+        db.setMessage(text, img, true);
         return db;
     }
 }
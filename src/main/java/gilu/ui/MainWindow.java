@@ -1,13 +1,29 @@
 package gilu.ui;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 import gilu.Gilu;
+import gilu.storage.TranscriptStorage;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 
 /**
  * Controller for the main GUI.
@@ -16,10 +32,29 @@ public class MainWindow extends AnchorPane {
     private static final String WELCOME_MESSAGE = "Heyoo! I'm Gilu, your trusted task-manager!"
             + "\nHow can I make your day better?";
 
+    private static final String TRANSCRIPT_PATH = "./data/transcript.txt";
+
+    /**
+     * Maximum number of messages kept in the transcript view, configurable with {@code -Dgilu.history.limit}.
+     */
+    private static final int HISTORY_LIMIT = Math.max(2, Integer.getInteger("gilu.history.limit", 500));
+
+    /**
+     * Number of messages spilled to disk at once, so that trimming does not happen on every message.
+     */
+    private static final int SPILL_BATCH_SIZE = Math.max(1, HISTORY_LIMIT / 10);
+
+    /**
+     * Matches a partially typed find command and captures its keyword.
+     */
+    private static final Pattern FIND_PATTERN = Pattern.compile("(?i)^\\s*find\\s+(\\S.*)$");
+    private static final Duration SEARCH_DEBOUNCE = Duration.millis(150);
+    private static final Duration SUGGEST_DEBOUNCE = Duration.millis(40);
+
     @FXML
-    private ScrollPane scrollPane;
+    private ListView<Message> transcriptView;
     @FXML
-    private VBox dialogContainer;
+    private ListView<String> searchResults;
     @FXML
     private TextField userInput;
     @FXML
@@ -27,25 +62,45 @@ public class MainWindow extends AnchorPane {
 
     private Gilu gilu;
 
+    private final TranscriptStorage transcriptStorage = new TranscriptStorage(TRANSCRIPT_PATH);
+    private final PauseTransition searchDebounce = new PauseTransition(SEARCH_DEBOUNCE);
+    private final AtomicLong searchGeneration = new AtomicLong();
+
+    /**
+     * Whether the side list shows suggestions for the input rather than search results.
+     */
+    private boolean isShowingSuggestions;
+
     private final Image userImage = new Image(getClass().getResourceAsStream("/images/DaUser.png"));
     private final Image giluImage = new Image(getClass().getResourceAsStream("/images/DaGilu.png"));
 
     /**
      * Initializes the GUI when the application starts.
      * <p>
-     * This method binds the vertical scroll value of the {@code scrollPane}
-     * to the height of the {@code dialogContainer}, ensuring automatic scrolling
-     * to the latest message. It also displays a welcome message from Gilu when
-     * the GUI is first loaded.
+     * The transcript is a virtualized {@code ListView}: only the cells for visible
+     * messages are created, and they are reused as the user scrolls. It also
+     * displays a welcome message from Gilu when the GUI is first loaded.
      * </p>
      */
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        transcriptView.setCellFactory(listView -> new MessageCell());
+        userInput.textProperty().addListener((observable, oldText, newText) -> scheduleSearch(newText));
+        userInput.addEventFilter(KeyEvent.KEY_PRESSED, event -> {
+            if (event.getCode() == KeyCode.TAB && isShowingSuggestions && !searchResults.getItems().isEmpty()) {
+                acceptSuggestion(searchResults.getItems().get(0));
+                event.consume(); // Keep the focus in the input
+            }
+        });
+        searchResults.setOnMouseClicked(event -> {
+            String selected = searchResults.getSelectionModel().getSelectedItem();
+            if (isShowingSuggestions && selected != null) {
+                acceptSuggestion(selected);
+            }
+        });
 
         // Show welcome message when the GUI loads
-        dialogContainer.getChildren().add(
-                DialogBox.getGiluDialog(WELCOME_MESSAGE, giluImage));
+        addMessages(new Message(Message.Sender.GILU, WELCOME_MESSAGE));
     }
 
     /**
@@ -56,14 +111,151 @@ public class MainWindow extends AnchorPane {
     }
 
     /**
-     * Handles user input and generates Gilu's response.
+     * Handles user input and shows Gilu's response once it is ready.
+     * The command runs off the FX thread, so the window stays responsive while tasks load.
      */
     @FXML
     private void handleUserInput() {
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(userInput.getText(), userImage),
-                DialogBox.getGiluDialog(gilu.getResponse(userInput.getText()), giluImage)
-        );
+        String input = userInput.getText();
+        addMessages(new Message(Message.Sender.USER, input));
         userInput.clear();
+        gilu.getResponseAsync(input).whenComplete((response, error) -> Platform.runLater(() ->
+                addMessages(new Message(Message.Sender.GILU, error == null ? response : describeError(error)))));
+    }
+
+    /**
+     * Returns the message of the exception behind a failed response, without the wrappers
+     * added by the worker thread.
+     *
+     * @param error The exception the response completed with.
+     * @return A message to show in the chat.
+     */
+    private static String describeError(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : "Oops! Something went wrong with that command.";
+    }
+
+    /**
+     * Restarts the delay before searching for a find command or suggesting how to finish any other
+     * input being typed, or clears the side list if nothing is typed.
+     *
+     * @param text The current content of the input field.
+     */
+    private void scheduleSearch(String text) {
+        long generation = searchGeneration.incrementAndGet(); // Supersedes any running search
+        Matcher matcher = FIND_PATTERN.matcher(text);
+        if (matcher.matches()) {
+            String keyword = matcher.group(1);
+            searchDebounce.setDuration(SEARCH_DEBOUNCE);
+            searchDebounce.setOnFinished(event -> runSearch(keyword, generation));
+        } else if (!text.isBlank()) {
+            searchDebounce.setDuration(SUGGEST_DEBOUNCE);
+            searchDebounce.setOnFinished(event -> runSuggest(text, generation));
+        } else {
+            searchDebounce.stop();
+            searchResults.getItems().clear();
+            return;
+        }
+        searchDebounce.playFromStart();
+    }
+
+    /**
+     * Runs a search in the background and shows its results unless a newer search has started.
+     *
+     * @param keyword    The keyword to search for.
+     * @param generation The generation of this search.
+     */
+    private void runSearch(String keyword, long generation) {
+        gilu.searchAsync(keyword, () -> searchGeneration.get() != generation)
+                .thenAccept(lines -> Platform.runLater(() -> {
+                    if (lines != null && searchGeneration.get() == generation) {
+                        isShowingSuggestions = false;
+                        searchResults.getItems().setAll(lines);
+                    }
+                }));
+    }
+
+    /**
+     * Looks up suggestions in the background and shows them unless newer input has been typed.
+     *
+     * @param text       The text typed so far.
+     * @param generation The generation of this lookup.
+     */
+    private void runSuggest(String text, long generation) {
+        gilu.suggestAsync(text, () -> searchGeneration.get() != generation)
+                .thenAccept(suggestions -> Platform.runLater(() -> {
+                    if (suggestions != null && searchGeneration.get() == generation) {
+                        isShowingSuggestions = true;
+                        searchResults.getItems().setAll(suggestions);
+                    }
+                }));
+    }
+
+    /**
+     * Replaces the input with a suggestion and puts the caret at its end.
+     *
+     * @param suggestion The suggested input.
+     */
+    private void acceptSuggestion(String suggestion) {
+        userInput.setText(suggestion);
+        userInput.positionCaret(suggestion.length());
+        userInput.requestFocus();
+    }
+
+    /**
+     * Appends messages to the transcript, trims the history and scrolls to the latest message.
+     *
+     * @param messages The messages to append.
+     */
+    private void addMessages(Message... messages) {
+        ObservableList<Message> items = transcriptView.getItems();
+        items.addAll(messages);
+        if (items.size() > HISTORY_LIMIT + SPILL_BATCH_SIZE) {
+            spillOldestMessages(items.size() - HISTORY_LIMIT);
+        }
+        transcriptView.scrollTo(items.size() - 1);
+    }
+
+    /**
+     * Moves the oldest messages out of the transcript view and appends them to the transcript file.
+     *
+     * @param count The number of messages to move.
+     */
+    private void spillOldestMessages(int count) {
+        List<Message> oldest = transcriptView.getItems().subList(0, count);
+        try {
+            transcriptStorage.appendMessages(new ArrayList<>(oldest));
+        } catch (IOException e) {
+            System.out.println("Error saving transcript: " + e.getMessage());
+        }
+        oldest.clear();
+    }
+
+    /**
+     * Renders a transcript message as a dialog box. Cells are reused by the {@code ListView},
+     * and each cell keeps a single dialog box that is refilled for every message it shows.
+     */
+    private class MessageCell extends ListCell<Message> {
+        private final DialogBox dialogBox = new DialogBox();
+
+        MessageCell() {
+            setPrefWidth(0); // Let the cell follow the list width so that text wraps
+        }
+
+        @Override
+        protected void updateItem(Message message, boolean isEmpty) {
+            super.updateItem(message, isEmpty);
+            if (isEmpty || message == null) {
+                setGraphic(null);
+                return;
+            }
+            boolean isFromUser = message.getSender() == Message.Sender.USER;
+            dialogBox.setMessage(message.getText(), isFromUser ? userImage : giluImage, !isFromUser);
+            setGraphic(dialogBox);
+        }
     }
 }
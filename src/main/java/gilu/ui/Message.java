@@ -0,0 +1,46 @@
+package gilu.ui;
+
+/**
+ * Represents a single message shown in the chat transcript.
+ */
+public class Message {
+    /**
+     * Represents who sent a message.
+     */
+    public enum Sender {
+        USER, GILU
+    }
+
+    private final Sender sender;
+    private final String text;
+
+    /**
+     * Constructs a Message.
+     *
+     * @param sender Who sent the message.
+     * @param text   The text of the message.
+     */
+    public Message(Sender sender, String text) {
+        assert sender != null : "Sender should not be null";
+        this.sender = sender;
+        this.text = text;
+    }
+
+    /**
+     * Returns who sent the message.
+     *
+     * @return The sender.
+     */
+    public Sender getSender() {
+        return sender;
+    }
+
+    /**
+     * Returns the text of the message.
+     *
+     * @return The message text.
+     */
+    public String getText() {
+        return text;
+    }
+}
@@ -0,0 +1,90 @@
+package gilu;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import gilu.index.AgendaIndex;
+import gilu.task.Deadline;
+import gilu.task.Event;
+import gilu.task.Task;
+
+/**
+ * Tests the per-day counts against brute-force counting.
+ */
+class AgendaIndexTest {
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    private static boolean isOn(Task task, LocalDate from, LocalDate to) {
+        if (task instanceof Deadline) {
+            LocalDate due = ((Deadline) task).getBy().toLocalDate();
+            return !due.isBefore(from) && !due.isAfter(to);
+        }
+        Event event = (Event) task;
+        return !event.getFrom().toLocalDate().isAfter(to) && !event.getTo().toLocalDate().isBefore(from);
+    }
+
+    private static int countOn(List<Task> tasks, Class<?> type, LocalDate from, LocalDate to) {
+        int count = 0;
+        for (Task task : tasks) {
+            if (type.isInstance(task) && isOn(task, from, to)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Creates a deadline or an event, spread over ten years so that the trees grow several times in both
+     * directions.
+     */
+    private static Task randomTask(Random random, int number) {
+        LocalDateTime from = START.atStartOfDay().plusDays(random.nextInt(3_650) - 1_825)
+                .plusMinutes(random.nextInt(24 * 60));
+        return random.nextBoolean() ? new Deadline("d" + number, from)
+                : new Event("e" + number, from, from.plusHours(random.nextInt(24 * 10)));
+    }
+
+    /**
+     * Returns the first and last day of a random range.
+     */
+    private static List<LocalDate> randomRange(Random random) {
+        LocalDate from = START.plusDays(random.nextInt(4_000) - 2_000);
+        return List.of(from, from.plusDays(random.nextInt(60)));
+    }
+
+    /**
+     * Test: per-day and range counts should match counting the remaining tasks one by one.
+     */
+    @Test
+    void testCountsMatchBruteForce() {
+        Random random = new Random(3);
+        AgendaIndex index = new AgendaIndex();
+        List<Task> tasks = BruteForceCheck.addThenRemove(3_000, i -> randomTask(random, i), index::add,
+                index::remove, 4);
+
+        BruteForceCheck.assertQueries(200, () -> randomRange(random),
+                range -> List.of(countOn(tasks, Deadline.class, range.get(0), range.get(1)),
+                        countOn(tasks, Event.class, range.get(0), range.get(1))),
+                range -> List.of(index.countDeadlines(range.get(0), range.get(1)),
+                        index.countEvents(range.get(0), range.get(1))));
+
+        int[] deadlines = index.countDeadlinesPerDay(START, 31);
+        int[] events = index.countEventsPerDay(START, 31);
+        for (int day = 0; day < 31; day++) {
+            LocalDate date = START.plusDays(day);
+            assertEquals(countOn(tasks, Deadline.class, date, date), deadlines[day]);
+            assertEquals(countOn(tasks, Event.class, date, date), events[day]);
+        }
+
+        tasks.forEach(index::remove);
+        assertArrayEquals(new int[31], index.countEventsPerDay(START, 31));
+        assertEquals(0, index.countDeadlines(LocalDate.MIN, LocalDate.MAX));
+    }
+}
@@ -0,0 +1,63 @@
+package gilu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Checks an index against brute force: random items are added to the index and some removed again,
+ * then random queries are answered both by the index and by going through the items that remain.
+ */
+final class BruteForceCheck {
+    private BruteForceCheck() {
+    }
+
+    /**
+     * Adds items to an index, then removes every {@code removeEvery}-th of them again, starting with the first,
+     * so that removal is checked as well.
+     *
+     * @param count       The number of items to add.
+     * @param item        Creates the item with a given number.
+     * @param add         Adds an item to the index.
+     * @param remove      Removes an item from the index.
+     * @param removeEvery How many items to add for each one removed.
+     * @return The items still in the index, in the order they were added.
+     */
+    static <T> List<T> addThenRemove(int count, IntFunction<T> item, Consumer<? super T> add,
+            Consumer<? super T> remove, int removeEvery) {
+        List<T> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(item.apply(i));
+            add.accept(items.get(i));
+        }
+        List<T> remaining = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (i % removeEvery == 0) {
+                remove.accept(items.get(i));
+            } else {
+                remaining.add(items.get(i));
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Asserts that random queries get the same answer from the index as from brute force.
+     *
+     * @param count      The number of queries.
+     * @param query      Creates a random query.
+     * @param bruteForce Answers a query by going through every item.
+     * @param index      Answers a query with the index.
+     */
+    static <Q> void assertQueries(int count, Supplier<Q> query, Function<Q, ?> bruteForce, Function<Q, ?> index) {
+        for (int i = 0; i < count; i++) {
+            Q next = query.get();
+            assertEquals(bruteForce.apply(next), index.apply(next), () -> "Query: " + next);
+        }
+    }
+}
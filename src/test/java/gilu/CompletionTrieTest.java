@@ -0,0 +1,101 @@
+package gilu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import gilu.search.Autocomplete;
+import gilu.search.CompletionTrie;
+import gilu.task.Deadline;
+import gilu.task.Todo;
+
+/**
+ * Tests the suggestions of the completion trie against brute-force ranking.
+ */
+class CompletionTrieTest {
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 1 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(4))); // A small alphabet, so keys share long prefixes
+        }
+        return word.toString();
+    }
+
+    private static List<String> bruteForce(Map<String, Integer> counts, String prefix, int limit) {
+        return counts.entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith(prefix))
+                .sorted(Comparator.comparing((Map.Entry<String, Integer> entry) -> -entry.getValue())
+                        .thenComparing(Map.Entry::getKey))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * Test: suggestions should match ranking every remaining string by count, then alphabetically.
+     */
+    @Test
+    void testSuggestMatchesBruteForce() {
+        Random random = new Random(11);
+        CompletionTrie trie = new CompletionTrie();
+        // Strings are removed in another case, as they are matched ignoring case
+        List<String> words = BruteForceCheck.addThenRemove(5_000, i -> randomWord(random), trie::add,
+                word -> trie.remove(word.toUpperCase(Locale.ROOT)), 2);
+        Map<String, Integer> counts = new HashMap<>();
+        words.forEach(word -> counts.merge(word, 1, Integer::sum));
+
+        assertEquals(counts.size(), trie.size());
+        BruteForceCheck.assertQueries(300, () -> {
+            String word = randomWord(random);
+            return word.substring(0, Math.min(word.length(), 1 + random.nextInt(3)));
+        }, prefix -> bruteForce(counts, prefix, 5), prefix -> trie.suggest(prefix, 5));
+        assertEquals(bruteForce(counts, "", 5), trie.suggest("", 5));
+    }
+
+    /**
+     * Test: autocomplete should suggest command words, then flags, then task descriptions.
+     */
+    @Test
+    void testAutocompleteSuggestsKeywordsFlagsAndDescriptions() {
+        TaskList tasks = new TaskList();
+        tasks.addLoadedTasks(List.of(new Todo("Read book"), new Todo("read book"), new Todo("Return parcel")));
+        Autocomplete autocomplete = new Autocomplete();
+        tasks.addChangeListener(autocomplete);
+
+        autocomplete.recordCommand("delete 1");
+        assertEquals(List.of("delete", "deadline", "dedupe"), autocomplete.suggest("de", tasks));
+        assertEquals(List.of("event Party /from ", "event Party /to "), autocomplete.suggest("event Party /", tasks));
+        assertEquals(List.of("event Party /from 2025-01-01 0900 /to "),
+                autocomplete.suggest("event Party /from 2025-01-01 0900 /", tasks));
+        assertEquals(List.of("todo Read book", "todo Return parcel"), autocomplete.suggest("todo re", tasks));
+
+        LocalDateTime by = LocalDateTime.of(2025, 1, 1, 9, 0);
+        tasks.addLoadedTasks(List.of(new Deadline("Return parcel", by), new Deadline("Return parcel", by)));
+        assertEquals(List.of("find Return parcel", "find Read book"), autocomplete.suggest("find re", tasks));
+        assertEquals(List.of(), autocomplete.suggest("list re", tasks));
+    }
+
+    /**
+     * Test: autocomplete without description completion should still suggest command words and flags.
+     */
+    @Test
+    void testAutocompleteWithoutDescriptionsSuggestsKeywordsAndFlags() {
+        TaskList tasks = new TaskList();
+        tasks.addLoadedTasks(List.of(new Todo("Read book")));
+        Autocomplete autocomplete = new Autocomplete(false);
+        tasks.addChangeListener(autocomplete);
+
+        assertEquals(List.of("todo"), autocomplete.suggest("to", tasks));
+        assertEquals(List.of("deadline Essay /by "), autocomplete.suggest("deadline Essay /", tasks));
+        assertEquals(List.of(), autocomplete.suggest("todo re", tasks));
+    }
+}
@@ -0,0 +1,50 @@
+package gilu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import gilu.task.DescriptionStore;
+import gilu.task.Task;
+import gilu.task.Todo;
+
+/**
+ * Tests that descriptions read back the same from off the heap, also after compaction.
+ */
+class DescriptionStoreTest {
+    private static String describe(int i) {
+        return "Task " + i + " with a description long enough to fill the store — ünïcödé " + "x".repeat(i % 40);
+    }
+
+    /**
+     * Test: descriptions should read back unchanged after tasks are released and the store is compacted.
+     */
+    @Test
+    void testDescriptionsSurviveReleaseAndCompaction() {
+        DescriptionStore store = DescriptionStore.shared();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            Task task = new Todo(describe(i));
+            assertEquals("[T][ ] " + describe(i), task.toString()); // Cached before the description moves
+            store.attach(task);
+            tasks.add(task);
+        }
+
+        // Releasing most tasks leaves more garbage than live data, which compacts the store
+        for (int i = 0; i < tasks.size(); i++) {
+            if (i % 10 != 0) {
+                store.release(tasks.get(i));
+            }
+        }
+
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(describe(i), tasks.get(i).getDescription());
+            assertEquals("[T][ ] " + describe(i), tasks.get(i).toString());
+        }
+        tasks.forEach(store::release);
+        assertEquals(describe(7), tasks.get(7).getDescription());
+    }
+}
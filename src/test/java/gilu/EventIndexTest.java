@@ -0,0 +1,75 @@
+package gilu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import gilu.index.EventIndex;
+import gilu.task.Event;
+
+/**
+ * Tests the interval index against a brute-force overlap check.
+ */
+class EventIndexTest {
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private static boolean overlaps(Event a, Event b) {
+        return a.getFrom().isBefore(b.getTo()) && b.getFrom().isBefore(a.getTo());
+    }
+
+    private static Event randomEvent(Random random, int number) {
+        LocalDateTime from = START.plusMinutes(random.nextInt(60 * 24 * 60));
+        return new Event("event " + number, from, from.plusMinutes(random.nextInt(600)));
+    }
+
+    /**
+     * Test: overlap queries should match checking every remaining event.
+     */
+    @Test
+    void testFindOverlappingMatchesBruteForce() {
+        Random random = new Random(42);
+        EventIndex index = new EventIndex();
+        // Removal has to keep the subtree end times right
+        List<Event> events = BruteForceCheck.addThenRemove(2_000, i -> randomEvent(random, i), index::add,
+                index::remove, 3);
+
+        BruteForceCheck.assertQueries(200, () -> randomEvent(random, -1),
+                query -> events.stream().filter(event -> overlaps(event, query)).collect(Collectors.toSet()),
+                query -> new HashSet<>(index.findOverlapping(query.getFrom(), query.getTo())));
+    }
+
+    /**
+     * Test: every overlapping pair should be reported exactly once.
+     */
+    @Test
+    void testForEachConflictMatchesBruteForce() {
+        Random random = new Random(7);
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 1_500; i++) {
+            events.add(randomEvent(random, i));
+        }
+        events.add(new Event("touching", events.get(0).getTo(), events.get(0).getTo().plusHours(1)));
+        EventIndex index = new EventIndex();
+        events.forEach(index::add);
+
+        int expected = 0;
+        for (int i = 0; i < events.size(); i++) {
+            for (int j = i + 1; j < events.size(); j++) {
+                expected += overlaps(events.get(i), events.get(j)) ? 1 : 0;
+            }
+        }
+        Set<List<Event>> reported = new HashSet<>();
+        int count = index.forEachConflict((first, second) -> reported.add(List.of(first, second)));
+
+        assertEquals(expected, count);
+        assertEquals(expected, reported.size());
+    }
+}
@@ -0,0 +1,257 @@
+package gilu;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import com.sun.management.ThreadMXBean;
+
+import gilu.exception.GiluException;
+import gilu.storage.Storage;
+import gilu.task.Task;
+import gilu.ui.Ui;
+
+/**
+ * Checks the heap footprint of tasks and the bytes allocated per command against the budgets in
+ * {@code footprint-budgets.properties}. A change that exceeds a budget fails the build; raise the
+ * budget in the same change if the extra memory is intended.
+ */
+class FootprintTest {
+    private static final String BUDGETS_RESOURCE = "/footprint-budgets.properties";
+    private static final int LIST_SIZE = 1000;
+    private static final int WARMUP_RUNS = 200;
+    private static final int MEASURED_RUNS = 50;
+
+    private static Properties budgets;
+
+    @TempDir
+    Path tempDir;
+
+    private TestReporter reporter;
+    private TaskList taskList;
+    private Parser parser;
+    private Ui ui;
+    private Storage storage;
+
+    @BeforeAll
+    static void loadBudgets() throws IOException {
+        budgets = new Properties();
+        try (InputStream input = FootprintTest.class.getResourceAsStream(BUDGETS_RESOURCE)) {
+            budgets.load(input);
+        }
+    }
+
+    @BeforeEach
+    void setUp(TestReporter reporter) throws IOException {
+        this.reporter = reporter;
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < LIST_SIZE; i++) {
+            tasks.add(Storage.parseTask(sampleLine(i)));
+        }
+        taskList = new TaskList(tasks);
+        parser = new Parser(false); // Measure every run in full, not answered from the result cache
+        ui = new Ui();
+        storage = new Storage(tempDir.resolve("footprint_test.txt").toString());
+        storage.saveTasks(tasks);
+    }
+
+    /**
+     * Test: a todo loaded from storage should stay within its retained-size budget.
+     */
+    @Test
+    void testRetainedBytesPerTodo() {
+        assertWithinBudget("retained.todo", ObjectGraph.retainedBytes(Storage.parseTask("T | 0 | Read book 1")));
+    }
+
+    /**
+     * Test: a deadline loaded from storage should stay within its retained-size budget.
+     */
+    @Test
+    void testRetainedBytesPerDeadline() {
+        assertWithinBudget("retained.deadline",
+                ObjectGraph.retainedBytes(Storage.parseTask("D | 1 | Submit assignment 1 | 2023-12-15 1830")));
+    }
+
+    /**
+     * Test: an event loaded from storage should stay within its retained-size budget.
+     */
+    @Test
+    void testRetainedBytesPerEvent() {
+        assertWithinBudget("retained.event", ObjectGraph.retainedBytes(
+                Storage.parseTask("E | 0 | Team meeting 1 | 2023-12-10 1415 | 2023-12-12 1645")));
+    }
+
+    /**
+     * Test: listing the tasks should stay within its allocation budget.
+     */
+    @Test
+    void testAllocatedBytesPerList() throws GiluException {
+        assertWithinBudget("allocated.list", allocatedBytesPerRun("list"));
+    }
+
+    /**
+     * Test: finding tasks should stay within its allocation budget.
+     */
+    @Test
+    void testAllocatedBytesPerFind() throws GiluException {
+        assertWithinBudget("allocated.find", allocatedBytesPerRun("find meeting 1"));
+    }
+
+    /**
+     * Test: adding a todo, which also saves the list, should stay within its allocation budget.
+     */
+    @Test
+    void testAllocatedBytesPerTodo() throws GiluException {
+        assertWithinBudget("allocated.todo", allocatedBytesPerRun("todo Water plants"));
+    }
+
+    /**
+     * Test: marking and unmarking a task, which also saves the list, should stay within its allocation budget.
+     * Marking a task that is already done changes nothing, so the two commands take turns.
+     */
+    @Test
+    void testAllocatedBytesPerMark() throws GiluException {
+        assertWithinBudget("allocated.mark", allocatedBytesPerRun("mark 2", "unmark 2"));
+    }
+
+    /**
+     * Returns the average number of bytes the current thread allocates to run a command,
+     * after warming it up. Several commands are run in turn.
+     */
+    private long allocatedBytesPerRun(String... inputs) throws GiluException {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            parser.executeCommand(inputs[i % inputs.length], taskList, ui, storage);
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            parser.executeCommand(inputs[i % inputs.length], taskList, ui, storage);
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - before) / MEASURED_RUNS;
+    }
+
+    private void assertWithinBudget(String budgetName, long actual) {
+        long budget = Long.parseLong(budgets.getProperty(budgetName));
+        reporter.publishEntry(budgetName, actual + " bytes (budget " + budget + ")");
+        assertTrue(actual <= budget, budgetName + " is " + actual + " bytes, over its budget of " + budget);
+    }
+
+    private static String sampleLine(int i) {
+        switch (i % 3) {
+        case 0:
+            return "T | 0 | Read book " + i;
+        case 1:
+            return "D | " + (i % 2) + " | Submit assignment " + i + " | 2023-12-15 1830";
+        default:
+            return "E | 0 | Team meeting " + i + " | 2023-12-10 1415 | 2023-12-12 1645";
+        }
+    }
+
+    /**
+     * Estimates retained sizes by walking object graphs reflectively.
+     * Sizes follow the HotSpot layout: a 12-byte header with compressed class pointers,
+     * 4-byte references with compressed oops, and 8-byte alignment.
+     */
+    private static class ObjectGraph {
+        private static final int REFERENCE_SIZE = isCompressedOops() ? 4 : 8;
+        private static final int OBJECT_HEADER = 12;
+        private static final int ARRAY_HEADER = 16;
+
+        static long retainedBytes(Object root) {
+            Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            Deque<Object> pending = new ArrayDeque<>();
+            pending.push(root);
+            long total = 0;
+            while (!pending.isEmpty()) {
+                Object object = pending.pop();
+                if (object instanceof Class || !seen.add(object)) {
+                    continue;
+                }
+                total += shallowSize(object, pending);
+            }
+            return total;
+        }
+
+        private static long shallowSize(Object object, Deque<Object> pending) {
+            Class<?> type = object.getClass();
+            if (type.isArray()) {
+                int length = Array.getLength(object);
+                Class<?> component = type.getComponentType();
+                if (!component.isPrimitive()) {
+                    for (int i = 0; i < length; i++) {
+                        pushIfPresent(Array.get(object, i), pending);
+                    }
+                }
+                return align(ARRAY_HEADER + (long) length * sizeOf(component));
+            }
+            long size = OBJECT_HEADER;
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    size += sizeOf(field.getType());
+                    if (!field.getType().isPrimitive() && field.trySetAccessible()) {
+                        try {
+                            pushIfPresent(field.get(object), pending);
+                        } catch (IllegalAccessException e) {
+                            // Count the reference but not the object behind it
+                        }
+                    }
+                }
+            }
+            return align(size);
+        }
+
+        private static void pushIfPresent(Object object, Deque<Object> pending) {
+            if (object != null) {
+                pending.push(object);
+            }
+        }
+
+        private static int sizeOf(Class<?> type) {
+            if (!type.isPrimitive()) {
+                return REFERENCE_SIZE;
+            } else if (type == long.class || type == double.class) {
+                return 8;
+            } else if (type == int.class || type == float.class) {
+                return 4;
+            } else if (type == short.class || type == char.class) {
+                return 2;
+            } else {
+                return 1;
+            }
+        }
+
+        private static long align(long size) {
+            return (size + 7) & ~7L;
+        }
+
+        private static boolean isCompressedOops() {
+            HotSpotDiagnosticMXBean hotSpot = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            return hotSpot == null || Boolean.parseBoolean(hotSpot.getVMOption("UseCompressedOops").getValue());
+        }
+    }
+}
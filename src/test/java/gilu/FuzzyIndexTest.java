@@ -0,0 +1,108 @@
+package gilu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import gilu.index.FuzzyIndex;
+import gilu.task.Task;
+import gilu.task.Todo;
+
+/**
+ * Tests typo-tolerant search over task descriptions.
+ */
+class FuzzyIndexTest {
+    private final Todo meeting = new Todo("Team meeting notes");
+    private final Todo meetup = new Todo("Go to the meetup");
+    private final Todo melting = new Todo("Melting pot recipe");
+    private final Todo groceries = new Todo("Buy groceries");
+    private FuzzyIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FuzzyIndex();
+        for (Task task : List.of(meeting, meetup, melting, groceries)) {
+            index.add(task);
+        }
+    }
+
+    /**
+     * Test: a misspelt keyword should find close words, the closest first.
+     */
+    @Test
+    void testSearchToleratesTypos() {
+        List<Task> results = index.search("meetng");
+
+        assertEquals(List.of(meeting, melting, meetup), results);
+        assertEquals(List.of(groceries), index.search("grocereis"));
+    }
+
+    /**
+     * Test: a search for several words should only find tasks matching all of them.
+     */
+    @Test
+    void testSearchRequiresEveryWord() {
+        assertEquals(List.of(meeting), index.search("team metting"));
+        assertTrue(index.search("team groceries").isEmpty());
+    }
+
+    /**
+     * Test: short words within the allowed typos should be found even if they share no trigram with the query.
+     */
+    @Test
+    void testSearchFindsCloseWordsWithoutSharedTrigrams() {
+        Todo cat = new Todo("Feed the cat");
+        Todo letters = new Todo("Sort abcdef");
+        index.add(cat);
+        index.add(letters);
+
+        assertEquals(List.of(cat), index.search("cut"));
+        assertEquals(List.of(letters), index.search("axcdyf"));
+    }
+
+    /**
+     * Test: searches should find the same tasks, in the same order, as checking every task.
+     */
+    @Test
+    void testSearchMatchesScan() {
+        Random random = new Random(42);
+        FuzzyIndex randomIndex = new FuzzyIndex();
+        List<Task> tasks = BruteForceCheck.addThenRemove(1_000, i -> new Todo(randomWords(random) + " n" + i),
+                randomIndex::add, randomIndex::remove, 4);
+
+        BruteForceCheck.assertQueries(300, () -> randomWords(random), query -> FuzzyIndex.scan(query, tasks),
+                randomIndex::search);
+    }
+
+    /**
+     * Returns one to three words of up to 7 letters from a small alphabet, so that many words are close.
+     */
+    private static String randomWords(Random random) {
+        List<String> words = new ArrayList<>();
+        for (int i = random.nextInt(3); i >= 0; i--) {
+            StringBuilder word = new StringBuilder();
+            for (int j = random.nextInt(7); j >= 0; j--) {
+                word.append((char) ('a' + random.nextInt(4)));
+            }
+            words.add(word.toString());
+        }
+        return String.join(" ", words);
+    }
+
+    /**
+     * Test: a removed task should no longer be found.
+     */
+    @Test
+    void testRemovedTaskIsNotFound() {
+        index.remove(meeting);
+
+        assertEquals(List.of(melting), index.search("metting"));
+        assertTrue(index.search("notes").isEmpty());
+    }
+}
@@ -0,0 +1,55 @@
+package gilu;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests the staged startup of Gilu, where tasks are loaded in the background.
+ */
+class GiluTest {
+    @TempDir
+    Path tempDir;
+
+    private String filePath;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path file = tempDir.resolve("gilu_startup_test.txt");
+        Files.writeString(file, "T | 0 | Read book\n"
+                + "D | 0 | Submit assignment | 2023-12-15 1800\n");
+        filePath = file.toString();
+    }
+
+    /**
+     * Test: a command issued right after startup should see every task once loading finishes.
+     */
+    @Test
+    void testMutationIsQueuedUntilLoaded() {
+        try (Gilu gilu = new Gilu(filePath)) {
+            gilu.startLoading();
+
+            String response = gilu.getResponse("todo Water plants");
+            assertTrue(response.contains("Now you have 3 tasks."), response);
+        }
+    }
+
+    /**
+     * Test: a read issued behind a queued mutation should wait for it and see the whole list.
+     */
+    @Test
+    void testReadAfterQueuedMutationSeesAllTasks() {
+        try (Gilu gilu = new Gilu(filePath)) {
+            gilu.getResponseAsync("todo Water plants");
+            String response = gilu.getResponse("list");
+            assertTrue(response.contains("1. [T][ ] Read book"), response);
+            assertTrue(response.contains("3. [T][ ] Water plants"), response);
+        }
+    }
+}
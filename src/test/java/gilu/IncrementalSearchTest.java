@@ -0,0 +1,62 @@
+package gilu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import gilu.search.IncrementalSearch;
+import gilu.task.Task;
+import gilu.task.Todo;
+
+/**
+ * Tests the IncrementalSearch class used for search-as-you-type.
+ */
+class IncrementalSearchTest {
+    private IncrementalSearch search;
+    private TaskList taskList;
+
+    @BeforeEach
+    void setUp() {
+        search = new IncrementalSearch();
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("Read book"));
+        tasks.add(new Todo("Return book"));
+        tasks.add(new Todo("Buy bread"));
+        taskList = new TaskList(tasks);
+    }
+
+    /**
+     * Test: a growing keyword should narrow the previous matches and keep task numbers.
+     */
+    @Test
+    void testGrowingKeywordRefinesMatches() {
+        assertEquals(List.of("1. [T][ ] Read book", "3. [T][ ] Buy bread"),
+                search.search("rea", taskList, () -> false));
+        assertEquals(List.of("3. [T][ ] Buy bread"), search.search("brea", taskList, () -> false));
+        assertEquals(List.of("3. [T][ ] Buy bread"), search.search("bread", taskList, () -> false));
+    }
+
+    /**
+     * Test: a changed task list should be scanned again instead of refining stale matches.
+     */
+    @Test
+    void testChangedListIsRescanned() {
+        search.search("b", taskList, () -> false);
+        taskList.addLoadedTasks(List.of(new Todo("Bake bread")));
+        assertEquals(List.of("3. [T][ ] Buy bread", "4. [T][ ] Bake bread"),
+                search.search("bread", taskList, () -> false));
+    }
+
+    /**
+     * Test: a superseded search should return null.
+     */
+    @Test
+    void testSupersededSearchReturnsNull() {
+        assertNull(search.search("book", taskList, () -> true));
+    }
+}
@@ -0,0 +1,121 @@
+package gilu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import gilu.index.FuzzyIndex;
+import gilu.index.IndexSidecar;
+import gilu.storage.Storage;
+import gilu.task.Task;
+import gilu.task.Todo;
+import gilu.ui.Ui;
+
+/**
+ * Tests saving the fuzzy search index next to the storage file and mapping it back in.
+ */
+class IndexSidecarTest {
+    private static final List<String> QUERIES = List.of("meetng", "grocereis", "team metting", "report", "xyz");
+
+    @TempDir
+    Path directory;
+
+    private Storage storage;
+    private List<Task> tasks;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storage = new Storage(directory.resolve("gilu.txt").toString());
+        storage.saveTasks(List.of(new Todo("Team meeting notes"), new Todo("Go to the meetup"),
+                new Todo("Melting pot recipe"), new Todo("Buy groceries"), new Todo("Write the report")));
+        tasks = storage.loadTasks();
+    }
+
+    /**
+     * Test: an index read back for an unchanged data file should answer like a freshly built one.
+     */
+    @Test
+    void testReadMatchingStampAnswersLikeFreshIndex() throws IOException {
+        FuzzyIndex built = FuzzyIndex.build(tasks);
+        IndexSidecar.Stamp stamp = IndexSidecar.stamp(storage.getStampFile());
+        IndexSidecar.write(storage.getIndexPath(), stamp, built, tasks);
+
+        List<Task> reloaded = storage.loadTasks();
+        FuzzyIndex mapped = IndexSidecar.read(storage.getIndexPath(), stamp, reloaded);
+
+        assertNotNull(mapped);
+        FuzzyIndex expected = FuzzyIndex.build(reloaded);
+        for (String query : QUERIES) {
+            assertEquals(expected.search(query), mapped.search(query), query);
+        }
+        mapped.remove(reloaded.get(0));
+        mapped.add(new Todo("Team offsite"));
+        assertEquals(1, mapped.search("team").size());
+        assertTrue(mapped.search("notes").isEmpty());
+    }
+
+    /**
+     * Test: an index saved for a data file that has since changed should not be used.
+     */
+    @Test
+    void testReadIgnoresChangedDataFile() throws IOException {
+        IndexSidecar.Stamp stamp = IndexSidecar.stamp(storage.getStampFile());
+        IndexSidecar.write(storage.getIndexPath(), stamp, FuzzyIndex.build(tasks), tasks);
+
+        Path dataFile = storage.getStampFile();
+        Files.setLastModifiedTime(dataFile, FileTime.fromMillis(Files.getLastModifiedTime(dataFile).toMillis() + 1));
+
+        assertNull(IndexSidecar.read(storage.getIndexPath(), IndexSidecar.stamp(dataFile), tasks));
+    }
+
+    /**
+     * Test: scanning every task should find the same tasks as the index.
+     */
+    @Test
+    void testScanWithoutIndexFindsSameTasks() {
+        FuzzyIndex index = FuzzyIndex.build(tasks);
+        for (String query : QUERIES) {
+            assertEquals(index.search(query), FuzzyIndex.scan(query, tasks), query);
+        }
+    }
+
+    /**
+     * Test: the first start should build and save the index, and the next should map the saved one.
+     */
+    @Test
+    void testRestoreFuzzyIndexBuildsThenMapsSavedIndex() throws Exception {
+        Ui ui = new Ui();
+        TaskList first = new TaskList();
+        first.deferFuzzyIndex();
+        first.addLoadedTasks(new ArrayList<>(tasks));
+        BlockingQueue<Runnable> installs = new LinkedBlockingQueue<>();
+        assertFalse(first.restoreFuzzyIndex(storage, installs::add));
+
+        // Searches check every task until the index built in the background is installed
+        String response = first.findTasksFuzzy("find~ meetng", ui);
+        installs.poll(10, TimeUnit.SECONDS).run();
+        assertEquals(response, first.findTasksFuzzy("find~ meetng", ui));
+
+        TaskList second = new TaskList();
+        second.deferFuzzyIndex();
+        second.addLoadedTasks(storage.loadTasks());
+        assertTrue(second.restoreFuzzyIndex(storage, Runnable::run));
+        assertEquals(response, second.findTasksFuzzy("find~ meetng", ui));
+    }
+}
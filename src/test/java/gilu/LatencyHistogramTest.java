@@ -0,0 +1,47 @@
+package gilu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import gilu.metrics.LatencyHistogram;
+
+/**
+ * Tests the percentiles reported by the LatencyHistogram class.
+ */
+class LatencyHistogramTest {
+
+    /**
+     * Test: percentiles should be within the bucket precision of the recorded values.
+     */
+    @Test
+    void testPercentilesWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000L, histogram.getMax());
+        assertWithinPrecision(50_000_000L, histogram.getPercentile(50));
+        assertWithinPrecision(90_000_000L, histogram.getPercentile(90));
+        assertWithinPrecision(99_000_000L, histogram.getPercentile(99));
+        assertEquals(100_000_000L, histogram.getPercentile(100));
+    }
+
+    /**
+     * Test: an empty histogram should report zero.
+     */
+    @Test
+    void testEmptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(99));
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected * 1.07,
+                "Expected about " + expected + " but was " + actual);
+    }
+}
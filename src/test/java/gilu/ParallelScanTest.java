@@ -0,0 +1,99 @@
+package gilu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import gilu.task.Deadline;
+import gilu.task.Task;
+import gilu.task.Todo;
+import gilu.ui.Ui;
+
+/**
+ * Tests that scans split across cores give the same results, in the same order, as sequential ones.
+ */
+class ParallelScanTest {
+    private static final int SIZE = 100_000;
+
+    /**
+     * Test: a parallel filter should keep the matching items in list order.
+     */
+    @Test
+    void testFilterKeepsListOrder() {
+        List<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < SIZE; i++) {
+            numbers.add(i);
+        }
+        List<Integer> expected = numbers.stream().filter(n -> n % 7 == 3).collect(Collectors.toList());
+        assertEquals(expected, ParallelScan.filter(numbers, n -> n % 7 == 3));
+        assertEquals(List.of(), ParallelScan.filter(List.<Integer>of(), n -> true));
+    }
+
+    /**
+     * Test: lines rendered in parallel should be joined in list order with their own numbers.
+     */
+    @Test
+    void testAppendLinesKeepsOrderAndNumbering() {
+        List<String> words = new ArrayList<>();
+        StringBuilder expected = new StringBuilder("header\n");
+        for (int i = 0; i < SIZE; i++) {
+            words.add("w" + i);
+            expected.append(i + 1).append(". w").append(i).append('\n');
+        }
+        StringBuilder response = new StringBuilder("header\n");
+        ParallelScan.appendLines(response, words, (line, i, word) -> line.append(i + 1).append(". ")
+                .append(word).append('\n'));
+        assertEquals(expected.toString(), response.toString());
+    }
+
+    /**
+     * Renders tasks one after another, as commands do on lists below the threshold.
+     */
+    private static String renderSequentially(String header, List<? extends Task> tasks) {
+        StringBuilder response = new StringBuilder(header);
+        for (int i = 0; i < tasks.size(); i++) {
+            response.append("  ").append(i + 1).append(". ").append(tasks.get(i)).append('\n');
+        }
+        return response.toString();
+    }
+
+    /**
+     * Test: commands on a list above the threshold should give the same output as a sequential scan.
+     */
+    @Test
+    void testLargeTaskListScannedInParallel() {
+        assertTrue(ParallelScan.isWorthSplitting(SIZE));
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < SIZE; i++) {
+            tasks.add(i % 2 == 0
+                    ? new Todo("read chapter " + i)
+                    : new Deadline("return book " + i, LocalDateTime.of(2025, 3, 1 + i % 28, 12, 0)));
+        }
+        TaskList taskList = new TaskList(tasks);
+        Ui ui = new Ui();
+
+        String found = taskList.findTasks("find chapter 9999", ui);
+        assertTrue(found.contains("  1. [T][ ] read chapter 99990\n"), found);
+        assertTrue(found.contains("  5. [T][ ] read chapter 99998\n"), found);
+
+        List<Task> todos = tasks.stream().filter(task -> task instanceof Todo).collect(Collectors.toList());
+        List<Deadline> deadlines = tasks.stream()
+                .filter(task -> task instanceof Deadline)
+                .map(task -> (Deadline) task)
+                .sorted(Comparator.comparing(Deadline::getBy))
+                .collect(Collectors.toList());
+        assertEquals(renderSequentially(ui.showMessage("Here are the tasks in your list:\n"), tasks),
+                taskList.getTaskListString(ui));
+        assertEquals(renderSequentially(ui.showMessage("Here are the matching tasks:\n"), todos),
+                taskList.findTasks("find chapter", ui));
+        assertEquals(renderSequentially(ui.showMessage("Here is your sorted task list:") + "\nDeadlines:\n", deadlines)
+                + renderSequentially("\nTodos:\n", todos), taskList.getSortedTaskListString(ui));
+    }
+}
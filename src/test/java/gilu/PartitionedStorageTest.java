@@ -0,0 +1,189 @@
+package gilu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import gilu.storage.ExternalChanges;
+import gilu.storage.PartitionedStorage;
+import gilu.storage.Storage;
+import gilu.task.Deadline;
+import gilu.task.Event;
+import gilu.task.Task;
+import gilu.task.Todo;
+import gilu.ui.Ui;
+
+/**
+ * Tests storing tasks in monthly partitions.
+ */
+class PartitionedStorageTest {
+    private static final FileTime LONG_AGO = FileTime.fromMillis(0);
+
+    @TempDir
+    Path directory;
+
+    private Path flatFile;
+    private Path partitions;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        flatFile = directory.resolve("gilu.txt");
+        partitions = directory.resolve("gilu");
+        Files.writeString(flatFile, "D | 0 | March report | 2025-03-14 1800\n"
+                + "T | 0 | Read book\n"
+                + "E | 0 | Conference | 2025-02-27 0900 | 2025-03-02 1700\n"
+                + "D | 1 | April taxes | 2025-04-15 2359\n");
+    }
+
+    private PartitionedStorage open() {
+        return new PartitionedStorage(flatFile.toString(), partitions.toString());
+    }
+
+    private static List<String> describe(List<Task> tasks) {
+        List<String> descriptions = new ArrayList<>();
+        for (Task task : tasks) {
+            descriptions.add(task.getDescription());
+        }
+        return descriptions;
+    }
+
+    /**
+     * Test: tasks migrated into partitions should load back in list order.
+     */
+    @Test
+    void testLoadAfterMigrationKeepsListOrder() throws IOException {
+        List<Task> migrated = open().loadTasks();
+        List<Task> reloaded = open().loadTasks();
+
+        assertEquals(List.of("March report", "Read book", "Conference", "April taxes"), describe(reloaded));
+        assertEquals(describe(migrated), describe(reloaded));
+        assertTrue(Files.exists(partitions.resolve("2025-02.txt")));
+        assertTrue(Files.exists(partitions.resolve("todo.txt")));
+    }
+
+    /**
+     * Test: the flat file should be set aside after migration, and opening it should load the partitions.
+     */
+    @Test
+    void testMigrationRetiresFlatFile() throws IOException {
+        open().loadTasks();
+
+        assertFalse(Files.exists(flatFile));
+        assertTrue(Files.exists(directory.resolve("gilu.txt.migrated")));
+        Storage reopened = Storage.open(flatFile.toString());
+        assertTrue(reopened instanceof PartitionedStorage);
+        assertEquals(List.of("March report", "Read book", "Conference", "April taxes"),
+                describe(reopened.loadTasks()));
+        assertFalse(Files.exists(flatFile));
+    }
+
+    /**
+     * Test: saves of a tracked list should only rewrite the partitions of the tasks that changed.
+     */
+    @Test
+    void testTrackedSaveRewritesOnlyDirtyPartitions() throws Exception {
+        PartitionedStorage storage = open();
+        Ui ui = new Ui();
+        TaskList taskList = new TaskList();
+        taskList.addChangeListener(storage.trackChanges());
+        taskList.addLoadedTasks(storage.loadTasks());
+        taskList.addTodo("todo Water plants", ui, storage);
+        Files.setLastModifiedTime(partitions.resolve("2025-02.txt"), LONG_AGO);
+        Files.setLastModifiedTime(partitions.resolve("2025-03.txt"), LONG_AGO);
+        Files.setLastModifiedTime(partitions.resolve("todo.txt"), LONG_AGO);
+
+        taskList.markTask("mark 2", ui, storage);
+        taskList.deleteTask("delete 4", ui, storage);
+        taskList.addTodo("todo Feed cat", ui, storage);
+
+        assertEquals(LONG_AGO, Files.getLastModifiedTime(partitions.resolve("2025-02.txt")));
+        assertEquals(LONG_AGO, Files.getLastModifiedTime(partitions.resolve("2025-03.txt")));
+        assertFalse(LONG_AGO.equals(Files.getLastModifiedTime(partitions.resolve("todo.txt"))));
+        assertFalse(Files.exists(partitions.resolve("2025-04.txt")));
+        List<Task> reloaded = open().loadTasks();
+        assertEquals(List.of("March report", "Read book", "Conference", "Water plants", "Feed cat"),
+                describe(reloaded));
+        assertTrue(reloaded.get(1).isDone());
+    }
+
+    /**
+     * Test: changing one task should only rewrite the partition holding it.
+     */
+    @Test
+    void testSaveRewritesOnlyChangedPartition() throws IOException {
+        PartitionedStorage storage = open();
+        List<Task> tasks = storage.loadTasks();
+        Files.setLastModifiedTime(partitions.resolve("2025-03.txt"), LONG_AGO);
+        Files.setLastModifiedTime(partitions.resolve("todo.txt"), LONG_AGO);
+
+        tasks.get(1).markAsDone();
+        tasks.add(new Todo("Water plants"));
+        tasks.remove(3);
+        storage.saveTasks(tasks);
+
+        assertEquals(LONG_AGO, Files.getLastModifiedTime(partitions.resolve("2025-03.txt")));
+        assertFalse(LONG_AGO.equals(Files.getLastModifiedTime(partitions.resolve("todo.txt"))));
+        assertFalse(Files.exists(partitions.resolve("2025-04.txt")));
+        assertEquals(List.of("March report", "Read book", "Conference", "Water plants"),
+                describe(open().loadTasks()));
+    }
+
+    /**
+     * Test: a date query should only read the partitions that can hold tasks on that date.
+     */
+    @Test
+    void testLoadTasksAroundReadsOnlyCandidatePartitions() throws IOException {
+        PartitionedStorage storage = open();
+        assertNull(storage.loadTasksAround(LocalDate.of(2025, 3, 1)));
+        List<Task> tasks = storage.loadTasks();
+        tasks.add(new Event("Long trip", LocalDateTime.of(2025, 1, 20, 8, 0), LocalDateTime.of(2025, 1, 30, 8, 0)));
+        tasks.add(new Deadline("Next report", LocalDateTime.of(2025, 3, 31, 12, 0)));
+        storage.saveTasks(tasks);
+
+        assertEquals(List.of("March report", "Conference", "Next report"),
+                describe(storage.loadTasksAround(LocalDate.of(2025, 3, 1))));
+    }
+
+    /**
+     * Test: a save over partitions that another Gilu saved since they were loaded should be rejected,
+     * and reading the other Gilu's changes should load them and let the next save through.
+     */
+    @Test
+    void testSaveAfterOtherProcessSavedIsRejected() throws IOException {
+        PartitionedStorage first = open();
+        List<Task> firstTasks = first.loadTasks();
+        PartitionedStorage second = open();
+        List<Task> secondTasks = second.loadTasks();
+
+        firstTasks.add(new Todo("Water plants"));
+        first.saveTasks(firstTasks);
+        secondTasks.get(1).markAsDone();
+        assertThrows(IOException.class, () -> second.saveTasks(secondTasks));
+
+        ExternalChanges changes = second.readExternalChanges();
+        assertNotNull(changes);
+        assertEquals(0, changes.getFromTask());
+        assertEquals(List.of("March report", "Read book", "Conference", "April taxes", "Water plants"),
+                describe(changes.getTasks()));
+        changes.getTasks().get(1).markAsDone();
+        second.saveTasks(changes.getTasks());
+        assertNull(second.readExternalChanges());
+        assertTrue(first.readExternalChanges().getTasks().get(1).isDone());
+    }
+}
@@ -0,0 +1,85 @@
+package gilu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import gilu.metrics.CommandMetrics;
+import gilu.replication.ReplicationPrimary;
+import gilu.replication.ReplicationStandby;
+import gilu.storage.Storage;
+import gilu.task.Task;
+import gilu.task.Todo;
+import gilu.ui.Ui;
+
+/**
+ * Tests replicating a task list from a primary to a standby over a local socket.
+ */
+class ReplicationTest {
+    @TempDir
+    Path directory;
+
+    private final ExecutorService primaryOwner = Executors.newSingleThreadExecutor();
+    private final ExecutorService standbyOwner = Executors.newSingleThreadExecutor();
+    private final Ui ui = new Ui();
+
+    @AfterEach
+    void tearDown() {
+        primaryOwner.shutdownNow();
+        standbyOwner.shutdownNow();
+    }
+
+    private static List<String> describe(List<Task> tasks) {
+        return tasks.stream().map(Task::toString).toList();
+    }
+
+    private static void awaitCaughtUp(ReplicationStandby standby, long version) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (standby.getAppliedVersion() < version && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Test: a standby should receive the snapshot and then every later change, in order.
+     */
+    @Test
+    void testStandbyFollowsSnapshotAndLaterChanges() throws Exception {
+        Storage primaryStorage = new Storage(directory.resolve("primary.txt").toString());
+        Storage standbyStorage = new Storage(directory.resolve("standby.txt").toString());
+        TaskList primaryTasks = new TaskList();
+        TaskList standbyTasks = new TaskList();
+        primaryTasks.addLoadedTasks(List.of(new Todo("before primary"), new Todo("second")));
+
+        ReplicationPrimary primary = primaryOwner.submit(() ->
+                new ReplicationPrimary(0, primaryTasks, primaryOwner, 1_000)).get();
+        primaryOwner.submit(() -> primaryTasks.addTodo("todo before standby", ui, primaryStorage)).get();
+        try (primary; ReplicationStandby standby = new ReplicationStandby("localhost", primary.getPort(),
+                standbyTasks, standbyStorage, standbyOwner)) {
+            primaryOwner.submit(() -> {
+                primaryTasks.markTask("mark 2", ui, primaryStorage);
+                primaryTasks.deleteTask("delete 1", ui, primaryStorage);
+                return primaryTasks.addTodo("todo after standby", ui, primaryStorage);
+            }).get();
+
+            awaitCaughtUp(standby, primaryTasks.getVersion());
+            List<String> expected = describe(primaryTasks.getTasks());
+            assertEquals(expected, standbyOwner.submit(() -> describe(standbyTasks.getTasks())).get());
+            assertEquals(expected, describe(standbyStorage.loadTasks()));
+            assertEquals(0, standby.getLag());
+
+            CommandMetrics metrics = new CommandMetrics();
+            standby.registerGauges(metrics);
+            assertTrue(metrics.getReport().contains("replication.lag.changes 0"), metrics.getReport());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package gilu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import gilu.exception.GiluException;
+import gilu.storage.Storage;
+import gilu.ui.Ui;
+
+/**
+ * Tests that read-only commands are answered from the cache until the list changes.
+ */
+class ResultCacheTest {
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Test: a repeated read-only command should be answered from the cache until the list changes.
+     */
+    @Test
+    void testRepeatedReadsServedUntilListChanges() throws GiluException {
+        Parser parser = new Parser();
+        TaskList tasks = new TaskList();
+        Ui ui = new Ui();
+        Storage storage = new Storage(tempDir.resolve("gilu.txt").toString());
+        parser.executeCommand("todo read book", tasks, ui, storage);
+
+        String first = parser.executeCommand("list", tasks, ui, storage);
+        assertSame(first, parser.executeCommand("  LIST ", tasks, ui, storage));
+        assertSame(parser.executeCommand("find book", tasks, ui, storage),
+                parser.executeCommand("find  book", tasks, ui, storage));
+
+        parser.executeCommand("mark 1", tasks, ui, storage);
+        String afterMark = parser.executeCommand("list", tasks, ui, storage);
+        assertNotEquals(first, afterMark);
+        assertTrue(afterMark.contains("[T][X] read book"));
+
+        String report = parser.getMetrics().getReport();
+        assertTrue(report.contains("cache.hits 2"), report);
+        assertTrue(report.contains("cache.misses 3"), report);
+    }
+
+    /**
+     * Test: a full cache should evict the least recently used answer.
+     */
+    @Test
+    void testPutEvictsLeastRecentlyUsed() {
+        TaskList tasks = new TaskList();
+        ResultCache cache = new ResultCache(2, 10);
+        cache.put("list", tasks, "aaaa");
+        cache.put("sort", tasks, "bbbb");
+        cache.get("list", tasks);
+        cache.put("find x", tasks, "cccc"); // Evicts sort, the least recently used
+
+        assertEquals("aaaa", cache.get("list", tasks));
+        assertNull(cache.get("sort", tasks));
+        cache.put("find y", tasks, "dddddddd"); // Too long to keep with anything else
+        assertEquals(1, cache.size());
+        cache.put("conflicts", tasks, "x".repeat(11)); // Larger than the whole budget, so not cached
+        assertNull(cache.get("conflicts", tasks));
+    }
+}
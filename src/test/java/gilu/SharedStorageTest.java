@@ -0,0 +1,101 @@
+package gilu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import gilu.exception.GiluException;
+import gilu.storage.ExternalChanges;
+import gilu.storage.Storage;
+import gilu.task.Task;
+import gilu.task.Todo;
+import gilu.ui.Ui;
+
+/**
+ * Tests two Gilu processes sharing one storage file, each with its own Storage and TaskList.
+ */
+class SharedStorageTest {
+    @TempDir
+    Path directory;
+
+    private final Ui ui = new Ui();
+    private Storage firstStorage;
+    private Storage secondStorage;
+    private TaskList first;
+    private TaskList second;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        String filePath = directory.resolve("gilu.txt").toString();
+        new Storage(filePath).saveTasks(List.of(new Todo("Read book"), new Todo("Buy milk"),
+                new Todo("Call mom")));
+        firstStorage = new Storage(filePath);
+        secondStorage = new Storage(filePath);
+        first = new TaskList(firstStorage.loadTasks());
+        second = new TaskList(secondStorage.loadTasks());
+    }
+
+    private static List<String> describe(List<Task> tasks) {
+        return tasks.stream().map(Task::toString).toList();
+    }
+
+    /**
+     * Test: reading another process's saves should only read the lines it changed.
+     */
+    @Test
+    void testReadExternalChangesReadsOnlyChangedTail() throws Exception {
+        first.addTodo("todo Water plants", ui, firstStorage);
+        ExternalChanges added = secondStorage.readExternalChanges();
+        assertEquals(3, added.getFromTask());
+        assertEquals(1, added.getTasks().size());
+        second.mergeExternalChanges(added);
+
+        first.markTask("mark 3", ui, firstStorage);
+        first.addTodo("todo Pay rent", ui, firstStorage);
+        ExternalChanges marked = secondStorage.readExternalChanges();
+        assertEquals(2, marked.getFromTask());
+        second.mergeExternalChanges(marked);
+
+        assertEquals(describe(first.getTasks()), describe(second.getTasks()));
+        assertNull(secondStorage.readExternalChanges());
+    }
+
+    /**
+     * Test: saving over another process's unread save should be rejected.
+     */
+    @Test
+    void testSaveAfterUnreadExternalSaveIsRejected() throws Exception {
+        first.deleteTask("delete 1", ui, firstStorage);
+
+        assertThrows(IOException.class, () -> secondStorage.saveTasks(second.getTasks()));
+
+        second.mergeExternalChanges(secondStorage.readExternalChanges());
+        second.addTodo("todo Water plants", ui, secondStorage);
+        first.mergeExternalChanges(firstStorage.readExternalChanges());
+        assertEquals(describe(second.getTasks()), describe(first.getTasks()));
+        assertEquals(describe(second.getTasks()), describe(new Storage(directory.resolve("gilu.txt").toString())
+                .loadTasks()));
+    }
+
+    /**
+     * Test: a mark or delete rejected because another process saved first should be reported as an error.
+     */
+    @Test
+    void testRejectedMarkIsReported() throws Exception {
+        first.addTodo("todo Water plants", ui, firstStorage);
+
+        GiluException marked = assertThrows(GiluException.class, () -> second.markTask("mark 1", ui, secondStorage));
+        assertTrue(marked.getMessage().startsWith("Error saving tasks: Another Gilu has changed the tasks"),
+                marked.getMessage());
+        assertThrows(GiluException.class, () -> second.deleteTask("delete 2", ui, secondStorage));
+    }
+}
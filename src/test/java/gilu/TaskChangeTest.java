@@ -0,0 +1,99 @@
+package gilu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import gilu.change.BatchedChangeFeed;
+import gilu.change.TaskChange;
+import gilu.exception.GiluException;
+import gilu.storage.Storage;
+import gilu.task.Task;
+import gilu.task.Todo;
+import gilu.ui.Ui;
+
+/**
+ * Tests the change feed of TaskList, delivered directly and in batches.
+ */
+class TaskChangeTest {
+    @TempDir
+    Path tempDir;
+
+    private final Ui ui = new Ui();
+    private Storage storage;
+    private TaskList taskList;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storage = new Storage(tempDir.resolve("change_test.txt").toString());
+        storage.saveTasks(new ArrayList<>());
+        taskList = new TaskList();
+        taskList.addLoadedTasks(List.of(new Todo("first"), new Todo("second")));
+    }
+
+    /**
+     * Replays changes onto a copy of the list, as an incremental consumer would.
+     */
+    private static void apply(List<Task> copy, TaskChange change) {
+        switch (change.getKind()) {
+        case ADDED:
+            copy.add(change.getPosition(), change.getTask());
+            break;
+        case REMOVED:
+            assertEquals(change.getTask(), copy.remove(change.getPosition()));
+            break;
+        default:
+            assertEquals(change.getTask(), copy.get(change.getPosition()));
+        }
+    }
+
+    private void mutate() throws GiluException {
+        taskList.addTodo("todo third", ui, storage);
+        taskList.markTask("mark 1", ui, storage);
+        taskList.deleteTask("delete 2", ui, storage);
+        taskList.addAll(List.of(new Todo("fourth"), new Todo("fifth")), storage);
+    }
+
+    /**
+     * Test: a listener should receive every change, in order, ending at the version of the list.
+     */
+    @Test
+    void testListenerReceivesEveryChangeInOrder() throws GiluException {
+        List<Task> copy = new ArrayList<>(taskList.getTasks());
+        List<TaskChange> changes = new ArrayList<>();
+        taskList.addChangeListener(changes::add);
+
+        mutate();
+
+        changes.forEach(change -> apply(copy, change));
+        assertEquals(taskList.getTasks(), copy);
+        assertEquals(TaskChange.Kind.DONE_CHANGED, changes.get(1).getKind());
+        assertEquals(taskList.getVersion(), changes.get(changes.size() - 1).getVersion());
+    }
+
+    /**
+     * Test: a batched feed should deliver every change on its own thread.
+     */
+    @Test
+    void testBatchedFeedDeliversOffThread() throws GiluException {
+        List<Task> copy = Collections.synchronizedList(new ArrayList<>(taskList.getTasks()));
+        try (BatchedChangeFeed feed = new BatchedChangeFeed("change-test", 2, 2,
+                batch -> batch.forEach(change -> apply(copy, change)))) {
+            taskList.addChangeListener(feed);
+            mutate();
+            taskList.clear();
+
+            assertTrue(feed.awaitDelivery(5_000));
+        }
+        assertTrue(copy.isEmpty());
+    }
+}
@@ -1,19 +1,25 @@
 package gilu;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import gilu.exception.GiluException;
 import gilu.storage.Storage;
 import gilu.task.Deadline;
 import gilu.task.Task;
+import gilu.task.Todo;
 import gilu.ui.Ui;
 
 
@@ -21,25 +27,27 @@ import gilu.ui.Ui;
  * Tests the functionality of the TaskList class, particularly the addDeadline method.
  */
 class TaskListTest {
-    private static final String TEST_STORAGE_PATH = "./data/test_tasks.txt";
     private static final String VALID_INPUT = "deadline return book /by 2023-12-15 1800";
     private static final String INVALID_DATE_INPUT = "deadline return book /by 15-12-2023 1800";
     private static final String MISSING_DETAILS_INPUT = "deadline return book";
 
+    @TempDir
+    Path tempDir;
+
     private TaskList taskList;
     private Ui ui;
     private Storage storage;
 
     /**
      * Sets up a fresh TaskList and Storage instance before each test.
-     * Ensures the test storage file starts clean.
+     * Ensures the test storage file starts clean, in a directory of its own.
      *
      * @throws IOException If an error occurs during setup.
      */
     @BeforeEach
     void setUp() throws IOException {
         ui = new Ui();
-        storage = new Storage(TEST_STORAGE_PATH);
+        storage = new Storage(tempDir.resolve("test_tasks.txt").toString());
         taskList = new TaskList();
         storage.saveTasks(new ArrayList<>()); // Ensures clean test file
     }
@@ -91,4 +99,80 @@ class TaskListTest {
                 taskList.addDeadline(INVALID_DATE_INPUT, ui, storage));
         assertEquals("Invalid date format! Use: yyyy-MM-dd HHmm.", exception.getMessage());
     }
+
+    /**
+     * Tests that old completed tasks move to the archive across several archive runs, and stay searchable there.
+     */
+    @Test
+    void testArchiveCompletedTasks() throws GiluException, IOException {
+        LocalDateTime longAgo = LocalDateTime.now().minusYears(1);
+        taskList.addLoadedTasks(List.of(new Deadline("old report", longAgo, true),
+                new Deadline("open report", longAgo, false),
+                new Todo("done chores", true)));
+        assertEquals(1, taskList.archiveCompletedTasks(storage, false));
+        taskList.addLoadedTasks(List.of(new Deadline("older report", longAgo.minusDays(1), true)));
+        taskList.archiveTasks(ui, storage);
+
+        assertEquals(1, taskList.getTaskCount());
+        assertEquals(1, storage.loadTasks().size());
+        String archived = taskList.findArchivedTasks("archive find REPORT", ui, storage);
+        assertTrue(archived.contains("1. [D][X] old report"));
+        assertTrue(archived.contains("2. [D][X] older report"));
+        assertTrue(taskList.findArchivedTasks("archive list", ui, storage).contains("2. [T][X] done chores"));
+    }
+
+    /**
+     * Tests that adding a task matching one in the list, ignoring case and spacing, comes with a warning.
+     */
+    @Test
+    void testAddDuplicateIsFlagged() throws GiluException {
+        String warning = "already in your list";
+        assertFalse(taskList.addDeadline(VALID_INPUT, ui, storage).contains(warning));
+
+        assertTrue(taskList.addDeadline("deadline Return  BOOK /by 2023-12-15 1800", ui, storage).contains(warning));
+        assertFalse(taskList.addDeadline("deadline return book /by 2023-12-16 1800", ui, storage).contains(warning));
+    }
+
+    /**
+     * Tests that dedupe keeps the first copy of each task, marked as done if any copy was, and saves once.
+     */
+    @Test
+    void testDedupeTasks() throws GiluException, IOException {
+        LocalDateTime by = LocalDateTime.of(2023, 12, 15, 18, 0);
+        taskList.addLoadedTasks(List.of(new Deadline("return book", by), new Todo("read"),
+                new Deadline("Return book ", by, true), new Todo("READ"), new Todo("write")));
+
+        String response = taskList.dedupeTasks(ui, storage);
+
+        assertTrue(response.contains("Removed 2 duplicate tasks"));
+        List<Task> saved = storage.loadTasks();
+        assertEquals(List.of("[D][X] return book (by: Dec 15 2023 18:00)", "[T][ ] read", "[T][ ] write"),
+                saved.stream().map(Task::toString).toList());
+        assertTrue(taskList.dedupeTasks(ui, storage).contains("no duplicate"));
+        assertTrue(taskList.addTodo("todo Write", ui, storage).contains("already in your list"));
+    }
+
+    /**
+     * Tests that agendas and range counts only include pending deadlines and events.
+     */
+    @Test
+    void testAgendaAndCount() throws GiluException {
+        taskList.addDeadline(VALID_INPUT, ui, storage);
+        taskList.addDeadline("deadline pay rent /by 2023-12-16 0900", ui, storage);
+        taskList.addEvent("event camp /from 2023-12-14 0900 /to 2023-12-16 1700", ui, storage);
+        taskList.addTodo("todo read", ui, storage);
+
+        assertTrue(taskList.countTasksBetween("count 2023-12-15 2023-12-31", ui)
+                .contains("2 pending deadlines and 1 pending event"));
+        taskList.markTask("mark 1", ui, storage);
+        assertTrue(taskList.countTasksBetween("count 2023-12-15 2023-12-31", ui)
+                .contains("1 pending deadline and 1 pending event"));
+
+        String agenda = taskList.showAgenda("agenda week 2023-12-13", ui);
+        assertTrue(agenda.contains("Wed Dec 13" + " ".repeat(24) + "-"));
+        assertTrue(agenda.contains("Sat Dec 16  ##" + " ".repeat(20) + "1 due, 1 event"));
+        assertTrue(agenda.contains("1 pending deadline and 1 pending event in this period."));
+        assertThrows(GiluException.class, () -> taskList.countTasksBetween("count 2023-12-31 2023-12-01", ui));
+        assertThrows(GiluException.class, () -> taskList.showAgenda("agenda year", ui));
+    }
 }
@@ -0,0 +1,54 @@
+package gilu;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import gilu.task.Deadline;
+import gilu.task.Event;
+import gilu.task.Task;
+import gilu.task.Todo;
+
+/**
+ * Tests the cached display lines of the Task classes.
+ */
+class TaskTest {
+    private static final LocalDateTime FROM = LocalDateTime.of(2023, 12, 10, 14, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2023, 12, 12, 16, 0);
+
+    /**
+     * Test: repeated rendering of an unchanged task should reuse the cached line.
+     */
+    @Test
+    void testRenderedLineIsCached() {
+        Task task = new Deadline("Submit assignment", FROM);
+        assertEquals("[D][ ] Submit assignment (by: Dec 10 2023 14:00)", task.toString());
+        assertSame(task.toString(), task.toString());
+    }
+
+    /**
+     * Test: marking and unmarking should invalidate the cached line.
+     */
+    @Test
+    void testMarkInvalidatesRenderedLine() {
+        Task task = new Event("Team meeting", FROM, TO);
+        assertEquals("[E][ ] Team meeting (from: Dec 10 2023 14:00 to: Dec 12 2023 16:00)", task.toString());
+
+        task.markAsDone();
+        assertEquals("[E][X] Team meeting (from: Dec 10 2023 14:00 to: Dec 12 2023 16:00)", task.toString());
+
+        task.markAsNotDone();
+        assertEquals("[E][ ] Team meeting (from: Dec 10 2023 14:00 to: Dec 12 2023 16:00)", task.toString());
+    }
+
+    /**
+     * Test: tasks loaded as done should render with the done icon.
+     */
+    @Test
+    void testLoadedDoneTaskRendersDone() {
+        assertEquals("[T][X] Read book", new Todo("Read book", true).toString());
+    }
+}
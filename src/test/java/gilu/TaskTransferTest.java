@@ -0,0 +1,173 @@
+package gilu;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import gilu.storage.Storage;
+import gilu.storage.TaskExporter;
+import gilu.storage.TaskImporter;
+import gilu.storage.TransferFormat;
+import gilu.task.Deadline;
+import gilu.task.Event;
+import gilu.task.Task;
+import gilu.task.Todo;
+
+/**
+ * Tests exporting tasks to and importing them back from each transfer format.
+ */
+class TaskTransferTest {
+    @TempDir
+    Path directory;
+
+    private List<Task> sampleTasks() {
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("Read \"Dune\", then chapter 2; notes\\draft", true));
+        tasks.add(new Deadline("Submit report", LocalDateTime.of(2025, 3, 14, 18, 0), false));
+        tasks.add(new Event("Team offsite with a description long enough to need folding in iCalendar output",
+                LocalDateTime.of(2025, 3, 20, 9, 30), LocalDateTime.of(2025, 3, 21, 17, 0), true));
+        return tasks;
+    }
+
+    private List<Task> roundTrip(TransferFormat format) throws IOException {
+        List<Task> tasks = sampleTasks();
+        Storage storage = new Storage(directory.resolve("gilu.txt").toString());
+        storage.saveTasks(tasks);
+        Path file = directory.resolve("export." + format.name().toLowerCase());
+
+        assertEquals(3, new TaskExporter().export(tasks, format, file, storage));
+        List<Task> imported = new ArrayList<>();
+        assertEquals(3, new TaskImporter().importTasks(format, file, imported::add));
+        return imported;
+    }
+
+    private void assertSameTasks(List<Task> imported) {
+        List<Task> expected = sampleTasks();
+        assertEquals(expected.size(), imported.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), imported.get(i).toString());
+        }
+    }
+
+    /**
+     * Test: exporting and importing again should give back the same tasks in every format.
+     */
+    @Test
+    void testRoundTripPreservesTasks() throws IOException {
+        for (TransferFormat format : TransferFormat.values()) {
+            assertSameTasks(roundTrip(format));
+        }
+    }
+
+    /**
+     * Test: exporting over the storage file or the files kept next to it should be rejected and leave them intact.
+     */
+    @Test
+    void testExportOverStorageFilesIsRejected() throws IOException {
+        List<Task> tasks = sampleTasks();
+        Storage storage = new Storage(directory.resolve("gilu.txt").toString());
+        storage.saveTasks(tasks);
+        byte[] saved = Files.readAllBytes(directory.resolve("gilu.txt"));
+
+        for (TransferFormat format : TransferFormat.values()) {
+            for (String name : List.of("gilu.txt", "./gilu.txt", "gilu.version", "gilu.lock", "gilu.index")) {
+                Path target = directory.resolve(name);
+                assertThrows(IOException.class, () -> new TaskExporter().export(tasks, format, target, storage));
+            }
+        }
+        assertArrayEquals(saved, Files.readAllBytes(directory.resolve("gilu.txt")));
+        assertSameTasks(storage.loadTasks());
+    }
+
+    /**
+     * Test: exporting in Gilu's format should write the tasks as they are now, even if they were not saved,
+     * and copy the storage file only when it holds them.
+     */
+    @Test
+    void testExportGiluWritesUnsavedChanges() throws IOException {
+        List<Task> tasks = sampleTasks();
+        Storage storage = new Storage(directory.resolve("gilu.txt").toString());
+        storage.saveTasks(tasks);
+        Path copied = directory.resolve("copied.txt");
+        new TaskExporter().export(tasks, TransferFormat.GILU, copied, storage);
+        assertArrayEquals(Files.readAllBytes(directory.resolve("gilu.txt")), Files.readAllBytes(copied));
+
+        tasks.get(1).markAsDone(); // Not saved, as after a failed save
+        tasks.add(new Todo("Unsaved"));
+        Path exported = directory.resolve("exported.txt");
+        assertEquals(4, new TaskExporter().export(tasks, TransferFormat.GILU, exported, storage));
+
+        List<Task> imported = new ArrayList<>();
+        new TaskImporter().importTasks(TransferFormat.GILU, exported, imported::add);
+        assertEquals(tasks.stream().map(Task::toString).toList(), imported.stream().map(Task::toString).toList());
+        assertFalse(Files.exists(directory.resolve("exported.txt.tmp")));
+    }
+
+    /**
+     * Test: exporting unsaved tasks in Gilu's format should write the same bytes as saving them,
+     * including characters outside ASCII.
+     */
+    @Test
+    void testExportGiluUnsavedMatchesStorageFile() throws IOException {
+        List<Task> tasks = sampleTasks();
+        tasks.add(new Todo("Café ☕ with Zoë"));
+        Storage storage = new Storage(directory.resolve("gilu.txt").toString()); // Never saved
+        Path exported = directory.resolve("exported.txt");
+        assertEquals(4, new TaskExporter().export(tasks, TransferFormat.GILU, exported, storage));
+
+        Storage other = new Storage(directory.resolve("other.txt").toString());
+        other.saveTasks(tasks);
+        assertArrayEquals(Files.readAllBytes(directory.resolve("other.txt")), Files.readAllBytes(exported));
+
+        List<Task> imported = new ArrayList<>();
+        new TaskImporter().importTasks(TransferFormat.GILU, exported, imported::add);
+        assertEquals(other.loadTasks().stream().map(Task::toString).toList(),
+                imported.stream().map(Task::toString).toList());
+    }
+
+    /**
+     * Test: importing a calendar app's iCalendar file should read the dates and completion status.
+     */
+    @Test
+    void testImportIcsFromCalendarApp() throws IOException {
+        Path file = directory.resolve("calendar.ics");
+        Files.writeString(file, "BEGIN:VCALENDAR\r\n"
+                + "BEGIN:VEVENT\r\nSUMMARY:All-day\\, offsite\r\nDTSTART;VALUE=DATE:20250320\r\nEND:VEVENT\r\n"
+                + "BEGIN:VTODO\r\nSUMMARY:Pay bills\r\nDUE;TZID=Asia/Singapore:20250314T180000\r\n"
+                + "STATUS:COMPLETED\r\nEND:VTODO\r\n"
+                + "END:VCALENDAR\r\n");
+
+        List<Task> imported = new ArrayList<>();
+        new TaskImporter().importTasks(TransferFormat.ICS, file, imported::add);
+
+        assertEquals(2, imported.size());
+        assertEquals("All-day, offsite", imported.get(0).getDescription());
+        assertEquals(LocalDateTime.of(2025, 3, 20, 0, 0), ((Event) imported.get(0)).getTo());
+        assertEquals(LocalDateTime.of(2025, 3, 14, 18, 0), ((Deadline) imported.get(1)).getBy());
+        assertEquals(true, imported.get(1).isDone());
+    }
+
+    /**
+     * Test: a malformed line should be reported with its line number.
+     */
+    @Test
+    void testImportMalformedLineReportsLineNumber() throws IOException {
+        Path file = directory.resolve("tasks.jsonl");
+        Files.writeString(file, "{\"type\":\"T\",\"done\":false,\"description\":\"ok\"}\n{\"type\":\"X\"}\n");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+                new TaskImporter().importTasks(TransferFormat.JSONL, file, task -> { }));
+        assertEquals(true, e.getMessage().startsWith("Line 2"));
+    }
+}